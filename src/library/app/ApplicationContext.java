@@ -1,69 +1,165 @@
 package library.app;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 
+import library.domain.loan.LoanPolicy;
 import library.repo.BookRepository;
 import library.repo.LoanRepository;
+import library.repo.SortField;
 import library.repo.UserRepository;
 import library.service.AuthService;
 import library.service.BookService;
+import library.service.DropBoxReturnService;
+import library.service.ExportService;
 import library.service.LoanService;
 import library.service.OverdueService;
+import library.service.ReconciliationService;
+import library.service.RecommendationService;
+import library.service.SessionService;
 
 /**
- * Simple holder for repositories and services used by the console application.
+ * Holder for repositories and services used by the console application.
+ * <p>
+ * Every component sits behind a provider, normally a {@link Lazy}, and is built on first use, so a command
+ * only pays for what it touches. {@link #warmUp()} builds the rest on a background thread while the user types.
  */
 public final class ApplicationContext {
-    private final BookRepository bookRepository;
-    private final LoanRepository loanRepository;
-    private final UserRepository userRepository;
-    private final AuthService authService;
-    private final BookService bookService;
-    private final LoanService loanService;
-    private final OverdueService overdueService;
+    private final Supplier<? extends BookRepository> bookRepository;
+    private final Supplier<? extends LoanRepository> loanRepository;
+    private final Supplier<? extends UserRepository> userRepository;
+    private final Supplier<? extends LoanPolicy> loanPolicy;
+    private final Supplier<? extends AuthService> authService;
+    private final Supplier<? extends BookService> bookService;
+    private final Supplier<? extends LoanService> loanService;
+    private final Supplier<? extends OverdueService> overdueService;
+    private final Supplier<? extends DropBoxReturnService> dropBoxReturnService;
+    private final Supplier<? extends ExportService> exportService;
+    private final Supplier<? extends SessionService> sessionService;
+    private final Supplier<? extends ReconciliationService> reconciliationService;
+    private final Supplier<? extends RecommendationService> recommendationService;
+    private final StartupReport startupReport;
 
     public ApplicationContext(
-            BookRepository bookRepository,
-            LoanRepository loanRepository,
-            UserRepository userRepository,
-            AuthService authService,
-            BookService bookService,
-            LoanService loanService,
-            OverdueService overdueService) {
+            Supplier<? extends BookRepository> bookRepository,
+            Supplier<? extends LoanRepository> loanRepository,
+            Supplier<? extends UserRepository> userRepository,
+            Supplier<? extends LoanPolicy> loanPolicy,
+            Supplier<? extends AuthService> authService,
+            Supplier<? extends BookService> bookService,
+            Supplier<? extends LoanService> loanService,
+            Supplier<? extends OverdueService> overdueService,
+            Supplier<? extends DropBoxReturnService> dropBoxReturnService,
+            Supplier<? extends ExportService> exportService,
+            Supplier<? extends SessionService> sessionService,
+            Supplier<? extends ReconciliationService> reconciliationService,
+            Supplier<? extends RecommendationService> recommendationService,
+            StartupReport startupReport) {
         this.bookRepository = Objects.requireNonNull(bookRepository, "bookRepository");
         this.loanRepository = Objects.requireNonNull(loanRepository, "loanRepository");
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository");
+        this.loanPolicy = Objects.requireNonNull(loanPolicy, "loanPolicy");
         this.authService = Objects.requireNonNull(authService, "authService");
         this.bookService = Objects.requireNonNull(bookService, "bookService");
         this.loanService = Objects.requireNonNull(loanService, "loanService");
         this.overdueService = Objects.requireNonNull(overdueService, "overdueService");
+        this.dropBoxReturnService = Objects.requireNonNull(dropBoxReturnService, "dropBoxReturnService");
+        this.exportService = Objects.requireNonNull(exportService, "exportService");
+        this.sessionService = Objects.requireNonNull(sessionService, "sessionService");
+        this.reconciliationService = Objects.requireNonNull(reconciliationService, "reconciliationService");
+        this.recommendationService = Objects.requireNonNull(recommendationService, "recommendationService");
+        this.startupReport = Objects.requireNonNull(startupReport, "startupReport");
     }
 
     public BookRepository getBookRepository() {
-        return bookRepository;
+        return bookRepository.get();
     }
 
     public LoanRepository getLoanRepository() {
-        return loanRepository;
+        return loanRepository.get();
     }
 
     public UserRepository getUserRepository() {
-        return userRepository;
+        return userRepository.get();
+    }
+
+    public LoanPolicy getLoanPolicy() {
+        return loanPolicy.get();
     }
 
     public AuthService getAuthService() {
-        return authService;
+        return authService.get();
     }
 
     public BookService getBookService() {
-        return bookService;
+        return bookService.get();
     }
 
     public LoanService getLoanService() {
-        return loanService;
+        return loanService.get();
     }
 
     public OverdueService getOverdueService() {
-        return overdueService;
+        return overdueService.get();
+    }
+
+    public DropBoxReturnService getDropBoxReturnService() {
+        return dropBoxReturnService.get();
+    }
+
+    public ExportService getExportService() {
+        return exportService.get();
+    }
+
+    public SessionService getSessionService() {
+        return sessionService.get();
+    }
+
+    public ReconciliationService getReconciliationService() {
+        return reconciliationService.get();
+    }
+
+    public RecommendationService getRecommendationService() {
+        return recommendationService.get();
+    }
+
+    /**
+     * @return timings of the start-up phases and of every component built so far
+     */
+    public StartupReport getStartupReport() {
+        return startupReport;
+    }
+
+    /**
+     * Builds every component that has not been used yet on a background daemon thread, so indexes and
+     * caches are ready before the first command needs them, then reads one catalog page per
+     * {@link SortField} and runs one point-in-time loan query so the repositories build their sort and
+     * loan period indexes while the stores are still small. A component that fails to build is left for
+     * its first real use to report.
+     */
+    public void warmUp() {
+        List<Supplier<?>> providers = List.of(sessionService, bookRepository, loanRepository, loanService,
+                bookService, overdueService, exportService, dropBoxReturnService, reconciliationService,
+                recommendationService);
+        Thread.ofPlatform().name("context-warmup").daemon().start(() -> {
+            for (Supplier<?> provider : providers) {
+                try {
+                    provider.get();
+                } catch (RuntimeException e) {
+                    // Surfaces again on the first real use.
+                }
+            }
+            try {
+                for (SortField field : SortField.values()) {
+                    bookRepository.get().browse(field, null, null, 1);
+                }
+                bookRepository.get().complete("", 1);
+                loanRepository.get().findByIsbnOn("", LocalDate.now());
+            } catch (RuntimeException e) {
+                // Surfaces again on the first query.
+            }
+        });
     }
 }
@@ -1,58 +1,381 @@
 package library.app;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+import library.audit.AuditLoanListener;
+import library.audit.OverflowPolicy;
+import library.audit.RingBufferAuditLog;
 import library.domain.book.Book;
 import library.domain.loan.DefaultLoanPolicy;
+import library.domain.loan.LoanPolicy;
+import library.domain.loan.RuleTableLoanPolicy;
 import library.domain.user.Role;
 import library.domain.user.User;
+import library.exception.ValidationException;
+import library.notification.FileNotificationSink;
+import library.notification.LoanReminderScheduler;
 import library.repo.BookRepository;
+import library.repo.CachingBookRepository;
 import library.repo.InMemoryBookRepository;
 import library.repo.InMemoryLoanRepository;
 import library.repo.InMemoryUserRepository;
 import library.repo.LoanRepository;
 import library.repo.UserRepository;
+import library.repo.mvcc.MvccCoordinator;
+import library.repo.mvcc.MvccSnapshotSource;
+import library.repo.mvcc.VersionedBookRepository;
+import library.repo.mvcc.VersionedLoanRepository;
+import library.repo.shard.BranchRouter;
+import library.repo.shard.ShardedBookRepository;
+import library.repo.shard.ShardedLoanRepository;
+import library.replication.ChangeJournal;
+import library.replication.JournalingBookRepository;
+import library.replication.JournalingLoanRepository;
+import library.replication.JournalingUserRepository;
 import library.service.AuthService;
 import library.service.BookService;
+import library.service.DropBoxReturnService;
+import library.service.ExportService;
 import library.service.LoanService;
 import library.service.OverdueService;
+import library.service.ReconciliationService;
+import library.service.RecommendationService;
+import library.service.SessionService;
 
 /**
- * Builds the application context with in-memory repositories and seed data.
+ * Wires the application context with in-memory repositories and seed data. Components are built lazily;
+ * see {@link #create(StartupReport)}. {@link #createPrimary} and {@link #createFollower} wire the two ends
+ * of replication.
  */
 public final class Bootstrap {
+    private static final String NOTIFICATION_LOG = "notifications.log";
+    private static final Duration DUE_SOON_LEAD = Duration.ofDays(2);
+    private static final String BRANCHES_PROPERTY = "library.branches";
+    private static final String BRANCH_FILE_PROPERTY = "library.branch.assignments";
+    private static final String DEFAULT_BRANCH_FILE = "config/branches.rules";
+    private static final String POLICY_PROPERTY = "library.policy";
+    private static final String DEFAULT_POLICY_FILE = "config/loan-policy.rules";
+    private static final String AUDIT_LOG = "audit.log";
+    private static final String FOLLOWER_AUDIT_LOG = "follower-audit.log";
+    private static final String AUDIT_OVERFLOW_PROPERTY = "library.audit.overflow";
+    private static final int AUDIT_BUFFER_SLOTS = 16_384;
+    private static final long AUDIT_FILE_BYTES = 16L * 1024 * 1024;
+    private static final int AUDIT_FILES = 5;
+    private static final Duration SESSION_TTL = Duration.ofMinutes(30);
+    private static final int SEARCH_CACHE_ENTRIES = 10_000;
+    private static final int RECOMMENDED_NEIGHBOURS = 8;
+
     private Bootstrap() {
     }
 
     public static ApplicationContext create() {
-        BookRepository bookRepository = new InMemoryBookRepository();
-        LoanRepository loanRepository = new InMemoryLoanRepository();
-        UserRepository userRepository = new InMemoryUserRepository();
+        return create(new StartupReport());
+    }
 
-        seed(bookRepository, userRepository);
+    /**
+     * Wires providers for every component without building any of them. Stores are created and seeded,
+     * and background services started, the first time something asks for them.
+     *
+     * @param report receives the build time of each component
+     * @return application context
+     */
+    public static ApplicationContext create(StartupReport report) {
+        return create(new Components(report, null, true, AUDIT_LOG));
+    }
 
-        AuthService authService = new AuthService(userRepository);
-        BookService bookService = new BookService(bookRepository);
-        LoanService loanService = new LoanService(bookRepository, loanRepository, new DefaultLoanPolicy());
-        OverdueService overdueService = new OverdueService(loanRepository, userRepository, bookRepository);
+    /**
+     * Like {@link #create(StartupReport)}, but every save to the book, loan and user stores, seed data
+     * included, is also appended to {@code journal} for shipping to followers.
+     *
+     * @param report  receives the build time of each component
+     * @param journal journal to append changes to
+     * @return application context
+     */
+    public static ApplicationContext createPrimary(StartupReport report, ChangeJournal journal) {
+        return create(new Components(report, Objects.requireNonNull(journal, "journal"), true, AUDIT_LOG));
+    }
 
+    /**
+     * Wires a follower: the stores start empty and are filled from a primary's journal, so no seed data is
+     * loaded. The audit log goes to {@value #FOLLOWER_AUDIT_LOG} so a follower can share the primary's
+     * working directory.
+     *
+     * @param report receives the build time of each component
+     * @return application context
+     */
+    public static ApplicationContext createFollower(StartupReport report) {
+        return create(new Components(report, null, false, FOLLOWER_AUDIT_LOG));
+    }
+
+    private static ApplicationContext create(Components components) {
         return new ApplicationContext(
-                bookRepository,
-                loanRepository,
-                userRepository,
-                authService,
-                bookService,
-                loanService,
-                overdueService);
-    }
-
-    private static void seed(BookRepository bookRepository, UserRepository userRepository) {
-        Book javaBook = new Book("978-1", "자바의 정석", "남궁성", "Programming", 3, 3);
-        Book cleanCode = new Book("978-2", "클린 코드", "로버트 마틴", "Programming", 2, 2);
-        bookRepository.save(javaBook);
-        bookRepository.save(cleanCode);
-
-        User admin = new User("admin", "{noop}admin", "관리자", Role.ADMIN);
-        User member = new User("js", "{noop}1234", "이지섭", Role.MEMBER);
-        userRepository.save(admin);
-        userRepository.save(member);
+                components.bookRepository,
+                components.loanRepository,
+                components.userRepository,
+                components.loanPolicy,
+                components.authService,
+                components.bookService,
+                components.loanService,
+                components.overdueService,
+                components.dropBoxReturnService,
+                components.exportService,
+                components.sessionService,
+                components.reconciliationService,
+                components.recommendationService,
+                components.report);
+    }
+
+    /**
+     * One provider per component plus the factory methods they call. The factories are bound as method
+     * references on this one object rather than as capturing lambdas: every binding then shares a single
+     * shape, which keeps lambda linkage, a large part of start-up time, to a fraction of a millisecond each.
+     */
+    private static final class Components {
+        private final StartupReport report;
+        private final int branches;
+        private final ChangeJournal journal;
+        private final boolean seed;
+        private final String auditFile;
+        private final OverflowPolicy auditOverflow;
+        private final Lazy<MvccCoordinator> mvcc;
+        private final BranchRouter router;
+        private final Lazy<VersionedBookRepository> versionedBooks;
+        private final Lazy<CachingBookRepository> bookRepository;
+        private final Lazy<VersionedLoanRepository> loanRepository;
+        private final Lazy<UserRepository> userRepository;
+        private final Lazy<LoanPolicy> loanPolicy;
+        private final Lazy<RingBufferAuditLog> auditLog;
+        private final Lazy<AuthService> authService;
+        private final Lazy<SessionService> sessionService;
+        private final Lazy<BookService> bookService;
+        private final Lazy<LoanReminderScheduler> reminderScheduler;
+        private final Lazy<MvccSnapshotSource> snapshots;
+        private final Lazy<ReconciliationService> reconciliationService;
+        private final Lazy<RecommendationService> recommendationService;
+        private final Lazy<LoanService> loanService;
+        private final Lazy<OverdueService> overdueService;
+        private final Lazy<DropBoxReturnService> dropBoxReturnService;
+        private final Lazy<ExportService> exportService;
+
+        private Components(StartupReport report, ChangeJournal journal, boolean seed, String auditFile) {
+            this.report = report;
+            this.branches = Math.max(1, Integer.getInteger(BRANCHES_PROPERTY, 1));
+            this.journal = journal;
+            this.seed = seed;
+            this.auditFile = auditFile;
+            this.auditOverflow = auditOverflowPolicy();
+            this.mvcc = new Lazy<>("mvcc", this::newMvcc, report);
+            this.router = branchRouter(branches);
+            this.versionedBooks = new Lazy<>("versionedBooks", this::newVersionedBooks, report);
+            this.bookRepository = new Lazy<>("bookRepository", this::newBookRepository, report);
+            this.loanRepository = new Lazy<>("loanRepository", this::newLoanRepository, report);
+            this.userRepository = new Lazy<>("userRepository", this::newUserRepository, report);
+            this.loanPolicy = new Lazy<>("loanPolicy", this::newLoanPolicy, report);
+            this.auditLog = new Lazy<>("auditLog", this::newAuditLog, report);
+            this.authService = new Lazy<>("authService", this::newAuthService, report);
+            this.sessionService = new Lazy<>("sessionService", this::newSessionService, report);
+            this.bookService = new Lazy<>("bookService", this::newBookService, report);
+            this.reminderScheduler = new Lazy<>("reminderScheduler", this::newReminderScheduler, report);
+            this.snapshots = new Lazy<>("snapshots", this::newSnapshots, report);
+            this.reconciliationService = new Lazy<>("reconciliationService", this::newReconciliationService, report);
+            this.recommendationService = new Lazy<>("recommendationService", this::newRecommendationService, report);
+            this.loanService = new Lazy<>("loanService", this::newLoanService, report);
+            this.overdueService = new Lazy<>("overdueService", this::newOverdueService, report);
+            this.dropBoxReturnService = new Lazy<>("dropBoxReturnService", this::newDropBoxReturnService, report);
+            this.exportService = new Lazy<>("exportService", this::newExportService, report);
+        }
+
+        private MvccCoordinator newMvcc() {
+            return new MvccCoordinator();
+        }
+
+        private VersionedBookRepository newVersionedBooks() {
+            BookRepository store = newBookStore(router);
+            if (journal != null) {
+                store = new JournalingBookRepository(store, journal);
+            }
+            VersionedBookRepository books = new VersionedBookRepository(store, mvcc.get());
+            if (seed) {
+                seedBooks(books);
+            }
+            return books;
+        }
+
+        private CachingBookRepository newBookRepository() {
+            return new CachingBookRepository(versionedBooks.get(), SEARCH_CACHE_ENTRIES, mvcc.get());
+        }
+
+        private VersionedLoanRepository newLoanRepository() {
+            LoanRepository store = newLoanStore(router);
+            if (journal != null) {
+                store = new JournalingLoanRepository(store, journal);
+            }
+            return new VersionedLoanRepository(store, mvcc.get());
+        }
+
+        private UserRepository newUserRepository() {
+            UserRepository users = new InMemoryUserRepository();
+            if (journal != null) {
+                users = new JournalingUserRepository(users, journal);
+            }
+            if (seed) {
+                seedUsers(users);
+            }
+            return users;
+        }
+
+        private LoanPolicy newLoanPolicy() {
+            return Bootstrap.newLoanPolicy();
+        }
+
+        private RingBufferAuditLog newAuditLog() {
+            return Bootstrap.newAuditLog(auditFile, auditOverflow);
+        }
+
+        private AuthService newAuthService() {
+            return new AuthService(userRepository.get(), auditLog.get());
+        }
+
+        private SessionService newSessionService() {
+            SessionService sessions = new SessionService(authService.get(), SESSION_TTL, Clock.systemDefaultZone());
+            sessions.start();
+            return sessions;
+        }
+
+        private BookService newBookService() {
+            return new BookService(bookRepository.get(), auditLog.get(), mvcc.get());
+        }
+
+        private LoanReminderScheduler newReminderScheduler() {
+            LoanReminderScheduler scheduler = new LoanReminderScheduler(
+                    new FileNotificationSink(Path.of(NOTIFICATION_LOG)), Clock.systemDefaultZone(), DUE_SOON_LEAD);
+            scheduler.start();
+            return scheduler;
+        }
+
+        private MvccSnapshotSource newSnapshots() {
+            return new MvccSnapshotSource(mvcc.get(), versionedBooks.get(), loanRepository.get());
+        }
+
+        private ReconciliationService newReconciliationService() {
+            return new ReconciliationService(snapshots.get(), bookRepository.get(), loanRepository.get(),
+                    mvcc.get(), auditLog.get(), ForkJoinPool.commonPool());
+        }
+
+        private RecommendationService newRecommendationService() {
+            return new RecommendationService(bookRepository.get(), RECOMMENDED_NEIGHBOURS);
+        }
+
+        private LoanService newLoanService() {
+            return new LoanService(bookRepository.get(), loanRepository.get(), loanPolicy.get(),
+                    List.of(reminderScheduler.get(), new AuditLoanListener(auditLog.get()),
+                            reconciliationService.get(), recommendationService.get()),
+                    mvcc.get());
+        }
+
+        private OverdueService newOverdueService() {
+            return new OverdueService(userRepository.get(), snapshots.get());
+        }
+
+        private DropBoxReturnService newDropBoxReturnService() {
+            return new DropBoxReturnService(userRepository.get(), loanService.get());
+        }
+
+        private ExportService newExportService() {
+            return new ExportService(snapshots.get(), overdueService.get());
+        }
+    }
+
+    /**
+     * Reads {@code -Dlibrary.audit.overflow} when the components are wired, so a mistyped value stops
+     * start-up once instead of failing every component that later needs the lazily built audit log.
+     */
+    private static OverflowPolicy auditOverflowPolicy() {
+        String value = System.getProperty(AUDIT_OVERFLOW_PROPERTY, OverflowPolicy.DROP.name());
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            if (policy.name().equalsIgnoreCase(value.trim())) {
+                return policy;
+            }
+        }
+        throw new ValidationException("-D" + AUDIT_OVERFLOW_PROPERTY + " 값이 올바르지 않습니다: '" + value
+                + "' (허용 값: " + Arrays.toString(OverflowPolicy.values()) + ")");
+    }
+
+    /**
+     * With more than one branch, places the books listed in the file named by
+     * {@code -Dlibrary.branch.assignments} (default {@value #DEFAULT_BRANCH_FILE}) in their branches and
+     * spreads the rest by ISBN hash. Read at startup, before any book is saved, so an invalid file stops
+     * the application instead of failing the first request.
+     */
+    private static BranchRouter branchRouter(int branches) {
+        Path file = Path.of(System.getProperty(BRANCH_FILE_PROPERTY, DEFAULT_BRANCH_FILE));
+        return branches > 1 && Files.isRegularFile(file)
+                ? BranchRouter.load(file, branches)
+                : new BranchRouter(branches);
+    }
+
+    private static RingBufferAuditLog newAuditLog(String file, OverflowPolicy overflow) {
+        RingBufferAuditLog auditLog = new RingBufferAuditLog(
+                Path.of(file), AUDIT_BUFFER_SLOTS, overflow, AUDIT_FILE_BYTES, AUDIT_FILES);
+        Runtime.getRuntime().addShutdownHook(new Thread(auditLog::close, "audit-shutdown"));
+        return auditLog;
+    }
+
+    /**
+     * Uses the rule file named by {@code -Dlibrary.policy} (default {@value #DEFAULT_POLICY_FILE}) when it
+     * exists, otherwise the built-in defaults.
+     */
+    private static LoanPolicy newLoanPolicy() {
+        Path rules = Path.of(System.getProperty(POLICY_PROPERTY, DEFAULT_POLICY_FILE));
+        return Files.isRegularFile(rules) ? new RuleTableLoanPolicy(rules) : new DefaultLoanPolicy();
+    }
+
+    /**
+     * Creates the backing book store: a plain in-memory map for a single branch, or one in-memory shard
+     * per branch when {@code -Dlibrary.branches} is greater than one.
+     * <p>
+     * All shards sit below one {@link VersionedBookRepository} and the one {@link MvccCoordinator}, so
+     * writes are serialized across branches. A coordinator per shard would let them commit in parallel, but
+     * a checkout checks the borrower's loan limit over every shard and may take books from several, and
+     * reports read one snapshot across all of them; both need the shared lock.
+     */
+    private static BookRepository newBookStore(BranchRouter router) {
+        if (router.branchCount() == 1) {
+            return new InMemoryBookRepository();
+        }
+        List<BookRepository> shards = new ArrayList<>();
+        for (int i = 0; i < router.branchCount(); i++) {
+            shards.add(new InMemoryBookRepository());
+        }
+        return new ShardedBookRepository(shards, router, ForkJoinPool.commonPool());
+    }
+
+    private static LoanRepository newLoanStore(BranchRouter router) {
+        if (router.branchCount() == 1) {
+            return new InMemoryLoanRepository();
+        }
+        List<LoanRepository> shards = new ArrayList<>();
+        for (int i = 0; i < router.branchCount(); i++) {
+            shards.add(new InMemoryLoanRepository());
+        }
+        return new ShardedLoanRepository(shards, router, ForkJoinPool.commonPool());
+    }
+
+    private static void seedBooks(BookRepository bookRepository) {
+        bookRepository.save(new Book("978-1", "자바의 정석", "남궁성", "Programming", 3, 3));
+        bookRepository.save(new Book("978-2", "클린 코드", "로버트 마틴", "Programming", 2, 2));
+    }
+
+    private static void seedUsers(UserRepository userRepository) {
+        userRepository.save(new User("admin", "{noop}admin", "관리자", Role.ADMIN));
+        userRepository.save(new User("js", "{noop}1234", "이지섭", Role.MEMBER));
     }
 }
@@ -0,0 +1,54 @@
+package library.app;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe provider that builds its component on first use. Concurrent first calls block until the
+ * single build finishes; later calls are one volatile read. A build that throws is not cached, so the
+ * next call retries and reports the failure on its own thread. Build times go to the startup report.
+ *
+ * @param <T> component type
+ */
+public final class Lazy<T> implements Supplier<T> {
+    private final String name;
+    private final Supplier<? extends T> factory;
+    private final StartupReport report;
+    private volatile T value;
+
+    /**
+     * @param name    component name shown in the startup report
+     * @param factory builds the component; may call other providers
+     * @param report  receives the build time
+     */
+    public Lazy(String name, Supplier<? extends T> factory, StartupReport report) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.report = Objects.requireNonNull(report, "report");
+    }
+
+    @Override
+    public T get() {
+        T result = value;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            result = value;
+            if (result == null) {
+                long start = System.nanoTime();
+                result = Objects.requireNonNull(factory.get(), name);
+                report.component(name, start, System.nanoTime());
+                value = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @return whether the component has been built
+     */
+    public boolean isBuilt() {
+        return value != null;
+    }
+}
@@ -1,19 +1,129 @@
 package library.app;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+import library.exception.ValidationException;
+import library.replication.ChangeJournal;
+import library.replication.ReplicationClient;
+import library.replication.ReplicationServer;
 import library.ui.CommandProcessor;
 import library.ui.ConsoleIO;
+import library.ui.ReplicationCommands;
+import library.web.ApiServer;
 
 /**
- * Console application entry point.
+ * Application entry point. Runs the console by default, or only the HTTP/JSON API with
+ * {@code --http=<port>}. {@code --startup-report} prints per-phase start-up timings.
+ * <p>
+ * {@code --replicate=<port>} makes this process a replication primary that ships its changes to followers
+ * connecting on that port of the loopback address; {@code --replicate-host=<host>} listens on another
+ * address instead. {@code --follow=<host>:<port>} runs a read-only console whose data is replicated from
+ * the primary at that address. Both ends need the same secret in {@code -Dlibrary.replication.secret}.
  */
 public final class Main {
+    private static final String HTTP_OPTION = "--http=";
+    private static final String STARTUP_REPORT_OPTION = "--startup-report";
+    private static final String REPLICATE_OPTION = "--replicate=";
+    private static final String REPLICATE_HOST_OPTION = "--replicate-host=";
+    private static final String FOLLOW_OPTION = "--follow=";
+    private static final String REPLICATION_SECRET_PROPERTY = "library.replication.secret";
+    private static final int JOURNAL_CAPACITY = 1 << 18;
+
     private Main() {
     }
 
-    public static void main(String[] args) {
-        ApplicationContext context = Bootstrap.create();
+    public static void main(String[] args) throws InterruptedException {
+        StartupReport report = new StartupReport();
+        boolean printReport = false;
+        Integer httpPort = null;
+        Integer replicationPort = null;
+        String replicationHost = null;
+        String primary = null;
+        for (String arg : args) {
+            if (arg.startsWith(HTTP_OPTION)) {
+                httpPort = Integer.parseInt(arg.substring(HTTP_OPTION.length()));
+            } else if (arg.startsWith(REPLICATE_OPTION)) {
+                replicationPort = Integer.parseInt(arg.substring(REPLICATE_OPTION.length()));
+            } else if (arg.startsWith(REPLICATE_HOST_OPTION)) {
+                replicationHost = arg.substring(REPLICATE_HOST_OPTION.length());
+            } else if (arg.startsWith(FOLLOW_OPTION)) {
+                primary = arg.substring(FOLLOW_OPTION.length());
+            } else if (arg.equals(STARTUP_REPORT_OPTION)) {
+                printReport = true;
+            }
+        }
+
+        if (primary != null && (replicationPort != null || httpPort != null)) {
+            System.err.println("--follow는 --replicate, --http와 함께 사용할 수 없습니다.");
+            return;
+        }
+        if (replicationHost != null && replicationPort == null) {
+            System.err.println("--replicate-host는 --replicate와 함께 사용해야 합니다.");
+            return;
+        }
+        String replicationSecret = System.getProperty(REPLICATION_SECRET_PROPERTY, "");
+        if ((replicationPort != null || primary != null) && replicationSecret.isEmpty()) {
+            System.err.println("복제에는 -D" + REPLICATION_SECRET_PROPERTY + "=<비밀값>이 필요합니다.");
+            return;
+        }
+
+        long phase = System.nanoTime();
+        ChangeJournal journal = replicationPort == null ? null : new ChangeJournal(JOURNAL_CAPACITY);
+        ApplicationContext context;
+        try {
+            if (journal != null) {
+                context = Bootstrap.createPrimary(report, journal);
+            } else if (primary != null) {
+                context = Bootstrap.createFollower(report);
+            } else {
+                context = Bootstrap.create(report);
+            }
+        } catch (ValidationException e) {
+            System.err.println("시작할 수 없습니다: " + e.getMessage());
+            return;
+        }
+        report.phase("wiring", phase);
+
+        ReplicationServer replicationServer = null;
+        ReplicationClient replicationClient = null;
+        if (journal != null) {
+            phase = System.nanoTime();
+            InetSocketAddress address = replicationHost == null
+                    ? new InetSocketAddress(InetAddress.getLoopbackAddress(), replicationPort)
+                    : new InetSocketAddress(replicationHost, replicationPort);
+            replicationServer = new ReplicationServer(context, journal, address, replicationSecret);
+            replicationServer.start();
+            report.phase("replication", phase);
+            System.out.println("복제 주 서버 시작: " + replicationServer.address());
+        } else if (primary != null) {
+            phase = System.nanoTime();
+            replicationClient = new ReplicationClient(context, parseAddress(primary), replicationSecret);
+            replicationClient.start();
+            report.phase("replication", phase);
+            System.out.println("복제 팔로워 시작: 주 서버 " + primary + " (읽기 전용)");
+        }
+        if (httpPort != null) {
+            serveHttp(context, httpPort, printReport);
+            return;
+        }
+
+        phase = System.nanoTime();
         ConsoleIO console = new ConsoleIO(System.in, System.out);
-        CommandProcessor processor = new CommandProcessor(console, context);
+        CommandProcessor processor = new CommandProcessor(console, context, replicationClient != null);
+        if (replicationServer != null) {
+            processor.register("replication", ReplicationCommands.primary(console, replicationServer));
+        } else if (replicationClient != null) {
+            processor.register("replication", ReplicationCommands.follower(console, replicationClient));
+        }
+        report.phase("console", phase);
+        context.warmUp();
+        if (printReport) {
+            double toPrompt = report.elapsedMillis();
+            report.print(System.out);
+            System.out.printf("[startup] 첫 프롬프트까지 %.1f ms (main 진입 기준)%n", toPrompt);
+        }
 
         console.println("help 명령으로 도움말을 확인하세요.");
         while (true) {
@@ -26,5 +136,39 @@ public final class Main {
             }
         }
         console.close();
+        if (replicationServer != null) {
+            replicationServer.close();
+        }
+        if (replicationClient != null) {
+            replicationClient.close();
+        }
+    }
+
+    private static InetSocketAddress parseAddress(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("expected <host>:<port> but got " + hostAndPort);
+        }
+        return new InetSocketAddress(hostAndPort.substring(0, colon),
+                Integer.parseInt(hostAndPort.substring(colon + 1)));
+    }
+
+    private static void serveHttp(ApplicationContext context, int port, boolean printReport)
+            throws InterruptedException {
+        long phase = System.nanoTime();
+        ApiServer server = new ApiServer(context, new InetSocketAddress(port));
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }, "http-shutdown"));
+        server.start();
+        context.getStartupReport().phase("http", phase);
+        context.warmUp();
+        if (printReport) {
+            context.getStartupReport().print(System.out);
+        }
+        System.out.println("HTTP API 서버 시작: 포트 " + server.port());
+        stopped.await();
     }
 }
@@ -0,0 +1,78 @@
+package library.app;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects startup phase and component build timings for {@code --startup-report}. Times are measured
+ * from the moment the report was created, which the entry point does first thing in {@code main}; the
+ * time the JVM spent before that is taken from the runtime's recorded start time. Thread-safe.
+ */
+public final class StartupReport {
+    private final long originNanos = System.nanoTime();
+    private final long originMillis = System.currentTimeMillis();
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Records a phase that ran on the calling thread.
+     *
+     * @param name       phase name
+     * @param startNanos {@link System#nanoTime()} when the phase began
+     */
+    public void phase(String name, long startNanos) {
+        record(Kind.PHASE, name, startNanos, System.nanoTime());
+    }
+
+    void component(String name, long startNanos, long endNanos) {
+        record(Kind.COMPONENT, name, startNanos, endNanos);
+    }
+
+    /**
+     * @return milliseconds elapsed since the report was created
+     */
+    public double elapsedMillis() {
+        return (System.nanoTime() - originNanos) / 1e6;
+    }
+
+    /**
+     * Prints the JVM start-up time, the phases and every component built so far, in order of completion.
+     */
+    public void print(PrintStream out) {
+        List<Entry> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries);
+        }
+        out.println("[startup] 단계별 소요 시간 (main 진입 기준 ms)");
+        long jvmMillis = jvmMillis();
+        if (jvmMillis >= 0) {
+            out.printf("[startup]   %-10s %-28s %8d ms%n", "jvm", "프로세스 시작 → main", jvmMillis);
+        }
+        for (Entry entry : snapshot) {
+            out.printf("[startup]   %-10s %-28s %8.1f ms  @%7.1f  %s%n",
+                    entry.kind == Kind.PHASE ? "phase" : "component", entry.name,
+                    (entry.endNanos - entry.startNanos) / 1e6, (entry.endNanos - originNanos) / 1e6, entry.thread);
+        }
+    }
+
+    private void record(Kind kind, String name, long startNanos, long endNanos) {
+        Entry entry = new Entry(kind, name, startNanos, endNanos, Thread.currentThread().getName());
+        synchronized (entries) {
+            entries.add(entry);
+        }
+    }
+
+    private long jvmMillis() {
+        // Loaded only when printing, so the management classes stay off the path being measured.
+        return originMillis - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    private enum Kind {
+        PHASE,
+        COMPONENT
+    }
+
+    private record Entry(Kind kind, String name, long startNanos, long endNanos, String thread) {
+    }
+}
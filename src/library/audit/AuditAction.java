@@ -0,0 +1,14 @@
+package library.audit;
+
+/**
+ * Kinds of audited actions.
+ */
+public enum AuditAction {
+    LOGIN,
+    LOGIN_FAILED,
+    ADD_STOCK,
+    WRITE_OFF,
+    LOAN,
+    RETURN,
+    RECONCILE
+}
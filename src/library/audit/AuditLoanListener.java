@@ -0,0 +1,27 @@
+package library.audit;
+
+import java.util.Objects;
+
+import library.domain.loan.Loan;
+import library.service.LoanListener;
+
+/**
+ * Forwards loan and return events to an {@link AuditLog}.
+ */
+public class AuditLoanListener implements LoanListener {
+    private final AuditLog auditLog;
+
+    public AuditLoanListener(AuditLog auditLog) {
+        this.auditLog = Objects.requireNonNull(auditLog, "auditLog");
+    }
+
+    @Override
+    public void onLoan(Loan loan) {
+        auditLog.record(AuditAction.LOAN, loan.getUserId(), loan.getIsbn(), 1);
+    }
+
+    @Override
+    public void onReturn(Loan loan) {
+        auditLog.record(AuditAction.RETURN, loan.getUserId(), loan.getIsbn(), 1);
+    }
+}
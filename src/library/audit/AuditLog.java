@@ -0,0 +1,25 @@
+package library.audit;
+
+/**
+ * Sink for audit records. Implementations must be cheap to call from request threads.
+ */
+public interface AuditLog {
+
+    /**
+     * Records an action.
+     *
+     * @param action   audited action
+     * @param actor    id of the user performing the action
+     * @param target   affected entity, such as an ISBN, or {@code null}
+     * @param quantity affected quantity, or {@code 0} if not applicable
+     */
+    void record(AuditAction action, String actor, String target, int quantity);
+
+    /**
+     * @return audit log that discards every record
+     */
+    static AuditLog noop() {
+        return (action, actor, target, quantity) -> {
+        };
+    }
+}
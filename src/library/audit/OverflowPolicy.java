@@ -0,0 +1,11 @@
+package library.audit;
+
+/**
+ * What {@link RingBufferAuditLog} does when its buffer is full.
+ */
+public enum OverflowPolicy {
+    /** Discard the record and count it as dropped. */
+    DROP,
+    /** Wait until the writer thread frees a slot. */
+    BLOCK
+}
@@ -0,0 +1,300 @@
+package library.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit log that hands records to a single background writer through a preallocated ring buffer.
+ * <p>
+ * Callers claim a slot with one CAS, copy the field references into it and publish it; they perform no
+ * I/O and allocate nothing. The writer thread drains published slots in batches, encodes them into a
+ * reusable buffer as {@code epochMillis|ACTION|actor|target|quantity} lines and appends them to
+ * {@code <name>}, rotating to {@code <name>.1 .. <name>.N} when the file exceeds its size limit.
+ * When the buffer is full the configured {@link OverflowPolicy} either drops the record or waits.
+ */
+public class RingBufferAuditLog implements AuditLog, Closeable {
+    private static final int BATCH_SIZE = 512;
+    private static final int MAX_FIELD_BYTES = 256;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    private static final long FULL_PARK_NANOS = 50_000L;
+    private static final byte SEPARATOR = '|';
+    private static final byte[][] ACTION_NAMES = actionNames();
+
+    private final Slot[] slots;
+    private final int mask;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final Thread writer;
+    private volatile long consumed;
+    private volatile boolean running = true;
+    private FileChannel channel;
+    private long fileBytes;
+
+    /**
+     * Creates the log and starts its writer thread.
+     *
+     * @param file           active log file
+     * @param capacity       ring buffer slots, rounded up to a power of two
+     * @param overflowPolicy behaviour when the buffer is full
+     * @param maxFileBytes   size at which the active file is rotated
+     * @param maxFiles       number of rotated files to keep
+     */
+    public RingBufferAuditLog(Path file, int capacity, OverflowPolicy overflowPolicy, long maxFileBytes, int maxFiles) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity out of range");
+        }
+        if (maxFileBytes <= 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("invalid rotation settings");
+        }
+        this.file = Objects.requireNonNull(file, "file");
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Slot[Math.max(size, 2)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = slots.length - 1;
+        try {
+            openChannel();
+        } catch (IOException e) {
+            throw new IllegalStateException("감사 로그 파일을 열 수 없습니다: " + file, e);
+        }
+        this.writer = new Thread(this::runWriter, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void record(AuditAction action, String actor, String target, int quantity) {
+        long sequence;
+        while (true) {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.timestamp = System.currentTimeMillis();
+        slot.action = action;
+        slot.actor = actor;
+        slot.target = target;
+        slot.quantity = quantity;
+        slot.published = sequence;
+    }
+
+    /**
+     * @return number of records discarded because the buffer was full or a write failed
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops accepting records, waits for the writer to flush everything already published and closes
+     * the file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            int drained = drain();
+            if (drained == 0) {
+                if (!running && consumed == claimed.get()) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("감사 로그 종료 실패: " + e.getMessage());
+        }
+    }
+
+    private int drain() {
+        long next = consumed;
+        int count = 0;
+        // Records encoded since the buffer was last written out; only these are lost if a write fails.
+        int unwritten = 0;
+        try {
+            while (count < BATCH_SIZE) {
+                Slot slot = slots[(int) (next & mask)];
+                if (slot.published != next) {
+                    break;
+                }
+                if (buffer.remaining() < 4 * MAX_FIELD_BYTES) {
+                    flushBuffer();
+                    unwritten = 0;
+                }
+                encode(slot);
+                slot.actor = null;
+                slot.target = null;
+                next++;
+                count++;
+                unwritten++;
+            }
+            consumed = next;
+            if (count > 0) {
+                flushBuffer();
+            }
+        } catch (IOException e) {
+            consumed = next;
+            dropped.add(unwritten);
+            buffer.clear();
+            System.err.println("감사 로그 기록 실패: " + e.getMessage());
+        }
+        return count;
+    }
+
+    private void encode(Slot slot) {
+        putLong(slot.timestamp);
+        buffer.put(SEPARATOR);
+        buffer.put(ACTION_NAMES[slot.action.ordinal()]);
+        buffer.put(SEPARATOR);
+        putField(slot.actor);
+        buffer.put(SEPARATOR);
+        putField(slot.target);
+        buffer.put(SEPARATOR);
+        putLong(slot.quantity);
+        buffer.put((byte) '\n');
+    }
+
+    private void putField(String value) {
+        if (value == null) {
+            buffer.put((byte) '-');
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_FIELD_BYTES);
+        // Cut before a character whose continuation bytes would not fit, keeping the line valid UTF-8.
+        while (length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            buffer.put(b == SEPARATOR || b == '\n' || b == '\r' ? (byte) '_' : b);
+        }
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + (value / divisor) % 10));
+            divisor /= 10;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        if (!channel.isOpen()) {
+            openChannel();
+        }
+        if (fileBytes > 0 && fileBytes + buffer.remaining() > maxFileBytes) {
+            rotate();
+        }
+        while (buffer.hasRemaining()) {
+            fileBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Shifts the rotated files up by one and starts a new active file. The active file is reopened even
+     * when a move fails, and a failed reopen is retried by the next write, so one I/O error costs the
+     * batch being written rather than the rest of the log.
+     */
+    private void rotate() throws IOException {
+        channel.close();
+        try {
+            if (maxFiles == 0) {
+                Files.deleteIfExists(file);
+            } else {
+                Files.deleteIfExists(rotated(maxFiles));
+                for (int i = maxFiles - 1; i >= 1; i--) {
+                    Path source = rotated(i);
+                    if (Files.exists(source)) {
+                        Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                if (Files.exists(file)) {
+                    Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } finally {
+            openChannel();
+        }
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileBytes = channel.size();
+    }
+
+    private static byte[][] actionNames() {
+        AuditAction[] actions = AuditAction.values();
+        byte[][] names = new byte[actions.length][];
+        for (AuditAction action : actions) {
+            names[action.ordinal()] = action.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    /**
+     * Preallocated ring buffer entry; {@code published} holds the sequence it was last filled for.
+     */
+    private static final class Slot {
+        private long timestamp;
+        private AuditAction action;
+        private String actor;
+        private String target;
+        private int quantity;
+        private volatile long published = -1;
+    }
+}
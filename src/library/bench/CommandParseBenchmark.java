@@ -0,0 +1,115 @@
+package library.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+import library.ui.CommandHandler;
+import library.ui.CommandLine;
+import library.ui.CommandRegistry;
+
+/**
+ * Measures per-command parse and dispatch overhead of the previous {@code trim}/{@code split}/
+ * {@code toLowerCase}/{@code switch} approach against {@link CommandLine} with a {@link CommandRegistry}.
+ * Handlers are no-ops, so only parsing and lookup are timed.
+ * <p>
+ * Run with {@code java -cp bin library.bench.CommandParseBenchmark [iterations]}.
+ */
+public final class CommandParseBenchmark {
+    private static final String[] COMMANDS = {
+        "help", "exit", "register", "login", "logout", "search", "loan", "return",
+        "addstock", "writeoff", "overdue", "dropbox", "export", "reloadpolicy"
+    };
+    private static final String[] LINES = {
+        "search 자바",
+        "  LOAN 978-89-01-00001-1 978-89-01-00002-8  ",
+        "return 클린 코드",
+        "addstock 978-89-01-00001-1 3",
+        "export overdue /tmp/overdue.csv",
+        "overdue",
+        "login",
+        "unknown command here"
+    };
+
+    private CommandParseBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        CommandRegistry registry = new CommandRegistry();
+        for (int i = 0; i < COMMANDS.length; i++) {
+            int id = i;
+            registry.register(COMMANDS[i], command -> id + command.size() >= 0);
+        }
+        CommandLine commandLine = new CommandLine();
+
+        for (int round = 0; round < 3; round++) {
+            measure("split+switch", iterations, () -> runLegacy(iterations));
+            measure("tokenizer+registry", iterations, () -> runRegistry(registry, commandLine, iterations));
+        }
+    }
+
+    private static long runLegacy(int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            String trimmed = LINES[i & 7].trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            sink += parts.length + switch (parts[0].toLowerCase(Locale.ROOT)) {
+                case "help" -> 0;
+                case "exit" -> 1;
+                case "register" -> 2;
+                case "login" -> 3;
+                case "logout" -> 4;
+                case "search" -> 5;
+                case "loan" -> 6;
+                case "return" -> 7;
+                case "addstock" -> 8;
+                case "writeoff" -> 9;
+                case "overdue" -> 10;
+                case "dropbox" -> 11;
+                case "export" -> 12;
+                case "reloadpolicy" -> 13;
+                default -> -1;
+            };
+        }
+        return sink;
+    }
+
+    private static long runRegistry(CommandRegistry registry, CommandLine commandLine, int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            CommandLine command = commandLine.parse(LINES[i & 7]);
+            if (command.isEmpty()) {
+                continue;
+            }
+            CommandHandler handler = registry.find(command.line(), command.start(0), command.end(0));
+            sink += command.size() + (handler != null && handler.handle(command) ? 1 : -1);
+        }
+        return sink;
+    }
+
+    private static void measure(String name, int iterations, LongSupplier body) {
+        long allocatedStart = allocatedBytes();
+        long start = System.nanoTime();
+        long sink = body.getAsLong();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedStart;
+        if (sink == 42) {
+            System.out.println();
+        }
+        System.out.printf("%-20s %8.2f ns/op %8.1f B/op%n", name, (double) elapsed / iterations,
+                allocatedStart < 0 ? Double.NaN : (double) allocated / iterations);
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,233 @@
+package library.bench;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import library.domain.book.Book;
+import library.repo.BookRepository;
+import library.repo.Completion;
+import library.repo.InMemoryBookRepository;
+import library.repo.SortField;
+import library.util.CompletionTrie;
+
+/**
+ * Randomized differential check of {@link CompletionTrie} and the title/author completion built on it.
+ * <p>
+ * Trie rounds use a two- to four-letter alphabet, short keys and few distinct weights, so edges split,
+ * nodes are absorbed into their only child on removal, full caches re-rank after a key gets lighter or
+ * disappears, and ties are broken by key. After every put or remove the size and {@code get} are checked,
+ * and a few random prefixes are compared with a sorted scan of a plain map. The catalog part builds
+ * {@link InMemoryBookRepository}'s completion index, then changes stock in place, retitles books, moves
+ * them to other authors and adds new ones, and compares {@code complete} with the scan the
+ * {@code BookRepository} default performs. Texts that tie at the cut-off may legitimately differ, so only
+ * the copies in rank order and the texts ranked above the last one are compared. Any mismatch ends the
+ * run with the failing case.
+ * <p>
+ * Run with {@code java -cp bin library.bench.CompletionTrieCheck [rounds] [seed]}.
+ */
+public final class CompletionTrieCheck {
+    private static final int OPERATIONS = 3_000;
+    private static final int PREFIXES_PER_OPERATION = 3;
+    private static final int BOOKS = 20_000;
+    private static final int CHANGES = 2_000;
+    private static final int CATALOG_QUERIES = 300;
+    private static final int LIMIT = 10;
+    private static final String[] WORDS = {"java", "jazz", "data", "date", "net", "network", "art", "arts"};
+    private static final String[] AUTHORS = {"Kim", "Kimura", "Lee", "Leeds", "Park", "Parker", "Choi"};
+    private static final Comparator<Map.Entry<String, Long>> RANKING =
+            Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private CompletionTrieCheck() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 7;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        long queries = 0;
+        for (int round = 0; round < rounds; round++) {
+            queries += checkTrie(random, round);
+        }
+        System.out.printf("completion trie: %d rounds, %,d prefix queries match a scan%n", rounds, queries);
+
+        checkCatalog(random);
+        System.out.printf("catalog completion: %,d books, %d prefixes match the default scan%n",
+                BOOKS, CATALOG_QUERIES);
+    }
+
+    private static int checkTrie(SplittableRandom random, int round) {
+        int capacity = 1 + random.nextInt(6);
+        int alphabet = 2 + random.nextInt(3);
+        CompletionTrie<String> trie = new CompletionTrie<>(capacity);
+        Map<String, Long> expected = new TreeMap<>();
+        int queries = 0;
+        for (int op = 0; op < OPERATIONS; op++) {
+            String key = key(random, alphabet, 6);
+            if (random.nextInt(10) < 6) {
+                long weight = random.nextInt(8);
+                trie.put(key, weight, key + weight);
+                expected.put(key, weight);
+            } else {
+                boolean removed = trie.remove(key);
+                if (removed != (expected.remove(key) != null)) {
+                    throw new AssertionError("round " + round + ": remove " + key + " returned " + removed);
+                }
+            }
+            Long weight = expected.get(key);
+            String value = trie.get(key);
+            if (weight == null ? value != null : !value.equals(key + weight)) {
+                throw new AssertionError("round " + round + ": get " + key + " returned " + value);
+            }
+            if (trie.size() != expected.size()) {
+                throw new AssertionError("round " + round + ": size " + trie.size() + " but " + expected.size());
+            }
+            for (int q = 0; q < PREFIXES_PER_OPERATION; q++) {
+                String prefix = key(random, alphabet, 4);
+                int limit = 1 + random.nextInt(capacity);
+                List<String> actual = new ArrayList<>();
+                for (CompletionTrie.Entry<String> entry : trie.complete(prefix, limit)) {
+                    actual.add(entry.key() + "=" + entry.weight());
+                }
+                List<String> scanned = expected.entrySet().stream()
+                        .filter(entry -> entry.getKey().startsWith(prefix))
+                        .sorted(RANKING)
+                        .limit(limit)
+                        .map(entry -> entry.getKey() + "=" + entry.getValue())
+                        .toList();
+                if (!actual.equals(scanned)) {
+                    throw new AssertionError("round " + round + ": complete '" + prefix + "' gave " + actual
+                            + " but a scan gives " + scanned);
+                }
+                queries++;
+            }
+        }
+        return queries;
+    }
+
+    private static void checkCatalog(SplittableRandom random) {
+        InMemoryBookRepository repository = new InMemoryBookRepository();
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            int copies = 1 + random.nextInt(20);
+            Book book = new Book("isbn" + i, title(random), author(random), "C", copies, copies);
+            repository.save(book);
+            books.add(book);
+        }
+        // Complete once so the index exists; every change below must then be applied to it.
+        repository.complete("", 1);
+        for (int i = 0; i < CHANGES; i++) {
+            Book book = books.get(random.nextInt(books.size()));
+            if (random.nextBoolean()) {
+                book.addStock(1 + random.nextInt(30));
+            } else if (book.getAvailable() > 0) {
+                book.writeOff(1);
+            }
+            repository.save(book);
+
+            int index = random.nextInt(books.size());
+            Book old = books.get(index);
+            Book replaced = new Book(old.getIsbn(), random.nextBoolean() ? title(random) : old.getTitle(),
+                    author(random), old.getCategory(), old.getTotal(), old.getAvailable());
+            repository.save(replaced);
+            books.set(index, replaced);
+
+            if (i % 10 == 0) {
+                Book added = new Book("isbn" + books.size(), title(random), author(random), "C", 1, 1);
+                repository.save(added);
+                books.add(added);
+            }
+        }
+
+        for (int q = 0; q < CATALOG_QUERIES; q++) {
+            String prefix = switch (q) {
+                case 0 -> "";
+                case 1 -> "JA";
+                case 2 -> "  java   da";
+                default -> {
+                    String text = random.nextBoolean() ? title(random) : author(random);
+                    yield text.substring(0, 1 + random.nextInt(Math.min(text.length(), 8)));
+                }
+            };
+            compare(prefix, repository.complete(prefix, LIMIT), scan(repository, prefix));
+        }
+    }
+
+    /**
+     * What the {@code BookRepository} default computes.
+     */
+    private static List<Completion> scan(BookRepository repository, String prefix) {
+        String normalized = BookRepository.normalizeTitle(prefix);
+        List<Completion> matches = new ArrayList<>();
+        try (Stream<Book> books = repository.streamAll()) {
+            books.forEach(book -> {
+                for (SortField field : Completion.FIELDS) {
+                    String text = field.attributeOf(book);
+                    if (BookRepository.normalizeTitle(text).startsWith(normalized)) {
+                        matches.add(new Completion(text, field, book.getTotal()));
+                    }
+                }
+            });
+        }
+        return Completion.combine(matches, LIMIT);
+    }
+
+    private static void compare(String prefix, List<Completion> actual, List<Completion> expected) {
+        List<Integer> actualCopies = actual.stream().map(Completion::copies).toList();
+        List<Integer> expectedCopies = expected.stream().map(Completion::copies).toList();
+        if (!actualCopies.equals(expectedCopies)) {
+            throw new AssertionError("complete '" + prefix + "' gave " + actual + " but a scan gives " + expected);
+        }
+        if (actual.isEmpty()) {
+            return;
+        }
+        int cutOff = actualCopies.get(actualCopies.size() - 1);
+        if (!aboveCutOff(actual, cutOff).equals(aboveCutOff(expected, cutOff))) {
+            throw new AssertionError("complete '" + prefix + "' gave " + actual + " but a scan gives " + expected);
+        }
+    }
+
+    private static Set<String> aboveCutOff(List<Completion> completions, int cutOff) {
+        Set<String> texts = new HashSet<>();
+        for (Completion completion : completions) {
+            if (completion.copies() > cutOff) {
+                texts.add(completion.field() + ":" + BookRepository.normalizeTitle(completion.text()));
+            }
+        }
+        return texts;
+    }
+
+    private static String key(SplittableRandom random, int alphabet, int maxLength) {
+        StringBuilder key = new StringBuilder();
+        int length = random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(alphabet)));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Titles from a small vocabulary, sometimes capitalized or double-spaced, so that several books and
+     * spellings share one normalized title.
+     */
+    private static String title(SplittableRandom random) {
+        String first = WORDS[random.nextInt(WORDS.length)];
+        String second = WORDS[random.nextInt(WORDS.length)];
+        if (random.nextInt(4) == 0) {
+            first = Character.toUpperCase(first.charAt(0)) + first.substring(1);
+        }
+        return first + (random.nextInt(4) == 0 ? "  " : " ") + second + " " + random.nextInt(300);
+    }
+
+    private static String author(SplittableRandom random) {
+        String author = AUTHORS[random.nextInt(AUTHORS.length)] + " " + (char) ('A' + random.nextInt(26));
+        return random.nextInt(5) == 0 ? author.toUpperCase() : author;
+    }
+}
@@ -0,0 +1,249 @@
+package library.bench;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import library.app.ApplicationContext;
+import library.app.Bootstrap;
+import library.domain.book.Book;
+import library.domain.user.Role;
+import library.domain.user.User;
+import library.web.ApiServer;
+
+/**
+ * Local load test for {@link ApiServer}. Starts the server in-process on an ephemeral port over a regular
+ * {@link Bootstrap} context, gives every client its own user, and drives a search/loan/return mix over
+ * keep-alive HTTP/1.1 connections for a fixed duration. Reports requests per second and latency
+ * percentiles per operation; 4xx answers such as "no stock" are counted as rejected, not as errors.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp bin library.bench.HttpLoadTest --clients=64 --books=10000 --seconds=10
+ * </pre>
+ */
+public final class HttpLoadTest {
+    private static final String[] WORDS = {
+        "자바", "클린", "코드", "설계", "패턴", "알고리즘", "데이터", "네트워크", "Java", "Spring", "Design", "Cloud"
+    };
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        int bookCount = Integer.parseInt(options.getOrDefault("books", "10000"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+
+        ApplicationContext context = Bootstrap.create();
+        String[] titles = populate(context, clients, bookCount);
+        try (ApiServer server = new ApiServer(context, new InetSocketAddress("127.0.0.1", 0))) {
+            server.start();
+            URI base = URI.create("http://127.0.0.1:" + server.port() + "/api/");
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            Client[] workers = new Client[clients];
+            Thread[] threads = new Thread[clients];
+            CountDownLatch start = new CountDownLatch(1);
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            for (int i = 0; i < clients; i++) {
+                workers[i] = new Client(http, base, "load" + i, titles, deadline, start, i);
+                threads[i] = Thread.ofVirtual().name("load-client-" + i).start(workers[i]);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            report(workers, seconds);
+        }
+    }
+
+    private static String[] populate(ApplicationContext context, int clients, int bookCount) {
+        SplittableRandom random = new SplittableRandom(7);
+        String[] titles = new String[bookCount];
+        for (int i = 0; i < bookCount; i++) {
+            titles[i] = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            int copies = 1 + random.nextInt(3);
+            context.getBookRepository().save(new Book(isbn(i), titles[i], "저자" + (i % 500), "Programming",
+                    copies, copies));
+        }
+        for (int i = 0; i < clients; i++) {
+            context.getUserRepository().save(new User("load" + i, "{noop}pw", "부하" + i, Role.MEMBER));
+        }
+        return titles;
+    }
+
+    private static String isbn(int index) {
+        return "978-" + index;
+    }
+
+    private static void report(Client[] clients, int seconds) {
+        Map<Op, LatencyHistogram> latencies = new EnumMap<>(Op.class);
+        Map<Op, Long> rejected = new EnumMap<>(Op.class);
+        LatencyHistogram all = new LatencyHistogram();
+        long errors = 0;
+        for (Client client : clients) {
+            for (Op op : Op.values()) {
+                latencies.computeIfAbsent(op, o -> new LatencyHistogram()).add(client.latencies.get(op));
+                rejected.merge(op, client.rejected.get(op), Long::sum);
+                all.add(client.latencies.get(op));
+            }
+            errors += client.errors;
+        }
+        System.out.printf("%n%-8s %10s %10s %10s %10s %10s %10s %10s%n",
+                "op", "req/s", "rejected", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)");
+        for (Op op : Op.values()) {
+            print(op.name().toLowerCase(Locale.ROOT), latencies.get(op), rejected.get(op), seconds);
+        }
+        print("total", all, rejected.values().stream().mapToLong(Long::longValue).sum(), seconds);
+        System.out.printf("%n%d clients, %d transport errors%n", clients.length, errors);
+    }
+
+    private static void print(String name, LatencyHistogram h, long rejected, int seconds) {
+        if (h.count() == 0) {
+            return;
+        }
+        System.out.printf("%-8s %10.0f %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                name, (double) h.count() / seconds, rejected,
+                h.percentile(50) / 1_000.0, h.percentile(90) / 1_000.0, h.percentile(99) / 1_000.0,
+                h.percentile(99.9) / 1_000.0, h.max() / 1_000.0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private enum Op {
+        SEARCH,
+        LOAN,
+        RETURN
+    }
+
+    private static final class Client implements Runnable {
+        private final HttpClient http;
+        private final URI base;
+        private final String userId;
+        private final String[] titles;
+        private final long deadline;
+        private final CountDownLatch start;
+        private final SplittableRandom random;
+        private final List<String> borrowed = new ArrayList<>();
+        private final Map<Op, LatencyHistogram> latencies = new EnumMap<>(Op.class);
+        private final Map<Op, Long> rejected = new EnumMap<>(Op.class);
+        private long errors;
+        private String token;
+
+        private Client(HttpClient http, URI base, String userId, String[] titles, long deadline,
+                CountDownLatch start, int seed) {
+            this.http = http;
+            this.base = base;
+            this.userId = userId;
+            this.titles = titles;
+            this.deadline = deadline;
+            this.start = start;
+            this.random = new SplittableRandom(seed);
+            for (Op op : Op.values()) {
+                latencies.put(op, new LatencyHistogram());
+                rejected.put(op, 0L);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                HttpResponse<String> login = send(post("sessions", "id=" + userId + "&password=pw"));
+                token = login.body().replaceFirst("(?s).*\"token\":\"([^\"]+)\".*", "$1");
+                while (System.nanoTime() < deadline) {
+                    int roll = random.nextInt(100);
+                    if (roll < 60) {
+                        String title = titles[random.nextInt(titles.length)];
+                        timed(Op.SEARCH, get("books?q=" + URLEncoder.encode(title, StandardCharsets.UTF_8)), null);
+                    } else if (roll < 80 || borrowed.isEmpty()) {
+                        String isbn = isbn(random.nextInt(titles.length));
+                        if (timed(Op.LOAN, post("loans", "isbn=" + isbn), null)) {
+                            borrowed.add(isbn);
+                        }
+                    } else {
+                        String isbn = borrowed.remove(borrowed.size() - 1);
+                        timed(Op.RETURN, post("returns", "isbn=" + isbn), isbn);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                errors++;
+            }
+        }
+
+        /**
+         * @return whether the request succeeded with a 2xx status
+         */
+        private boolean timed(Op op, HttpRequest request, String unreturned) throws InterruptedException {
+            long begin = System.nanoTime();
+            try {
+                HttpResponse<String> response = send(request);
+                latencies.get(op).record(System.nanoTime() - begin);
+                if (response.statusCode() / 100 == 2) {
+                    return true;
+                }
+                rejected.merge(op, 1L, Long::sum);
+            } catch (IOException e) {
+                errors++;
+            }
+            if (unreturned != null) {
+                borrowed.add(unreturned);
+            }
+            return false;
+        }
+
+        private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpRequest get(String path) {
+            return request(path).GET().build();
+        }
+
+        private HttpRequest post(String path, String form) {
+            return request(path)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build();
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+    }
+}
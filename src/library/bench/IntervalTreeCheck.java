@@ -0,0 +1,147 @@
+package library.bench;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import library.domain.loan.Loan;
+import library.repo.InMemoryLoanRepository;
+import library.util.IntervalTree;
+
+/**
+ * Randomized differential check of {@link IntervalTree} and the point-in-time loan queries built on it.
+ * <p>
+ * The first part drives a tree with random puts, re-puts that move an interval's end, and removes, and
+ * compares every stabbing query with a scan of a plain map of the same intervals, order included. The
+ * second part fills an {@link InMemoryLoanRepository} with random loans, returns some of them by saving
+ * them again after the index exists, and compares {@code findByIsbnOn} and {@code findByUserOn} with the
+ * full scan the {@code LoanRepository} defaults perform. Any mismatch ends the run with the failing case.
+ * <p>
+ * Run with {@code java -cp bin library.bench.IntervalTreeCheck [rounds] [seed]}.
+ */
+public final class IntervalTreeCheck {
+    private static final int OPERATIONS = 2_000;
+    private static final int IDS = 200;
+    private static final int SPAN = 500;
+    private static final int LOANS = 20_000;
+    private static final int LOAN_QUERIES = 400;
+    private static final LocalDate EPOCH = LocalDate.of(2024, 1, 1);
+    private static final Comparator<Loan> BY_LOAN_DATE =
+            Comparator.comparing(Loan::getLoanDate).thenComparing(Loan::getLoanId);
+
+    private IntervalTreeCheck() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 7;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        long queries = 0;
+        for (int round = 0; round < rounds; round++) {
+            queries += checkTree(random, round);
+        }
+        System.out.printf("interval tree: %d rounds, %,d stabbing queries match a scan%n", rounds, queries);
+
+        checkLoans(random);
+        System.out.printf("loan history: %,d loans, %d ISBN and %d user queries match a scan%n",
+                LOANS, LOAN_QUERIES, LOAN_QUERIES);
+    }
+
+    private static int checkTree(SplittableRandom random, int round) {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        Map<Key, Long> ends = new TreeMap<>();
+        int queries = 0;
+        for (int op = 0; op < OPERATIONS; op++) {
+            int kind = random.nextInt(10);
+            long start = random.nextInt(SPAN);
+            int id = random.nextInt(IDS);
+            Key key = new Key(start, id);
+            if (kind < 5) {
+                long end = start + random.nextInt(SPAN / 5);
+                tree.put(start, end, id, key.toString());
+                ends.put(key, end);
+            } else if (kind < 7) {
+                boolean removed = tree.remove(start, id);
+                if (removed != (ends.remove(key) != null)) {
+                    throw new AssertionError("round " + round + ": remove " + key + " returned " + removed);
+                }
+            } else {
+                long point = random.nextInt(SPAN + SPAN / 5);
+                List<String> actual = new ArrayList<>();
+                tree.stab(point, actual::add);
+                List<String> expected = new ArrayList<>();
+                ends.forEach((candidate, end) -> {
+                    if (candidate.start <= point && point <= end) {
+                        expected.add(candidate.toString());
+                    }
+                });
+                if (!actual.equals(expected)) {
+                    throw new AssertionError("round " + round + ": stab " + point + " gave " + actual
+                            + " but a scan gives " + expected);
+                }
+                queries++;
+            }
+            if (tree.size() != ends.size()) {
+                throw new AssertionError("round " + round + ": size " + tree.size() + " but " + ends.size());
+            }
+        }
+        return queries;
+    }
+
+    private static void checkLoans(SplittableRandom random) {
+        InMemoryLoanRepository repository = new InMemoryLoanRepository();
+        List<Loan> loans = new ArrayList<>(LOANS);
+        for (int i = 0; i < LOANS; i++) {
+            LocalDate loanDate = EPOCH.plusDays(random.nextInt(365));
+            Loan loan = new Loan(String.format("L%06d", i), "user" + random.nextInt(500),
+                    "isbn" + random.nextInt(300), loanDate, loanDate.plusDays(14),
+                    random.nextBoolean() ? loanDate.plusDays(random.nextInt(40)) : null);
+            repository.save(loan);
+            loans.add(loan);
+        }
+        // Query once so the index exists, then return loans by saving them again.
+        repository.findByIsbnOn("isbn0", EPOCH);
+        for (Loan loan : loans) {
+            if (loan.getReturnedAt() == null && random.nextInt(3) == 0) {
+                loan.setReturnedAt(loan.getLoanDate().plusDays(random.nextInt(60)));
+                repository.save(loan);
+            }
+        }
+
+        for (int q = 0; q < LOAN_QUERIES; q++) {
+            LocalDate date = EPOCH.plusDays(random.nextInt(420));
+            String isbn = "isbn" + random.nextInt(300);
+            compare("findByIsbnOn " + isbn + " " + date, repository.findByIsbnOn(isbn, date),
+                    loans.stream().filter(loan -> loan.getIsbn().equals(isbn) && loan.isOutOn(date))
+                            .sorted(BY_LOAN_DATE).toList());
+            String userId = "user" + random.nextInt(500);
+            compare("findByUserOn " + userId + " " + date, repository.findByUserOn(userId, date),
+                    loans.stream().filter(loan -> loan.getUserId().equals(userId) && loan.isOutOn(date))
+                            .sorted(BY_LOAN_DATE).toList());
+        }
+    }
+
+    private static void compare(String query, List<Loan> actual, List<Loan> expected) {
+        List<String> actualIds = actual.stream().map(Loan::getLoanId).toList();
+        List<String> expectedIds = expected.stream().map(Loan::getLoanId).toList();
+        if (!actualIds.equals(expectedIds)) {
+            throw new AssertionError(query + " gave " + actualIds + " but a scan gives " + expectedIds);
+        }
+    }
+
+    /**
+     * Interval identity, ordered like the tree: by start and then id.
+     */
+    private record Key(long start, int id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byStart = Long.compare(start, other.start);
+            return byStart != 0 ? byStart : Integer.compare(id, other.id);
+        }
+    }
+}
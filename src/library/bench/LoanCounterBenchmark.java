@@ -0,0 +1,182 @@
+package library.bench;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import library.domain.loan.Loan;
+import library.repo.InMemoryLoanRepository;
+import library.util.primitive.IntIntMap;
+import library.util.primitive.LongLongMap;
+import library.util.primitive.ObjectIntMap;
+
+/**
+ * Compares boxed {@link HashMap} counters with the primitive maps in {@code library.util.primitive}, and
+ * the per-loan quota check done by scanning a user's active loans with the counter probe that replaced it.
+ * Each counter round increments, reads and decrements a key, which is what a loan followed by a return
+ * does to the per-user and per-ISBN counts.
+ * <p>
+ * Run with {@code java -cp bin library.bench.LoanCounterBenchmark [iterations] [loans]}.
+ */
+public final class LoanCounterBenchmark {
+    private static final int USERS = 10_000;
+    private static final int BOOKS = 50_000;
+
+    private LoanCounterBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int loanCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        String[] userIds = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = "user" + i;
+        }
+        long[] pairKeys = new long[BOOKS];
+        int[] intKeys = new int[BOOKS];
+        for (int i = 0; i < BOOKS; i++) {
+            pairKeys[i] = ((long) userIds[i % USERS].hashCode() << 32) | (i * 0x9E3779B1L & 0xffffffffL);
+            intKeys[i] = i * 31 + 7;
+        }
+
+        InMemoryLoanRepository loans = new InMemoryLoanRepository();
+        List<Loan> batch = new ArrayList<>(loanCount);
+        LocalDate today = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < loanCount; i++) {
+            batch.add(new Loan(userIds[i % USERS], "isbn" + (i % BOOKS), today, today.plusDays(14)));
+        }
+        loans.saveAll(batch);
+        int quotaIterations = Math.max(1, iterations / 1000);
+
+        for (int round = 0; round < 3; round++) {
+            measure("HashMap<String,Int>", iterations, () -> boxedObject(userIds, iterations));
+            measure("ObjectIntMap", iterations, () -> primitiveObject(userIds, iterations));
+            measure("HashMap<Long,Long>", iterations, () -> boxedLong(pairKeys, iterations));
+            measure("LongLongMap", iterations, () -> primitiveLong(pairKeys, iterations));
+            measure("HashMap<Int,Int>", iterations, () -> boxedInt(intKeys, iterations));
+            measure("IntIntMap", iterations, () -> primitiveInt(intKeys, iterations));
+            measure("quota scan", quotaIterations, () -> quotaByScan(loans, userIds, quotaIterations));
+            measure("quota probe", iterations, () -> quotaByCounter(loans, userIds, iterations));
+        }
+    }
+
+    private static long boxedObject(String[] keys, int iterations) {
+        Map<String, Integer> counts = new HashMap<>();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            String key = keys[i % keys.length];
+            counts.merge(key, 1, Integer::sum);
+            sink += counts.getOrDefault(key, 0);
+            counts.merge(key, -1, (a, b) -> a + b == 0 ? null : a + b);
+        }
+        return sink;
+    }
+
+    private static long primitiveObject(String[] keys, int iterations) {
+        ObjectIntMap<String> counts = new ObjectIntMap<>();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            String key = keys[i % keys.length];
+            counts.addTo(key, 1);
+            sink += counts.get(key);
+            if (counts.addTo(key, -1) == 0) {
+                counts.remove(key);
+            }
+        }
+        return sink;
+    }
+
+    private static long boxedLong(long[] keys, int iterations) {
+        Map<Long, Long> counts = new HashMap<>();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            long key = keys[i % keys.length];
+            counts.merge(key, 1L, Long::sum);
+            sink += counts.getOrDefault(key, 0L);
+            counts.merge(key, -1L, (a, b) -> a + b == 0 ? null : a + b);
+        }
+        return sink;
+    }
+
+    private static long primitiveLong(long[] keys, int iterations) {
+        LongLongMap counts = new LongLongMap();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            long key = keys[i % keys.length];
+            counts.addTo(key, 1);
+            sink += counts.get(key);
+            if (counts.addTo(key, -1) == 0) {
+                counts.remove(key);
+            }
+        }
+        return sink;
+    }
+
+    private static long boxedInt(int[] keys, int iterations) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            int key = keys[i % keys.length];
+            counts.merge(key, 1, Integer::sum);
+            sink += counts.getOrDefault(key, 0);
+            counts.merge(key, -1, (a, b) -> a + b == 0 ? null : a + b);
+        }
+        return sink;
+    }
+
+    private static long primitiveInt(int[] keys, int iterations) {
+        IntIntMap counts = new IntIntMap();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            int key = keys[i % keys.length];
+            counts.addTo(key, 1);
+            sink += counts.get(key);
+            if (counts.addTo(key, -1) == 0) {
+                counts.remove(key);
+            }
+        }
+        return sink;
+    }
+
+    private static long quotaByScan(InMemoryLoanRepository loans, String[] userIds, int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += loans.findActiveByUser(userIds[i % userIds.length]).size();
+        }
+        return sink;
+    }
+
+    private static long quotaByCounter(InMemoryLoanRepository loans, String[] userIds, int iterations) {
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += loans.countActiveByUser(userIds[i % userIds.length]);
+        }
+        return sink;
+    }
+
+    private static void measure(String name, int iterations, LongSupplier body) {
+        long allocatedStart = allocatedBytes();
+        long start = System.nanoTime();
+        long sink = body.getAsLong();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedStart;
+        if (sink == 42) {
+            System.out.println();
+        }
+        System.out.printf("%-20s %10.2f ns/op %8.1f B/op%n", name, (double) elapsed / iterations,
+                allocatedStart < 0 ? Double.NaN : (double) allocated / iterations);
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,99 @@
+package library.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import library.domain.book.Book;
+import library.domain.loan.DefaultLoanPolicy;
+import library.domain.loan.LoanPolicy;
+import library.domain.loan.RuleTableLoanPolicy;
+import library.domain.user.Role;
+import library.domain.user.User;
+
+/**
+ * Compares per-call cost of {@link RuleTableLoanPolicy} against {@link DefaultLoanPolicy}.
+ * <p>
+ * The rule set gives each role a default and most categories a duration of their own, and the books mix
+ * ruled and unruled categories, so lookups land on category, role-default and per-book results alike.
+ * The resolved durations are checked once before timing starts.
+ * <p>
+ * Run with {@code java -cp bin library.bench.LoanPolicyBenchmark [iterations]}.
+ */
+public final class LoanPolicyBenchmark {
+    private static final int CATEGORIES = 50;
+    private static final int BOOKS = 4_096;
+
+    private LoanPolicyBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+
+        List<String> rules = new ArrayList<>();
+        rules.add("duration MEMBER * 14");
+        rules.add("duration ADMIN * 30");
+        for (int c = 0; c < CATEGORIES; c++) {
+            rules.add("duration * Category" + c + " " + (7 + c % 21));
+        }
+        rules.add("book 978-0 3");
+        rules.add("max MEMBER 5");
+        rules.add("max ADMIN 99");
+        Path file = Files.createTempFile("loan-policy", ".rules");
+        Files.write(file, rules);
+        LoanPolicy table = new RuleTableLoanPolicy(file);
+        Files.delete(file);
+
+        Book[] books = new Book[BOOKS];
+        for (int i = 0; i < BOOKS; i++) {
+            books[i] = new Book("978-" + i, "Title " + i, "Author", "Category" + (i % (CATEGORIES + 5)), 1, 1);
+        }
+        User[] users = {
+            new User("member", "{noop}x", "member", Role.MEMBER),
+            new User("admin", "{noop}x", "admin", Role.ADMIN)
+        };
+
+        verify(table, users, books);
+
+        for (int round = 0; round < 3; round++) {
+            report("DefaultLoanPolicy", run(new DefaultLoanPolicy(), users, books, iterations), iterations);
+            report("RuleTableLoanPolicy", run(table, users, books, iterations), iterations);
+        }
+    }
+
+    private static void verify(LoanPolicy policy, User[] users, Book[] books) {
+        for (User user : users) {
+            for (Book book : books) {
+                int category = Integer.parseInt(book.getCategory().substring("Category".length()));
+                long expected = book.getIsbn().equals("978-0") ? 3
+                        : category < CATEGORIES ? 7 + category % 21
+                        : user.getRole() == Role.ADMIN ? 30 : 14;
+                long actual = policy.loanDuration(user, book).toDays();
+                if (actual != expected) {
+                    throw new AssertionError(user.getRole() + " " + book.getIsbn() + " " + book.getCategory()
+                            + ": " + actual + " days, expected " + expected);
+                }
+            }
+        }
+    }
+
+    private static long run(LoanPolicy policy, User[] users, Book[] books, int iterations) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            User user = users[i & 1];
+            sink += policy.loanDuration(user, books[i & (BOOKS - 1)]).toDays();
+            sink += policy.maxConcurrentLoans(user);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+
+    private static void report(String name, long elapsedNanos, int iterations) {
+        System.out.printf("%-20s %8.2f ns/op%n", name, (double) elapsedNanos / iterations);
+    }
+}
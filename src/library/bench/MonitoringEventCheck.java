@@ -0,0 +1,93 @@
+package library.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import library.domain.book.Book;
+import library.domain.loan.DefaultLoanPolicy;
+import library.domain.loan.Loan;
+import library.domain.user.Role;
+import library.domain.user.User;
+import library.repo.InMemoryBookRepository;
+import library.repo.InMemoryLoanRepository;
+import library.repo.TransactionRunner;
+import library.service.LoanListener;
+import library.service.LoanService;
+
+/**
+ * Checks that the Flight Recorder settings shipped in {@code config/library.jfc} record what on-call needs:
+ * a loan slower than the 10 ms service threshold, and a title search slower than the 1 ms repository
+ * threshold. The loan is slowed down by a listener that sleeps, which the event spans; the search scans a
+ * large catalog. Ends with an {@link AssertionError} if either event is missing from the recording.
+ * <p>
+ * Run from the repository root with
+ * {@code java -cp bin library.bench.MonitoringEventCheck [settings] [books]}.
+ */
+public final class MonitoringEventCheck {
+    private static final long SLOW_LOAN_MILLIS = 50;
+
+    private MonitoringEventCheck() {
+    }
+
+    public static void main(String[] args) throws IOException, ParseException {
+        Path settings = Path.of(args.length > 0 ? args[0] : "config/library.jfc");
+        int bookCount = args.length > 1 ? Integer.parseInt(args[1]) : 300_000;
+
+        InMemoryBookRepository books = new InMemoryBookRepository();
+        for (int i = 0; i < bookCount; i++) {
+            books.save(new Book("isbn" + i, "title " + i, "author", "C", 1, 1));
+        }
+        LoanListener slowListener = new LoanListener() {
+            @Override
+            public void onLoan(Loan loan) {
+                try {
+                    Thread.sleep(SLOW_LOAN_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        LoanService loans = new LoanService(books, new InMemoryLoanRepository(), new DefaultLoanPolicy(),
+                List.of(slowListener), TransactionRunner.direct());
+        User user = new User("slow", "hash", "느린 사용자", Role.MEMBER);
+
+        Path dump = Files.createTempFile("library-events", ".jfr");
+        try {
+            List<RecordedEvent> events;
+            try (Recording recording = new Recording(Configuration.create(settings))) {
+                recording.start();
+                loans.loan(user, "isbn0", LocalDate.of(2024, 1, 1));
+                books.searchByTitle("no such title");
+                recording.stop();
+                recording.dump(dump);
+            }
+            events = RecordingFile.readAllEvents(dump);
+
+            RecordedEvent loan = find(events, "library.Loan", "userId", "slow");
+            RecordedEvent lookup = find(events, "library.RepositoryLookup", "operation",
+                    "BookRepository.searchByTitle");
+            System.out.printf("library.Loan recorded after %,d ms, library.RepositoryLookup after %,d ms "
+                            + "scanning %,d books%n",
+                    loan.getDuration().toMillis(), lookup.getDuration().toMillis(), lookup.getInt("scanned"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name, String field, String value) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .filter(event -> value.equals(event.getString(field)))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(name + " with " + field + "=" + value
+                        + " was not recorded; recorded " + events.size() + " events"));
+    }
+}
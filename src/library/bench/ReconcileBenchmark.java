@@ -0,0 +1,130 @@
+package library.bench;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import library.app.ApplicationContext;
+import library.app.Bootstrap;
+import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.domain.user.Role;
+import library.domain.user.User;
+import library.service.ReconciliationService;
+import library.service.ReconciliationService.Report;
+
+/**
+ * Times {@link ReconciliationService} over a large catalog. Books and loans are loaded consistently
+ * through the repositories, a number of stock counters are then corrupted, and the benchmark runs a full
+ * check, a full check with repair, a verifying full check, and an incremental check after a burst of
+ * regular loans.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -Xmx6g -cp bin library.bench.ReconcileBenchmark --books=1000000 --loans=2000000 --drift=1000
+ * </pre>
+ */
+public final class ReconcileBenchmark {
+    private static final int LOAN_BATCH = 10_000;
+    private static final int BURST_LOANS = 1_000;
+
+    private ReconcileBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int bookCount = Integer.parseInt(options.getOrDefault("books", "1000000"));
+        int loanCount = Integer.parseInt(options.getOrDefault("loans", "2000000"));
+        int drift = Integer.parseInt(options.getOrDefault("drift", "1000"));
+
+        ApplicationContext context = Bootstrap.create();
+        long populateStart = System.nanoTime();
+        int active = populate(context, bookCount, loanCount);
+        System.out.printf("populated %,d books and %,d active loans in %d ms%n",
+                bookCount, active, (System.nanoTime() - populateStart) / 1_000_000);
+
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < drift; i++) {
+            Book book = context.getBookRepository().findByIsbn(isbn(random.nextInt(bookCount))).orElseThrow();
+            if (book.getAvailable() > 0) {
+                book.takeOne();
+            } else {
+                book.returnOne();
+            }
+            context.getBookRepository().save(book);
+        }
+
+        User admin = context.getAuthService().login("admin", "admin");
+        ReconciliationService reconciler = context.getReconciliationService();
+        print("full", reconciler.reconcileAll(admin, false));
+        print("full+repair", reconciler.reconcileAll(admin, true));
+        print("full", reconciler.reconcileAll(admin, false));
+
+        User member = new User("bench", "{noop}pw", "벤치", Role.MEMBER);
+        context.getUserRepository().save(member);
+        LocalDate today = LocalDate.now();
+        int lent = 0;
+        for (int i = 0; lent < BURST_LOANS && i < bookCount; i++) {
+            Book book = context.getBookRepository().findByIsbn(isbn(random.nextInt(bookCount))).orElseThrow();
+            if (book.getAvailable() == 0) {
+                continue;
+            }
+            Loan loan = context.getLoanService().loan(member, book.getIsbn(), today);
+            context.getLoanService().returnBook(member, loan.getIsbn(), today);
+            lent++;
+        }
+        print("incremental", reconciler.reconcileTouched(admin, false));
+    }
+
+    private static int populate(ApplicationContext context, int bookCount, int loanCount) {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] onLoan = new int[bookCount];
+        List<Loan> batch = new ArrayList<>(LOAN_BATCH);
+        LocalDate today = LocalDate.now();
+        int copies = Math.max(1, 2 * loanCount / Math.max(1, bookCount) + 1);
+        int active = 0;
+        for (int i = 0; i < loanCount; i++) {
+            int book = random.nextInt(bookCount);
+            if (onLoan[book] == copies) {
+                continue;
+            }
+            onLoan[book]++;
+            active++;
+            batch.add(new Loan("reader" + (i % 100_000), isbn(book), today, today.plusDays(14)));
+            if (batch.size() == LOAN_BATCH) {
+                context.getLoanRepository().saveAll(batch);
+                batch.clear();
+            }
+        }
+        context.getLoanRepository().saveAll(batch);
+        for (int i = 0; i < bookCount; i++) {
+            context.getBookRepository().save(new Book(isbn(i), "도서 " + i, "저자" + (i % 5_000), "Programming",
+                    copies, copies - onLoan[i]));
+        }
+        return active;
+    }
+
+    private static String isbn(int index) {
+        return "979-" + index;
+    }
+
+    private static void print(String name, Report report) {
+        System.out.printf("%-12s checked %,10d  mismatches %,6d  repaired %,6d  %,6d ms%n",
+                name, report.checked(), report.mismatches().size(), report.repaired(), report.elapsedMillis());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
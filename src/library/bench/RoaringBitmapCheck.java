@@ -0,0 +1,206 @@
+package library.bench;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import library.domain.book.Book;
+import library.repo.CategoryCount;
+import library.repo.FacetedSearch;
+import library.repo.InMemoryBookRepository;
+import library.util.RoaringBitmap;
+
+/**
+ * Randomized differential check of {@link RoaringBitmap} against {@link BitSet}, and of faceted search
+ * against grouping a plain title search.
+ * <p>
+ * Each bitmap round fills one 65,536-value chunk densely enough to turn its array container into a bitmap
+ * container, drains it until it turns back, and mixes in sparse values across other chunks, checking every
+ * {@code add}/{@code remove} result, {@code contains}, the cardinality, iteration order, and
+ * {@code and}/{@code andCardinality} with a second random bitmap. The faceted part loads books into an
+ * {@link InMemoryBookRepository}, moves some to other categories by saving new instances, and compares
+ * {@code facetedSearch} for every keyword and category with what the {@code BookRepository} default
+ * computes from {@code searchByTitle}. Any mismatch ends the run with the failing case.
+ * <p>
+ * Run with {@code java -cp bin library.bench.RoaringBitmapCheck [rounds] [seed]}.
+ */
+public final class RoaringBitmapCheck {
+    private static final int CHUNK = 1 << 16;
+    private static final int CHUNKS = 4;
+    private static final int ARRAY_MAX = 4_096;
+    private static final int OPERATIONS = 30_000;
+    private static final int BOOKS = 20_000;
+    private static final int CATEGORIES = 12;
+    private static final String[] WORDS = {"java", "data", "net", "art", "history", "code", "sea", "war"};
+
+    private RoaringBitmapCheck() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 7;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        for (int round = 0; round < rounds; round++) {
+            checkBitmap(random, round);
+        }
+        System.out.printf("roaring bitmap: %d rounds match java.util.BitSet%n", rounds);
+
+        int searches = checkFacetedSearch(random);
+        System.out.printf("faceted search: %,d books, %d keyword/category searches match the default%n",
+                BOOKS, searches);
+    }
+
+    private static void checkBitmap(SplittableRandom random, int round) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        // Dense runs push one chunk past the array limit; the drain phase removes set values until it is
+        // back below it, so both container conversions happen every round.
+        int denseChunk = random.nextInt(CHUNKS);
+        int denseFrom = denseChunk * CHUNK;
+        int dense = 0;
+        int peak = 0;
+        for (int op = 0; op < OPERATIONS; op++) {
+            boolean draining = op >= OPERATIONS / 2;
+            int value = random.nextInt(4) == 0
+                    ? random.nextInt(CHUNKS * CHUNK)
+                    : denseFrom + random.nextInt(CHUNK / 4);
+            boolean remove = draining ? random.nextInt(8) != 0 : random.nextInt(5) == 0;
+            if (draining && remove && expected.nextSetBit(value) >= 0) {
+                value = expected.nextSetBit(value);
+            }
+            if (remove) {
+                boolean removed = bitmap.remove(value);
+                if (removed != expected.get(value)) {
+                    throw new AssertionError("round " + round + ": remove " + value + " returned " + removed);
+                }
+                if (removed && value >= denseFrom && value < denseFrom + CHUNK) {
+                    dense--;
+                }
+                expected.clear(value);
+            } else {
+                boolean added = bitmap.add(value);
+                if (added == expected.get(value)) {
+                    throw new AssertionError("round " + round + ": add " + value + " returned " + added);
+                }
+                if (added && value >= denseFrom && value < denseFrom + CHUNK) {
+                    dense++;
+                }
+                expected.set(value);
+            }
+            if (op % 1_000 == 0) {
+                compare(bitmap, expected, round);
+            }
+            peak = Math.max(peak, dense);
+        }
+        compare(bitmap, expected, round);
+        if (peak <= ARRAY_MAX || dense > ARRAY_MAX) {
+            throw new AssertionError("round " + round + ": chunk peaked at " + peak + " and ended at "
+                    + dense + ", so a container conversion was not exercised");
+        }
+
+        RoaringBitmap other = new RoaringBitmap();
+        BitSet otherExpected = new BitSet();
+        int otherSize = random.nextInt(2) == 0 ? 500 : 20_000;
+        for (int i = 0; i < otherSize; i++) {
+            int value = denseFrom + random.nextInt(CHUNK / 2);
+            other.add(value);
+            otherExpected.set(value);
+        }
+        BitSet intersection = (BitSet) expected.clone();
+        intersection.and(otherExpected);
+        if (bitmap.andCardinality(other) != intersection.cardinality()
+                || other.andCardinality(bitmap) != intersection.cardinality()) {
+            throw new AssertionError("round " + round + ": andCardinality differs from "
+                    + intersection.cardinality());
+        }
+        compare(bitmap.and(other), intersection, round);
+        compare(other.and(bitmap), intersection, round);
+    }
+
+    private static void compare(RoaringBitmap bitmap, BitSet expected, int round) {
+        if (bitmap.cardinality() != expected.cardinality() || bitmap.isEmpty() != expected.isEmpty()) {
+            throw new AssertionError("round " + round + ": cardinality " + bitmap.cardinality() + " but "
+                    + expected.cardinality());
+        }
+        int[] next = {expected.nextSetBit(0)};
+        bitmap.forEach(value -> {
+            if (value != next[0]) {
+                throw new AssertionError("round " + round + ": iterated " + value + " but expected " + next[0]);
+            }
+            next[0] = expected.nextSetBit(value + 1);
+        });
+        if (next[0] != -1) {
+            throw new AssertionError("round " + round + ": iteration stopped before " + next[0]);
+        }
+        for (int value = expected.nextSetBit(0); value >= 0; value = expected.nextSetBit(value + 1)) {
+            if (!bitmap.contains(value) || bitmap.contains(value + CHUNK * CHUNKS)) {
+                throw new AssertionError("round " + round + ": contains " + value + " is wrong");
+            }
+        }
+    }
+
+    private static int checkFacetedSearch(SplittableRandom random) {
+        InMemoryBookRepository repository = new InMemoryBookRepository();
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            Book book = new Book("isbn" + i, title, "author", "C" + random.nextInt(CATEGORIES), 1, 1);
+            repository.save(book);
+            books.add(book);
+        }
+        // Search once so the index is in use, then move books to other categories.
+        repository.facetedSearch(WORDS[0], null);
+        for (int i = 0; i < BOOKS / 10; i++) {
+            Book old = books.get(random.nextInt(BOOKS));
+            Book moved = new Book(old.getIsbn(), old.getTitle(), old.getAuthor(), "C" + random.nextInt(CATEGORIES),
+                    old.getTotal(), old.getAvailable());
+            repository.save(moved);
+            books.set(Integer.parseInt(old.getIsbn().substring(4)), moved);
+        }
+
+        int searches = 0;
+        for (String word : WORDS) {
+            String keyword = word.substring(0, 1 + random.nextInt(word.length()));
+            List<String> categories = new ArrayList<>();
+            categories.add(null);
+            for (int c = 0; c <= CATEGORIES; c++) {
+                categories.add("C" + c);
+            }
+            for (String category : categories) {
+                FacetedSearch actual = repository.facetedSearch(keyword, category);
+                FacetedSearch expected = grouped(repository.searchByTitle(keyword), category);
+                if (!isbns(actual.books()).equals(isbns(expected.books()))
+                        || !actual.categories().equals(expected.categories())) {
+                    throw new AssertionError("facetedSearch(" + keyword + ", " + category + ") gave "
+                            + actual.categories() + " but grouping gives " + expected.categories());
+                }
+                searches++;
+            }
+        }
+        return searches;
+    }
+
+    /**
+     * What the {@code BookRepository} default computes.
+     */
+    private static FacetedSearch grouped(List<Book> matches, String category) {
+        Map<String, Integer> counts = new HashMap<>();
+        List<Book> books = new ArrayList<>();
+        for (Book book : matches) {
+            counts.merge(book.getCategory(), 1, Integer::sum);
+            if (category == null || category.equals(book.getCategory())) {
+                books.add(book);
+            }
+        }
+        return new FacetedSearch(books, CategoryCount.ranked(counts));
+    }
+
+    private static List<String> isbns(List<Book> books) {
+        return books.stream().map(Book::getIsbn).toList();
+    }
+}
@@ -0,0 +1,118 @@
+package library.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import library.domain.book.Book;
+import library.repo.BookRepository;
+import library.repo.InMemoryBookRepository;
+import library.repo.TitleMatch;
+import library.util.EditDistance;
+
+/**
+ * Measures typo-tolerant title lookup through the q-gram index of {@link InMemoryBookRepository} against
+ * computing the edit distance to every title. Queries are catalog titles with one or two random edits and
+ * use the same tolerance as the loan desk: one edit below ten characters, two from ten up.
+ * <p>
+ * Run with {@code java -Xmx2g -cp bin library.bench.TitleIndexBenchmark [books] [queries]}.
+ */
+public final class TitleIndexBenchmark {
+    private static final String SYLLABLES = "bcdfghjklmnprstvwz";
+    private static final String VOWELS = "aeiou";
+    private static final int VOCABULARY = 50_000;
+    private static final int SHORT_TITLE_LENGTH = 10;
+
+    private TitleIndexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int bookCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        SplittableRandom random = new SplittableRandom(7);
+
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = word(random);
+        }
+        InMemoryBookRepository repository = new InMemoryBookRepository();
+        String[] titles = new String[bookCount];
+        long start = System.nanoTime();
+        for (int i = 0; i < bookCount; i++) {
+            StringBuilder title = new StringBuilder();
+            int wordCount = 2 + random.nextInt(3);
+            for (int w = 0; w < wordCount; w++) {
+                if (w > 0) {
+                    title.append(' ');
+                }
+                title.append(words[random.nextInt(words.length)]);
+            }
+            titles[i] = title.toString();
+            repository.save(new Book("979-" + i, titles[i], "Author", "Category", 1, 1));
+        }
+        System.out.printf("indexed %,d titles in %d ms%n", bookCount, (System.nanoTime() - start) / 1_000_000);
+
+        List<String> queries = new ArrayList<>(queryCount);
+        for (int i = 0; i < queryCount; i++) {
+            queries.add(typo(titles[random.nextInt(bookCount)], random));
+        }
+
+        for (int round = 0; round < 3; round++) {
+            LatencyHistogram latencies = new LatencyHistogram();
+            long found = 0;
+            for (String query : queries) {
+                long begin = System.nanoTime();
+                List<TitleMatch> matches = repository.suggestByTitle(query, tolerance(query), 5);
+                latencies.record(System.nanoTime() - begin);
+                found += matches.isEmpty() ? 0 : 1;
+            }
+            System.out.printf("indexed      p50 %7.1f us  p99 %7.1f us  max %7.1f us  hits %d/%d%n",
+                    latencies.percentile(50) / 1_000.0, latencies.percentile(99) / 1_000.0,
+                    latencies.max() / 1_000.0, found, queries.size());
+        }
+
+        EditDistance editDistance = new EditDistance();
+        int scanQueries = Math.min(20, queries.size());
+        long scanStart = System.nanoTime();
+        long scanHits = 0;
+        for (int q = 0; q < scanQueries; q++) {
+            String query = BookRepository.normalizeTitle(queries.get(q));
+            int maxDistance = tolerance(query);
+            for (String title : titles) {
+                if (editDistance.distance(query, BookRepository.normalizeTitle(title), maxDistance) <= maxDistance) {
+                    scanHits++;
+                }
+            }
+        }
+        System.out.printf("full scan    mean %7.1f us  hits %d/%d%n",
+                (System.nanoTime() - scanStart) / 1_000.0 / scanQueries, scanHits, scanQueries);
+    }
+
+    private static String word(SplittableRandom random) {
+        int syllables = 1 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < syllables; s++) {
+            sb.append(SYLLABLES.charAt(random.nextInt(SYLLABLES.length())));
+            sb.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+        }
+        return sb.toString();
+    }
+
+    private static int tolerance(String query) {
+        return query.length() < SHORT_TITLE_LENGTH ? 1 : 2;
+    }
+
+    private static String typo(String title, SplittableRandom random) {
+        StringBuilder sb = new StringBuilder(title);
+        int edits = 1 + random.nextInt(tolerance(title));
+        for (int e = 0; e < edits && sb.length() > 1; e++) {
+            int at = random.nextInt(sb.length());
+            switch (random.nextInt(3)) {
+                case 0 -> sb.deleteCharAt(at);
+                case 1 -> sb.setCharAt(at, VOWELS.charAt(random.nextInt(VOWELS.length())));
+                default -> sb.insert(at, SYLLABLES.charAt(random.nextInt(SYLLABLES.length())));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,289 @@
+package library.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import library.app.ApplicationContext;
+import library.app.Bootstrap;
+import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.domain.user.Role;
+import library.domain.user.User;
+import library.exception.BusinessRuleException;
+import library.exception.NotFoundException;
+import library.ui.CommandProcessor;
+import library.ui.ConsoleIO;
+
+/**
+ * Synthetic workload generator. Builds a large catalog and user base through the repository APIs of a
+ * regular {@link Bootstrap} context, then drives a weighted mix of operations from N threads for a fixed
+ * duration and reports throughput, latency percentiles and allocation rate per operation.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -Xmx4g -cp bin library.bench.WorkloadSimulator \
+ *     --users=100000 --books=1000000 --threads=8 --seconds=30 \
+ *     --mix=search:40,loan:25,return:25,overdue:1,cli:9
+ * </pre>
+ * Each thread owns a disjoint slice of the users and tracks their loans locally, so returns always
+ * target a real loan and threads do not contend on the same borrower. Business-rule rejections (no
+ * stock, loan limit reached) are counted separately from successful operations.
+ */
+public final class WorkloadSimulator {
+    private static final String[] WORDS = {
+        "자바", "클린", "코드", "설계", "패턴", "알고리즘", "데이터", "네트워크", "운영체제", "컴파일러",
+        "Java", "Spring", "Kotlin", "Systems", "Design", "Patterns", "Concurrency", "Database", "Cloud", "Testing"
+    };
+    private static final String[] CATEGORIES = {
+        "Programming", "Science", "History", "Novel", "Art", "Economics", "Philosophy", "Travel"
+    };
+
+    private WorkloadSimulator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        int userCount = Integer.parseInt(options.getOrDefault("users", "100000"));
+        int bookCount = Integer.parseInt(options.getOrDefault("books", "1000000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        Map<Op, Integer> mix = parseMix(options.getOrDefault("mix", "search:40,loan:25,return:25,overdue:1,cli:9"));
+
+        ApplicationContext context = Bootstrap.create();
+        long populateStart = System.nanoTime();
+        List<User> users = populate(context, userCount, bookCount);
+        System.out.printf("populated %,d users and %,d books in %d ms%n",
+                userCount, bookCount, (System.nanoTime() - populateStart) / 1_000_000);
+
+        User admin = context.getAuthService().login("admin", "admin");
+        Op[] schedule = schedule(mix);
+        Worker[] workers = new Worker[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        for (int t = 0; t < threads; t++) {
+            List<User> slice = new ArrayList<>();
+            for (int i = t; i < users.size(); i += threads) {
+                slice.add(users.get(i));
+            }
+            workers[t] = new Worker(context, admin, slice, bookCount, schedule, deadline, start, t);
+            workers[t].start();
+        }
+        start.countDown();
+        for (Worker worker : workers) {
+            worker.join();
+        }
+        report(workers, seconds);
+    }
+
+    private static List<User> populate(ApplicationContext context, int userCount, int bookCount) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < bookCount; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            int copies = 1 + random.nextInt(5);
+            context.getBookRepository().save(new Book(isbn(i), title, "저자" + (i % 5_000),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], copies, copies));
+        }
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            User user = new User("sim" + i, "{noop}pw", "사용자" + i, Role.MEMBER);
+            context.getUserRepository().save(user);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static String isbn(int index) {
+        return "979-" + index;
+    }
+
+    private static Op[] schedule(Map<Op, Integer> mix) {
+        List<Op> slots = new ArrayList<>();
+        mix.forEach((op, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(op);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("operation mix is empty");
+        }
+        return slots.toArray(new Op[0]);
+    }
+
+    private static void report(Worker[] workers, int seconds) {
+        Map<Op, LatencyHistogram> latencies = new EnumMap<>(Op.class);
+        Map<Op, Long> rejected = new EnumMap<>(Op.class);
+        long allocated = 0;
+        boolean allocationKnown = true;
+        for (Worker worker : workers) {
+            for (Op op : Op.values()) {
+                latencies.computeIfAbsent(op, o -> new LatencyHistogram()).add(worker.latencies.get(op));
+                rejected.merge(op, worker.rejected.get(op), Long::sum);
+            }
+            allocated += Math.max(0, worker.allocatedBytes);
+            allocationKnown &= worker.allocatedBytes >= 0;
+        }
+
+        long totalOps = 0;
+        System.out.printf("%n%-8s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "op", "ops/s", "rejected", "mean(us)", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)");
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latencies.get(op);
+            if (h.count() == 0) {
+                continue;
+            }
+            totalOps += h.count();
+            System.out.printf("%-8s %10.0f %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    op.name().toLowerCase(Locale.ROOT), (double) h.count() / seconds, rejected.get(op),
+                    h.mean() / 1_000, h.percentile(50) / 1_000.0, h.percentile(90) / 1_000.0,
+                    h.percentile(99) / 1_000.0, h.percentile(99.9) / 1_000.0, h.max() / 1_000.0);
+        }
+        System.out.printf("%ntotal    %,.0f ops/s over %d threads%n", (double) totalOps / seconds, workers.length);
+        if (allocationKnown && totalOps > 0) {
+            System.out.printf("alloc    %,.1f MB/s, %,.0f bytes/op%n",
+                    allocated / 1_048_576.0 / seconds, (double) allocated / totalOps);
+        } else {
+            System.out.println("alloc    (thread allocation accounting not supported by this JVM)");
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static Map<Op, Integer> parseMix(String value) {
+        Map<Op, Integer> mix = new EnumMap<>(Op.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            mix.put(Op.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemoryEnabled()) {
+            return hotspot.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private enum Op {
+        SEARCH,
+        LOAN,
+        RETURN,
+        OVERDUE,
+        CLI
+    }
+
+    private static final class Worker extends Thread {
+        private final ApplicationContext context;
+        private final User admin;
+        private final List<User> users;
+        private final Map<String, User> usersById = new HashMap<>();
+        private final int bookCount;
+        private final Op[] schedule;
+        private final long deadline;
+        private final CountDownLatch start;
+        private final SplittableRandom random;
+        private final List<Loan> activeLoans = new ArrayList<>();
+        private final Map<Op, LatencyHistogram> latencies = new EnumMap<>(Op.class);
+        private final Map<Op, Long> rejected = new EnumMap<>(Op.class);
+        private final CommandProcessor processor;
+        private long allocatedBytes;
+
+        private Worker(ApplicationContext context, User admin, List<User> users, int bookCount, Op[] schedule,
+                long deadline, CountDownLatch start, int index) {
+            super("sim-" + index);
+            this.context = context;
+            this.admin = admin;
+            this.users = users;
+            for (User user : users) {
+                usersById.put(user.getId(), user);
+            }
+            this.bookCount = bookCount;
+            this.schedule = schedule;
+            this.deadline = deadline;
+            this.start = start;
+            this.random = new SplittableRandom(index);
+            ConsoleIO console = new ConsoleIO(new ByteArrayInputStream(new byte[0]), new PrintStream(OutputStream.nullOutputStream()));
+            this.processor = new CommandProcessor(console, context);
+            for (Op op : Op.values()) {
+                latencies.put(op, new LatencyHistogram());
+                rejected.put(op, 0L);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long allocatedStart = allocatedBytes(threads);
+            while (System.nanoTime() < deadline) {
+                Op op = schedule[random.nextInt(schedule.length)];
+                long begin = System.nanoTime();
+                boolean ok = execute(op);
+                long elapsed = System.nanoTime() - begin;
+                if (ok) {
+                    latencies.get(op).record(elapsed);
+                } else {
+                    rejected.merge(op, 1L, Long::sum);
+                }
+            }
+            long allocatedEnd = allocatedBytes(threads);
+            allocatedBytes = allocatedStart < 0 || allocatedEnd < 0 ? -1 : allocatedEnd - allocatedStart;
+        }
+
+        private boolean execute(Op op) {
+            try {
+                switch (op) {
+                    case SEARCH -> context.getBookRepository().searchByTitle(WORDS[random.nextInt(WORDS.length)]);
+                    case LOAN -> {
+                        User user = users.get(random.nextInt(users.size()));
+                        LocalDate today = LocalDate.now().minusDays(random.nextInt(30));
+                        activeLoans.add(context.getLoanService().loan(user, isbn(random.nextInt(bookCount)), today));
+                    }
+                    case RETURN -> {
+                        if (activeLoans.isEmpty()) {
+                            return false;
+                        }
+                        int index = random.nextInt(activeLoans.size());
+                        Loan loan = activeLoans.get(index);
+                        activeLoans.set(index, activeLoans.get(activeLoans.size() - 1));
+                        activeLoans.remove(activeLoans.size() - 1);
+                        context.getLoanService().returnBook(usersById.get(loan.getUserId()), loan.getIsbn(), LocalDate.now());
+                    }
+                    case OVERDUE -> context.getOverdueService().listOverdues(admin, LocalDate.now());
+                    case CLI -> processor.handle("search " + WORDS[random.nextInt(WORDS.length)]);
+                }
+                return true;
+            } catch (BusinessRuleException | NotFoundException e) {
+                return false;
+            }
+        }
+    }
+}
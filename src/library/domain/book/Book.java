@@ -113,6 +113,19 @@ public class Book {
         available++;
     }
 
+    /**
+     * Resets the available count so that exactly {@code onLoan} copies are out. Used to repair drift
+     * between the stock counter and the loan records. Administrator-only.
+     *
+     * @param onLoan number of copies currently on loan according to the loan records
+     */
+    public void resetAvailable(int onLoan) {
+        if (onLoan < 0 || onLoan > total) {
+            throw new BusinessRuleException("대출 중인 수량이 총 수량을 초과합니다");
+        }
+        available = total - onLoan;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
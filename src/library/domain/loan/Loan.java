@@ -71,6 +71,16 @@ public class Loan {
         return returnedAt != null;
     }
 
+    /**
+     * Determines if the patron had the book on the given date, counting the loan and return days.
+     *
+     * @param date date to check
+     * @return {@code true} if lent out on or before {@code date} and not returned before it
+     */
+    public boolean isOutOn(LocalDate date) {
+        return !loanDate.isAfter(date) && (returnedAt == null || !returnedAt.isBefore(date));
+    }
+
     /**
      * Determines if the loan is overdue relative to the provided date.
      *
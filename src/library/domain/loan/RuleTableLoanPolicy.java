@@ -0,0 +1,214 @@
+package library.domain.loan;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import library.domain.book.Book;
+import library.domain.user.Role;
+import library.domain.user.User;
+import library.exception.ValidationException;
+
+/**
+ * Loan policy driven by a rule file, compiled into a direct-indexed decision table.
+ * <p>
+ * Rule file format, one rule per line ({@code #} starts a comment, {@code *} matches anything):
+ * <pre>
+ * duration &lt;role|*&gt; &lt;category|*&gt; &lt;days&gt;
+ * book     &lt;isbn&gt; &lt;days&gt;
+ * max      &lt;role|*&gt; &lt;loans&gt;
+ * </pre>
+ * Precedence for durations is book, then role+category, *+category, role+* and finally *+*, so a
+ * category rule overrides every role's default without repeating it per role. All precedence is resolved
+ * at load time into a {@code Duration[role][categoryId]} table, so a lookup is one hash probe for the
+ * category id and one array read, after a probe of the per-book rules when there are any.
+ * {@link #reload()} compiles the file again and swaps the table atomically; callers never observe a
+ * partially built table.
+ */
+public class RuleTableLoanPolicy implements LoanPolicy {
+    private static final String ANY = "*";
+    private static final int UNKNOWN_CATEGORY = 0;
+
+    private final Path file;
+    private volatile Table table;
+
+    /**
+     * Loads and compiles the rule file.
+     *
+     * @param file rule file
+     */
+    public RuleTableLoanPolicy(Path file) {
+        this.file = Objects.requireNonNull(file, "file");
+        this.table = compile(readLines(file));
+    }
+
+    /**
+     * Recompiles the rule file and atomically replaces the active table. If the file is invalid the
+     * current table stays in effect and the error is rethrown.
+     */
+    public void reload() {
+        table = compile(readLines(file));
+    }
+
+    @Override
+    public Duration loanDuration(User user, Book book) {
+        Table current = table;
+        if (!current.bookDurations.isEmpty()) {
+            Duration duration = current.bookDurations.get(book.getIsbn());
+            if (duration != null) {
+                return duration;
+            }
+        }
+        Integer categoryId = current.categoryIds.get(book.getCategory());
+        int column = categoryId == null ? UNKNOWN_CATEGORY : categoryId;
+        return current.durations[user.getRole().ordinal()][column];
+    }
+
+    @Override
+    public int maxConcurrentLoans(User user) {
+        return table.maxLoans[user.getRole().ordinal()];
+    }
+
+    private static List<String> readLines(Path file) {
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ValidationException("대출 정책 파일을 읽을 수 없습니다: " + file);
+        }
+    }
+
+    static Table compile(List<String> lines) {
+        Role[] roles = Role.values();
+        Map<String, Integer> categoryIds = new HashMap<>();
+        Map<String, Integer> durationRules = new HashMap<>();
+        Integer[] maxByRole = new Integer[roles.length];
+        Integer maxDefault = null;
+        Map<String, Duration> bookDurations = new HashMap<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = stripComment(lines.get(i));
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] f = line.split("\\s+");
+            int lineNumber = i + 1;
+            switch (f[0].toLowerCase(Locale.ROOT)) {
+                case "duration" -> {
+                    expectFields(f, 4, lineNumber);
+                    String role = roleKey(f[1], lineNumber);
+                    if (!ANY.equals(f[2])) {
+                        categoryIds.putIfAbsent(f[2], categoryIds.size() + 1);
+                    }
+                    durationRules.put(role + '\u0000' + f[2], positive(f[3], lineNumber));
+                }
+                case "book" -> {
+                    expectFields(f, 3, lineNumber);
+                    bookDurations.put(f[1], Duration.ofDays(positive(f[2], lineNumber)));
+                }
+                case "max" -> {
+                    expectFields(f, 3, lineNumber);
+                    String role = roleKey(f[1], lineNumber);
+                    int max = positive(f[2], lineNumber);
+                    if (ANY.equals(role)) {
+                        maxDefault = max;
+                    } else {
+                        maxByRole[Role.valueOf(role).ordinal()] = max;
+                    }
+                }
+                default -> throw new ValidationException(lineNumber + "행: 알 수 없는 규칙 '" + f[0] + "'");
+            }
+        }
+
+        int columns = categoryIds.size() + 1;
+        String[] categoryByColumn = new String[columns];
+        categoryByColumn[UNKNOWN_CATEGORY] = ANY;
+        categoryIds.forEach((category, id) -> categoryByColumn[id] = category);
+
+        Duration[][] durations = new Duration[roles.length][columns];
+        int[] maxLoans = new int[roles.length];
+        for (Role role : roles) {
+            for (int column = 0; column < columns; column++) {
+                // The unknown-category column is keyed by *, so it has no *+category rule of its own.
+                Integer anyRoleCategory = column == UNKNOWN_CATEGORY
+                        ? null
+                        : durationRules.get(ANY + '\u0000' + categoryByColumn[column]);
+                Integer resolved = firstNonNull(
+                        durationRules.get(role.name() + '\u0000' + categoryByColumn[column]),
+                        anyRoleCategory,
+                        durationRules.get(role.name() + '\u0000' + ANY),
+                        durationRules.get(ANY + '\u0000' + ANY));
+                if (resolved == null) {
+                    throw new ValidationException(role + " 역할의 '" + categoryByColumn[column] + "' 대출 기간 규칙이 없습니다");
+                }
+                durations[role.ordinal()][column] = Duration.ofDays(resolved);
+            }
+            Integer max = maxByRole[role.ordinal()] != null ? maxByRole[role.ordinal()] : maxDefault;
+            if (max == null) {
+                throw new ValidationException(role + " 역할의 최대 대출 권수 규칙이 없습니다");
+            }
+            maxLoans[role.ordinal()] = max;
+        }
+        return new Table(Map.copyOf(categoryIds), durations, maxLoans, Map.copyOf(bookDurations));
+    }
+
+    private static String stripComment(String line) {
+        int hash = line.indexOf('#');
+        return (hash >= 0 ? line.substring(0, hash) : line).trim();
+    }
+
+    private static void expectFields(String[] fields, int count, int lineNumber) {
+        if (fields.length != count) {
+            throw new ValidationException(lineNumber + "행: 항목 수가 올바르지 않습니다");
+        }
+    }
+
+    private static String roleKey(String value, int lineNumber) {
+        if (ANY.equals(value)) {
+            return ANY;
+        }
+        try {
+            return Role.valueOf(value.toUpperCase(Locale.ROOT)).name();
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(lineNumber + "행: 알 수 없는 역할 '" + value + "'");
+        }
+    }
+
+    private static int positive(String value, int lineNumber) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the validation error below
+        }
+        throw new ValidationException(lineNumber + "행: 양의 정수가 필요합니다 '" + value + "'");
+    }
+
+    @SafeVarargs
+    private static <T> T firstNonNull(T... values) {
+        for (T value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Immutable compiled rule table.
+     */
+    record Table(
+            Map<String, Integer> categoryIds,
+            Duration[][] durations,
+            int[] maxLoans,
+            Map<String, Duration> bookDurations) {
+    }
+}
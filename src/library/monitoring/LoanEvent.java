@@ -0,0 +1,12 @@
+package library.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One {@code LoanService} loan request, single or batched.
+ */
+@Name("library.Loan")
+@Label("Loan")
+public final class LoanEvent extends LoanOperationEvent {
+}
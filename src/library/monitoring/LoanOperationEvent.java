@@ -0,0 +1,57 @@
+package library.monitoring;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import library.domain.user.User;
+
+/**
+ * Fields shared by {@link LoanEvent} and {@link ReturnEvent}. The event spans the whole request, from
+ * validation through the repository writes to the loan listeners, so repository lookup events recorded on
+ * the same thread inside it show where its time went.
+ */
+@Category({"Library", "Loans"})
+@StackTrace(false)
+public abstract class LoanOperationEvent extends Event {
+    @Label("User Id")
+    String userId;
+
+    @Label("ISBN")
+    @Description("Requested ISBNs, comma-separated")
+    String isbn;
+
+    @Label("Books")
+    int bookCount;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Failure")
+    @Description("Message of the exception that rejected the request")
+    String failure;
+
+    /**
+     * Ends the event and commits it if the recorder wants it. Fields are only filled in then, so with the
+     * event disabled a request pays for {@link #begin()}, {@link #end()} and {@link #shouldCommit()} alone.
+     *
+     * @param user    requesting user, {@code null} if not logged in
+     * @param isbns   requested ISBNs, may be {@code null}
+     * @param failure exception that rejected the request, {@code null} on success
+     */
+    public void record(User user, List<String> isbns, RuntimeException failure) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        userId = user == null ? null : user.getId();
+        isbn = isbns == null ? null : String.join(",", isbns);
+        bookCount = isbns == null ? 0 : isbns.size();
+        succeeded = failure == null;
+        this.failure = failure == null ? null : failure.getMessage();
+        commit();
+    }
+}
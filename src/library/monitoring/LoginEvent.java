@@ -0,0 +1,35 @@
+package library.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One login attempt, including the password hash check.
+ */
+@Name("library.Login")
+@Label("Login")
+@Category({"Library", "Accounts"})
+@StackTrace(false)
+public final class LoginEvent extends Event {
+    @Label("User Id")
+    String userId;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Ends the event and commits it if the recorder wants it.
+     */
+    public void record(String userId, boolean succeeded) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.userId = userId;
+        this.succeeded = succeeded;
+        commit();
+    }
+}
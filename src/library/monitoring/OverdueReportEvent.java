@@ -0,0 +1,45 @@
+package library.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One overdue report, listed or streamed.
+ */
+@Name("library.OverdueReport")
+@Label("Overdue Report")
+@Category({"Library", "Reports"})
+@StackTrace(false)
+public final class OverdueReportEvent extends Event {
+    @Label("Requester Id")
+    String requesterId;
+
+    @Label("Streamed")
+    boolean streamed;
+
+    @Label("Scanned")
+    @Description("Loans checked for being overdue")
+    long scanned;
+
+    @Label("Results")
+    long results;
+
+    /**
+     * Ends the event and commits it if the recorder wants it.
+     */
+    public void record(String requesterId, boolean streamed, long scanned, long results) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.requesterId = requesterId;
+        this.streamed = streamed;
+        this.scanned = scanned;
+        this.results = results;
+        commit();
+    }
+}
@@ -0,0 +1,73 @@
+package library.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One query against an in-memory repository that scans or resolves more than a single key. With sharding
+ * each shard records its own event.
+ * <p>
+ * Lookups are frequent, so the event defaults to a 1 ms threshold and only slow ones are recorded unless
+ * a settings file lowers it.
+ */
+@Name("library.RepositoryLookup")
+@Label("Repository Lookup")
+@Category({"Library", "Repository"})
+@StackTrace(false)
+@Threshold("1 ms")
+public final class RepositoryLookupEvent extends Event {
+    @Label("Operation")
+    @Description("Repository interface and method, such as LoanRepository.findActiveByUser")
+    String operation;
+
+    @Label("Key")
+    @Description("User id, ISBN or keyword looked up")
+    String key;
+
+    @Label("Results")
+    int results;
+
+    @Label("Scanned")
+    @Description("Entries examined to produce the results")
+    int scanned;
+
+    /**
+     * Ends the event and commits it if the recorder wants it.
+     *
+     * @param operation repository interface and method
+     * @param key       key looked up, {@code null} for a full scan
+     * @param results   entries returned
+     * @param scanned   entries examined
+     */
+    public void record(String operation, String key, int results, int scanned) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.operation = operation;
+        this.key = key;
+        this.results = results;
+        this.scanned = scanned;
+        commit();
+    }
+
+    /**
+     * Variant for lookups keyed by a user and a book, which only joins the two when committing.
+     */
+    public void record(String operation, String userId, String isbn, int results, int scanned) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.operation = operation;
+        this.key = userId + "/" + isbn;
+        this.results = results;
+        this.scanned = scanned;
+        commit();
+    }
+}
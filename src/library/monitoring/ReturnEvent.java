@@ -0,0 +1,12 @@
+package library.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One {@code LoanService} return request, single or batched.
+ */
+@Name("library.Return")
+@Label("Return")
+public final class ReturnEvent extends LoanOperationEvent {
+}
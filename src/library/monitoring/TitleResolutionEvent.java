@@ -0,0 +1,49 @@
+package library.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import library.domain.book.Book;
+
+/**
+ * Resolution of a title typed by a user to the one book it names, covering the exact-title lookup and the
+ * keyword fallback.
+ */
+@Name("library.TitleResolution")
+@Label("Title Resolution")
+@Category({"Library", "Loans"})
+@StackTrace(false)
+public final class TitleResolutionEvent extends Event {
+    @Label("Title")
+    String title;
+
+    @Label("Exact Matches")
+    int exactMatches;
+
+    @Label("Candidates")
+    @Description("Books left after the keyword fallback; anything but one fails the request")
+    int candidates;
+
+    @Label("Resolved ISBN")
+    String resolvedIsbn;
+
+    /**
+     * Ends the event and commits it if the recorder wants it.
+     *
+     * @param resolved book the title resolved to, {@code null} if none or ambiguous
+     */
+    public void record(String title, int exactMatches, int candidates, Book resolved) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.title = title;
+        this.exactMatches = exactMatches;
+        this.candidates = candidates;
+        this.resolvedIsbn = resolved == null ? null : resolved.getIsbn();
+        commit();
+    }
+}
@@ -0,0 +1,61 @@
+package library.notification;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Appends notifications to a text file, one tab-separated line per event. A batch is flushed once, after
+ * its last line.
+ */
+public class FileNotificationSink implements NotificationSink, Closeable {
+    private final BufferedWriter writer;
+
+    public FileNotificationSink(Path file) {
+        Objects.requireNonNull(file, "file");
+        try {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void publish(LoanNotification notification) {
+        publishAll(List.of(notification));
+    }
+
+    @Override
+    public synchronized void publishAll(List<LoanNotification> notifications) {
+        try {
+            for (LoanNotification notification : notifications) {
+                writer.write(notification.type().name());
+                writer.write('\t');
+                writer.write(notification.userId());
+                writer.write('\t');
+                writer.write(notification.isbn());
+                writer.write('\t');
+                writer.write(notification.dueDate().toString());
+                writer.write('\t');
+                writer.write(notification.loanId());
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,32 @@
+package library.notification;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Reminder event raised for an active loan.
+ *
+ * @param type    kind of reminder
+ * @param loanId  loan identifier
+ * @param userId  borrowing user
+ * @param isbn    borrowed book
+ * @param dueDate due date of the loan
+ */
+public record LoanNotification(Type type, String loanId, String userId, String isbn, LocalDate dueDate) {
+
+    public LoanNotification {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(loanId, "loanId");
+        Objects.requireNonNull(userId, "userId");
+        Objects.requireNonNull(isbn, "isbn");
+        Objects.requireNonNull(dueDate, "dueDate");
+    }
+
+    /**
+     * Reminder kinds.
+     */
+    public enum Type {
+        DUE_SOON,
+        OVERDUE
+    }
+}
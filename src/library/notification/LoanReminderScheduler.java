@@ -0,0 +1,143 @@
+package library.notification;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import library.domain.loan.Loan;
+import library.service.LoanListener;
+import library.util.TimingWheel;
+import library.util.TimingWheel.Timeout;
+
+/**
+ * Schedules "due soon" and "overdue" reminders for active loans on a {@link TimingWheel}.
+ * <p>
+ * Timers are registered when a loan is created and cancelled when it is returned, so the cost per
+ * loan is constant and no periodic scan over active loans is needed.
+ */
+public class LoanReminderScheduler implements LoanListener, Closeable {
+    private static final long TICK_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int WHEEL_SIZE = 64;
+    private static final int LEVELS = 4;
+
+    private final NotificationSink sink;
+    private final Clock clock;
+    private final Duration dueSoonLead;
+    private final TimingWheel<LoanNotification> wheel;
+    private final Map<String, Reminders> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param sink        destination for fired reminders
+     * @param clock       clock used to convert due dates and drive the wheel
+     * @param dueSoonLead how long before the due date the "due soon" reminder fires
+     */
+    public LoanReminderScheduler(NotificationSink sink, Clock clock, Duration dueSoonLead) {
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.dueSoonLead = Objects.requireNonNull(dueSoonLead, "dueSoonLead");
+        this.wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, LEVELS, clock.millis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loan-reminder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts advancing the wheel once per tick on a background daemon thread.
+     */
+    public void start() {
+        ticker.scheduleAtFixedRate(this::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fires every reminder that is due at the clock's current time. The due reminders are taken off the
+     * wheel first and handed to the sink as one batch afterwards, so loans and returns scheduling or
+     * cancelling timers meanwhile are not held up by the sink's writes.
+     *
+     * @return number of reminders fired
+     */
+    public int advance() {
+        List<LoanNotification> due = wheel.expire(clock.millis());
+        if (due.isEmpty()) {
+            return 0;
+        }
+        for (LoanNotification notification : due) {
+            if (notification.type() == LoanNotification.Type.OVERDUE) {
+                pending.remove(notification.loanId());
+            }
+        }
+        try {
+            sink.publishAll(due);
+        } catch (RuntimeException e) {
+            System.err.println("알림 전송 실패: " + e.getMessage());
+        }
+        return due.size();
+    }
+
+    @Override
+    public void onLoan(Loan loan) {
+        LocalDate dueDate = loan.getDueDate();
+        long now = clock.millis();
+        long dueSoonAt = startOfDay(dueDate).minus(dueSoonLead).toEpochMilli();
+        long overdueAt = startOfDay(dueDate.plusDays(1)).toEpochMilli();
+
+        Timeout<LoanNotification> dueSoon = dueSoonAt > now
+                ? wheel.schedule(dueSoonAt, notification(LoanNotification.Type.DUE_SOON, loan))
+                : null;
+        Timeout<LoanNotification> overdue = wheel.schedule(overdueAt, notification(LoanNotification.Type.OVERDUE, loan));
+        Reminders previous = pending.put(loan.getLoanId(), new Reminders(dueSoon, overdue));
+        if (previous != null) {
+            previous.cancel(wheel);
+        }
+    }
+
+    @Override
+    public void onReturn(Loan loan) {
+        Reminders reminders = pending.remove(loan.getLoanId());
+        if (reminders != null) {
+            reminders.cancel(wheel);
+        }
+    }
+
+    /**
+     * @return number of pending reminder timers
+     */
+    public int pendingCount() {
+        return wheel.size();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private Instant startOfDay(LocalDate date) {
+        return date.atStartOfDay(clock.getZone()).toInstant();
+    }
+
+    private static LoanNotification notification(LoanNotification.Type type, Loan loan) {
+        return new LoanNotification(type, loan.getLoanId(), loan.getUserId(), loan.getIsbn(), loan.getDueDate());
+    }
+
+    private record Reminders(Timeout<LoanNotification> dueSoon, Timeout<LoanNotification> overdue) {
+        void cancel(TimingWheel<LoanNotification> wheel) {
+            if (dueSoon != null) {
+                wheel.cancel(dueSoon);
+            }
+            wheel.cancel(overdue);
+        }
+    }
+}
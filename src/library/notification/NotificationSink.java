@@ -0,0 +1,28 @@
+package library.notification;
+
+import java.util.List;
+
+/**
+ * Destination for loan reminder events.
+ */
+public interface NotificationSink {
+
+    /**
+     * Delivers a notification. Called from the scheduler thread.
+     *
+     * @param notification event to deliver
+     */
+    void publish(LoanNotification notification);
+
+    /**
+     * Delivers the notifications that fell due on one scheduler tick, in order. Sinks that buffer
+     * override it to flush once per batch.
+     *
+     * @param notifications events to deliver
+     */
+    default void publishAll(List<LoanNotification> notifications) {
+        for (LoanNotification notification : notifications) {
+            publish(notification);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package library.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.domain.user.Role;
+import library.domain.user.User;
+import library.repo.BookRepository;
+import library.repo.LoanRepository;
+import library.repo.UserRepository;
+
+/**
+ * Binary encoding of repository changes. A record is a type byte followed by the full state of one book,
+ * loan or user, so applying a record is an idempotent upsert and records for the same key may be replayed
+ * over newer state as long as the newest one is applied last.
+ */
+public final class ChangeCodec {
+    private static final byte BOOK = 1;
+    private static final byte LOAN = 2;
+    private static final byte USER = 3;
+
+    private ChangeCodec() {
+    }
+
+    public static byte[] encode(Book book) {
+        return write(out -> {
+            out.writeByte(BOOK);
+            out.writeUTF(book.getIsbn());
+            out.writeUTF(book.getTitle());
+            out.writeUTF(book.getAuthor());
+            out.writeUTF(book.getCategory());
+            out.writeInt(book.getTotal());
+            out.writeInt(book.getAvailable());
+        });
+    }
+
+    public static byte[] encode(Loan loan) {
+        return write(out -> {
+            out.writeByte(LOAN);
+            out.writeUTF(loan.getLoanId());
+            out.writeUTF(loan.getUserId());
+            out.writeUTF(loan.getIsbn());
+            out.writeLong(loan.getLoanDate().toEpochDay());
+            out.writeLong(loan.getDueDate().toEpochDay());
+            out.writeBoolean(loan.getReturnedAt() != null);
+            if (loan.getReturnedAt() != null) {
+                out.writeLong(loan.getReturnedAt().toEpochDay());
+            }
+        });
+    }
+
+    public static byte[] encode(User user) {
+        return write(out -> {
+            out.writeByte(USER);
+            out.writeUTF(user.getId());
+            out.writeUTF(user.getPasswordHash());
+            out.writeUTF(user.getName());
+            out.writeUTF(user.getRole().name());
+        });
+    }
+
+    /**
+     * Decodes a record and saves it to the matching repository.
+     *
+     * @param payload encoded record
+     */
+    public static void apply(byte[] payload, BookRepository books, LoanRepository loans, UserRepository users) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+            switch (type) {
+                case BOOK -> books.save(new Book(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readInt(), in.readInt()));
+                case LOAN -> loans.save(new Loan(in.readUTF(), in.readUTF(), in.readUTF(),
+                        LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong()),
+                        in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null));
+                case USER -> users.save(new User(in.readUTF(), in.readUTF(), in.readUTF(),
+                        Role.valueOf(in.readUTF())));
+                default -> throw new IllegalArgumentException("unknown change record type " + type);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,150 @@
+package library.replication;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Ordered log of repository changes, kept in a fixed-size ring for shipping to followers.
+ * <p>
+ * Every record gets the next offset, starting at zero. Only the newest {@code capacity} records are
+ * retained; a follower that falls further behind than that is re-seeded with a snapshot. A store update and
+ * the records describing it are appended under one lock (see {@link #append(Supplier)}), so journal order
+ * is the order in which the stores changed and {@link #end()} splits the changes cleanly into those already
+ * in the stores and those still to come.
+ * <p>
+ * Uses a {@link ReentrantLock} rather than monitors so that followers' sender threads, which are virtual,
+ * unmount while they wait for new records. Thread-safe.
+ */
+public final class ChangeJournal {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final byte[][] payloads;
+    private final long[] timestamps;
+    private long end;
+
+    /**
+     * @param capacity number of most recent records to retain
+     */
+    public ChangeJournal(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.payloads = new byte[capacity][];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Runs a store update and appends the records it returns, with no other update or append in between.
+     *
+     * @param update applies the change to the store and returns the encoded records
+     */
+    public void append(Supplier<? extends Collection<byte[]>> update) {
+        lock.lock();
+        try {
+            Collection<byte[]> records = update.get();
+            if (records.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (byte[] payload : records) {
+                int slot = slot(end);
+                payloads[slot] = payload;
+                timestamps[slot] = now;
+                end++;
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return offset the next record will get; every change before it is already in the stores
+     */
+    public long end() {
+        lock.lock();
+        try {
+            return end;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return offset of the oldest retained record
+     */
+    public long start() {
+        lock.lock();
+        try {
+            return Math.max(0, end - payloads.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads records from an offset on.
+     *
+     * @param from  offset of the first record wanted
+     * @param limit maximum number of records
+     * @return records in offset order, empty if {@code from} is the end, or {@code null} if {@code from} is
+     *         no longer retained
+     */
+    public List<Entry> read(long from, int limit) {
+        lock.lock();
+        try {
+            if (from < Math.max(0, end - payloads.length) || from > end) {
+                return null;
+            }
+            int count = (int) Math.min(limit, end - from);
+            List<Entry> entries = new ArrayList<>(count);
+            for (long offset = from; offset < from + count; offset++) {
+                int slot = slot(offset);
+                entries.add(new Entry(offset, timestamps[slot], payloads[slot]));
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a record at or after {@code offset} exists.
+     *
+     * @return whether one exists
+     */
+    public boolean await(long offset, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (end <= offset) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = appended.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int slot(long offset) {
+        return (int) (offset % payloads.length);
+    }
+
+    /**
+     * Journal record.
+     *
+     * @param offset    position in the journal
+     * @param timestamp primary's wall-clock time when the record was appended
+     * @param payload   encoded change, see {@link ChangeCodec}
+     */
+    public record Entry(long offset, long timestamp, byte[] payload) {
+    }
+}
@@ -0,0 +1,93 @@
+package library.replication;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import library.domain.book.Book;
+import library.repo.BookRepository;
+import library.repo.Completion;
+import library.repo.FacetedSearch;
+import library.repo.Page;
+import library.repo.SortField;
+import library.repo.TitleMatch;
+
+/**
+ * {@link BookRepository} that appends every save to a {@link ChangeJournal}. Reads go straight to the
+ * delegate.
+ */
+public class JournalingBookRepository implements BookRepository {
+    private final BookRepository delegate;
+    private final ChangeJournal journal;
+
+    public JournalingBookRepository(BookRepository delegate, ChangeJournal journal) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.journal = Objects.requireNonNull(journal, "journal");
+    }
+
+    @Override
+    public void save(Book book) {
+        journal.append(() -> {
+            delegate.save(book);
+            return List.of(ChangeCodec.encode(book));
+        });
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public Map<String, Book> findAllByIsbns(Collection<String> isbns) {
+        return delegate.findAllByIsbns(isbns);
+    }
+
+    @Override
+    public List<Book> findByTitleIgnoreCase(String title) {
+        return delegate.findByTitleIgnoreCase(title);
+    }
+
+    @Override
+    public List<Book> searchByTitle(String keyword) {
+        return delegate.searchByTitle(keyword);
+    }
+
+    @Override
+    public FacetedSearch facetedSearch(String keyword, String category) {
+        return delegate.facetedSearch(keyword, category);
+    }
+
+    @Override
+    public List<TitleMatch> suggestByTitle(String title, int maxDistance, int limit) {
+        return delegate.suggestByTitle(title, maxDistance, limit);
+    }
+
+    @Override
+    public List<Completion> complete(String prefix, int limit) {
+        return delegate.complete(prefix, limit);
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<Book> findPage(String pageToken, int limit) {
+        return delegate.findPage(pageToken, limit);
+    }
+
+    @Override
+    public Page<Book> browse(SortField field, String from, String pageToken, int limit) {
+        return delegate.browse(field, from, pageToken, limit);
+    }
+}
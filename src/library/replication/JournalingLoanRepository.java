@@ -0,0 +1,102 @@
+package library.replication;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import library.domain.loan.Loan;
+import library.repo.LoanRepository;
+import library.repo.Page;
+
+/**
+ * {@link LoanRepository} that appends every save to a {@link ChangeJournal}. Reads go straight to the
+ * delegate.
+ */
+public class JournalingLoanRepository implements LoanRepository {
+    private final LoanRepository delegate;
+    private final ChangeJournal journal;
+
+    public JournalingLoanRepository(LoanRepository delegate, ChangeJournal journal) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.journal = Objects.requireNonNull(journal, "journal");
+    }
+
+    @Override
+    public void save(Loan loan) {
+        journal.append(() -> {
+            delegate.save(loan);
+            return List.of(ChangeCodec.encode(loan));
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<Loan> loans) {
+        journal.append(() -> {
+            delegate.saveAll(loans);
+            List<byte[]> records = new ArrayList<>(loans.size());
+            for (Loan loan : loans) {
+                records.add(ChangeCodec.encode(loan));
+            }
+            return records;
+        });
+    }
+
+    @Override
+    public Optional<Loan> findActiveByUserAndIsbn(String userId, String isbn) {
+        return delegate.findActiveByUserAndIsbn(userId, isbn);
+    }
+
+    @Override
+    public List<Loan> findActiveByUser(String userId) {
+        return delegate.findActiveByUser(userId);
+    }
+
+    @Override
+    public int countActiveByUser(String userId) {
+        return delegate.countActiveByUser(userId);
+    }
+
+    @Override
+    public int countActiveByIsbn(String isbn) {
+        return delegate.countActiveByIsbn(isbn);
+    }
+
+    @Override
+    public boolean hasActiveLoan(String userId, String isbn) {
+        return delegate.hasActiveLoan(userId, isbn);
+    }
+
+    @Override
+    public List<Loan> findActive() {
+        return delegate.findActive();
+    }
+
+    @Override
+    public List<Loan> findByIsbnOn(String isbn, LocalDate date) {
+        return delegate.findByIsbnOn(isbn, date);
+    }
+
+    @Override
+    public List<Loan> findByUserOn(String userId, LocalDate date) {
+        return delegate.findByUserOn(userId, date);
+    }
+
+    @Override
+    public List<Loan> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Loan> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<Loan> findPage(String pageToken, int limit) {
+        return delegate.findPage(pageToken, limit);
+    }
+}
@@ -0,0 +1,59 @@
+package library.replication;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import library.domain.user.User;
+import library.repo.Page;
+import library.repo.UserRepository;
+
+/**
+ * {@link UserRepository} that appends every save to a {@link ChangeJournal}. Reads go straight to the
+ * delegate.
+ */
+public class JournalingUserRepository implements UserRepository {
+    private final UserRepository delegate;
+    private final ChangeJournal journal;
+
+    public JournalingUserRepository(UserRepository delegate, ChangeJournal journal) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.journal = Objects.requireNonNull(journal, "journal");
+    }
+
+    @Override
+    public void save(User user) {
+        journal.append(() -> {
+            delegate.save(user);
+            return List.of(ChangeCodec.encode(user));
+        });
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Map<String, User> findAllByIds(Collection<String> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<User> findPage(String pageToken, int limit) {
+        return delegate.findPage(pageToken, limit);
+    }
+}
@@ -0,0 +1,236 @@
+package library.replication;
+
+import static library.replication.ReplicationProtocol.ACCEPTED;
+import static library.replication.ReplicationProtocol.CHALLENGE;
+import static library.replication.ReplicationProtocol.COMPLETE;
+import static library.replication.ReplicationProtocol.DATA;
+import static library.replication.ReplicationProtocol.HEARTBEAT;
+import static library.replication.ReplicationProtocol.HEARTBEAT_MILLIS;
+import static library.replication.ReplicationProtocol.MAGIC;
+import static library.replication.ReplicationProtocol.NONCE_BYTES;
+import static library.replication.ReplicationProtocol.NO_POSITION;
+import static library.replication.ReplicationProtocol.RECORD;
+import static library.replication.ReplicationProtocol.SNAPSHOT;
+import static library.replication.ReplicationProtocol.VERSION;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Objects;
+
+import library.app.ApplicationContext;
+
+/**
+ * Follower side of journal shipping: applies a primary's changes to this process's repositories.
+ * <p>
+ * Runs on one background thread that connects to the primary, sends the position it has applied up to,
+ * and applies snapshot and journal records through the context's repositories, so caches, versions and
+ * indexes stay current. When the connection drops, or the primary stays silent for three heartbeat
+ * intervals, the thread reconnects with backoff and resumes from its position; the primary falls back to a
+ * snapshot if it no longer has that position. The application must not write to the repositories itself.
+ * Before anything is shipped the follower answers the primary's challenge with the shared secret; a
+ * rejected secret is reported in {@link Status#lastError()} and retried with backoff like a dropped
+ * connection.
+ */
+public class ReplicationClient implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final ApplicationContext context;
+    private final InetSocketAddress primary;
+    private final byte[] key;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile Socket socket;
+
+    private volatile boolean connected;
+    private volatile boolean snapshotting;
+    private volatile long position = NO_POSITION;
+    private volatile long primaryEnd = NO_POSITION;
+    private volatile long appliedTimestamp;
+    private volatile long lastContact;
+    private volatile long applied;
+    private volatile int snapshots;
+    private volatile int reconnects;
+    private volatile String lastError;
+
+    /**
+     * @param context repositories to apply changes to
+     * @param primary address of the primary's {@link ReplicationServer}
+     * @param secret  secret shared with the primary, not empty
+     */
+    public ReplicationClient(ApplicationContext context, InetSocketAddress primary, String secret) {
+        this.context = Objects.requireNonNull(context, "context");
+        this.primary = Objects.requireNonNull(primary, "primary");
+        this.key = ReplicationProtocol.key(secret);
+        this.thread = Thread.ofPlatform().name("replication-follower").daemon().unstarted(this::run);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * @return current replication state
+     */
+    public Status status() {
+        long now = System.currentTimeMillis();
+        long applied = position;
+        long end = primaryEnd;
+        long lagRecords = end == NO_POSITION ? -1 : Math.max(0, end - Math.max(0, applied));
+        long lagMillis;
+        if (lagRecords == 0) {
+            lagMillis = 0;
+        } else if (appliedTimestamp == 0) {
+            lagMillis = -1;
+        } else {
+            lagMillis = now - appliedTimestamp;
+        }
+        return new Status(primary.toString(), connected, snapshotting, applied, end, lagRecords, lagMillis,
+                lastContact == 0 ? -1 : now - lastContact, this.applied, snapshots, reconnects, lastError);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Closing anyway.
+            }
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(primary, CONNECT_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                connection.setSoTimeout(3 * HEARTBEAT_MILLIS);
+                follow(connection);
+            } catch (IOException | RuntimeException e) {
+                lastError = e.toString();
+            } finally {
+                if (connected) {
+                    // Only an accepted connection resets the backoff, so a wrong secret is retried slowly.
+                    backoff = MIN_BACKOFF_MILLIS;
+                }
+                connected = false;
+                snapshotting = false;
+            }
+            if (closed) {
+                return;
+            }
+            reconnects++;
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(position);
+        out.flush();
+        if (in.readByte() != CHALLENGE) {
+            throw new IOException("expected a challenge from the primary");
+        }
+        byte[] nonce = new byte[NONCE_BYTES];
+        in.readFully(nonce);
+        out.write(ReplicationProtocol.prove(key, nonce));
+        out.flush();
+        if (in.readByte() != ACCEPTED) {
+            throw new IOException("primary rejected the replication secret");
+        }
+        connected = true;
+        long snapshotPosition = NO_POSITION;
+        while (!closed) {
+            byte type = in.readByte();
+            switch (type) {
+                case SNAPSHOT -> {
+                    snapshotting = true;
+                    snapshotPosition = in.readLong();
+                }
+                case DATA -> apply(readPayload(in));
+                case COMPLETE -> {
+                    position = snapshotPosition;
+                    snapshotting = false;
+                    snapshots++;
+                }
+                case RECORD -> {
+                    long offset = in.readLong();
+                    long timestamp = in.readLong();
+                    byte[] payload = readPayload(in);
+                    if (offset != position) {
+                        throw new IOException("journal gap: expected " + position + " but got " + offset);
+                    }
+                    apply(payload);
+                    position = offset + 1;
+                    appliedTimestamp = timestamp;
+                }
+                case HEARTBEAT -> {
+                    primaryEnd = in.readLong();
+                    in.readLong();
+                    lastContact = System.currentTimeMillis();
+                    if (position >= primaryEnd) {
+                        appliedTimestamp = lastContact;
+                    }
+                    out.writeLong(position);
+                    out.flush();
+                }
+                default -> throw new IOException("unknown frame type " + type);
+            }
+        }
+    }
+
+    private void apply(byte[] payload) {
+        ChangeCodec.apply(payload, context.getBookRepository(), context.getLoanRepository(),
+                context.getUserRepository());
+        applied++;
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * Replication state as seen by the follower.
+     *
+     * @param primary      primary's address
+     * @param connected    whether a connection is open
+     * @param snapshotting whether a full snapshot is being received
+     * @param position     next journal offset needed, or {@code -1} before the first snapshot completes
+     * @param primaryEnd   primary's journal end at the last heartbeat, or {@code -1} before the first one
+     * @param lagRecords   journal records not applied yet, or {@code -1} if unknown
+     * @param lagMillis    age of the newest applied change while behind, {@code 0} when caught up, or
+     *                     {@code -1} if unknown
+     * @param sinceContact milliseconds since the last heartbeat, or {@code -1} before the first one
+     * @param applied      records applied, snapshot records included
+     * @param snapshots    full snapshots received
+     * @param reconnects   connection attempts after the first
+     * @param lastError    last connection or apply failure, or {@code null}
+     */
+    public static record Status(String primary, boolean connected, boolean snapshotting, long position,
+            long primaryEnd, long lagRecords, long lagMillis, long sinceContact, long applied, int snapshots,
+            int reconnects, String lastError) {
+    }
+}
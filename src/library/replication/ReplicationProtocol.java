@@ -0,0 +1,94 @@
+package library.replication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Wire format between {@link ReplicationServer} and {@link ReplicationClient}, over one TCP connection
+ * with {@link java.io.DataOutputStream} encoding.
+ *
+ * <pre>
+ * follower → primary   HELLO   int magic, int version, long position (-1 for none)
+ * primary → follower   CHALLENGE byte 'A', bytes[32] nonce
+ * follower → primary   PROOF   bytes[32] HMAC-SHA256 of the nonce keyed by the shared secret
+ * primary → follower   ACCEPTED  byte 'K'  or  REJECTED byte 'X' and the connection is closed
+ * follower → primary   ACK     long position                               after each heartbeat
+ * primary → follower   SNAPSHOT  byte 'S', long position                  full state follows
+ *                      DATA      byte 'D', int length, bytes              one snapshot record
+ *                      COMPLETE  byte 'C'                                 snapshot done, resume at position
+ *                      RECORD    byte 'R', long offset, long timestamp, int length, bytes
+ *                      HEARTBEAT byte 'H', long end, long timestamp       after each batch and when idle
+ * </pre>
+ *
+ * A position is the offset of the next journal record the follower needs. The primary ships nothing,
+ * not even a snapshot, before the follower has proven it holds the shared secret; the secret itself never
+ * crosses the wire.
+ */
+final class ReplicationProtocol {
+    static final int MAGIC = 0x4C49424A;
+    static final int VERSION = 2;
+    static final long NO_POSITION = -1;
+
+    static final byte CHALLENGE = 'A';
+    static final byte ACCEPTED = 'K';
+    static final byte REJECTED = 'X';
+    static final byte SNAPSHOT = 'S';
+    static final byte DATA = 'D';
+    static final byte COMPLETE = 'C';
+    static final byte RECORD = 'R';
+    static final byte HEARTBEAT = 'H';
+
+    static final int HEARTBEAT_MILLIS = 1_000;
+    static final int BATCH = 1_024;
+    static final int NONCE_BYTES = 32;
+    static final int PROOF_BYTES = 32;
+    static final int HANDSHAKE_TIMEOUT_MILLIS = 5_000;
+
+    private static final String HMAC = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private ReplicationProtocol() {
+    }
+
+    /**
+     * @return secret as key bytes
+     * @throws IllegalArgumentException if the secret is empty
+     */
+    static byte[] key(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("replication secret must not be empty");
+        }
+        return secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] nonce() {
+        byte[] nonce = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * @return proof that the sender holds {@code key}, for the given nonce
+     */
+    static byte[] prove(byte[] key, byte[] nonce) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(key, HMAC));
+            return mac.doFinal(nonce);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is unavailable", e);
+        }
+    }
+
+    /**
+     * Compares in time independent of where the proofs differ.
+     */
+    static boolean verify(byte[] key, byte[] nonce, byte[] proof) {
+        return MessageDigest.isEqual(prove(key, nonce), proof);
+    }
+}
@@ -0,0 +1,329 @@
+package library.replication;
+
+import static library.replication.ReplicationProtocol.ACCEPTED;
+import static library.replication.ReplicationProtocol.BATCH;
+import static library.replication.ReplicationProtocol.CHALLENGE;
+import static library.replication.ReplicationProtocol.COMPLETE;
+import static library.replication.ReplicationProtocol.DATA;
+import static library.replication.ReplicationProtocol.HEARTBEAT;
+import static library.replication.ReplicationProtocol.HANDSHAKE_TIMEOUT_MILLIS;
+import static library.replication.ReplicationProtocol.HEARTBEAT_MILLIS;
+import static library.replication.ReplicationProtocol.MAGIC;
+import static library.replication.ReplicationProtocol.NO_POSITION;
+import static library.replication.ReplicationProtocol.PROOF_BYTES;
+import static library.replication.ReplicationProtocol.RECORD;
+import static library.replication.ReplicationProtocol.REJECTED;
+import static library.replication.ReplicationProtocol.SNAPSHOT;
+import static library.replication.ReplicationProtocol.VERSION;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import library.app.ApplicationContext;
+import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.domain.user.User;
+
+/**
+ * Primary side of journal shipping: streams the {@link ChangeJournal} to any number of followers.
+ * <p>
+ * A follower connects and sends the position it has applied up to. If the journal still holds that
+ * position, shipping resumes from it. Otherwise, and for a new follower, the server notes the journal end,
+ * sends the current state of every user, book and loan, and then ships from the noted end. The state is
+ * read without stopping writers, so it may already contain some of the changes shipped afterwards; records
+ * are full-state upserts, so replaying them converges on the primary's state. Each follower is served by
+ * its own virtual thread and acknowledges its position after every heartbeat, which gives the primary a
+ * per-follower lag.
+ * <p>
+ * Snapshots carry every user record, password hashes included, so a follower must first answer a
+ * challenge with an HMAC keyed by the shared secret; see {@link ReplicationProtocol}. Peers that fail or
+ * stall the handshake are disconnected without receiving anything else. Bind to the loopback address
+ * unless followers run on other hosts.
+ */
+public class ReplicationServer implements Closeable {
+    private static final int BACKLOG = 16;
+
+    private final ApplicationContext context;
+    private final ChangeJournal journal;
+    private final byte[] key;
+    private final ServerSocket serverSocket;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean closed;
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    /**
+     * Binds the server; call {@link #start()} to accept followers.
+     *
+     * @param context repositories read for snapshots
+     * @param journal journal appended to by the primary's repositories
+     * @param address address to bind, port {@code 0} for an ephemeral port
+     * @param secret  shared secret followers must prove they hold, not empty
+     */
+    public ReplicationServer(ApplicationContext context, ChangeJournal journal, InetSocketAddress address,
+            String secret) {
+        this.context = Objects.requireNonNull(context, "context");
+        this.journal = Objects.requireNonNull(journal, "journal");
+        this.key = ReplicationProtocol.key(secret);
+        try {
+            this.serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(address, BACKLOG);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.acceptor = Thread.ofPlatform().name("replication-accept").daemon().unstarted(this::accept);
+    }
+
+    public void start() {
+        acceptor.start();
+    }
+
+    /**
+     * @return bound port
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return bound address and port
+     */
+    public String address() {
+        return String.valueOf(serverSocket.getLocalSocketAddress());
+    }
+
+    /**
+     * @return connections dropped for a wrong handshake or secret
+     */
+    public int rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return connected followers
+     */
+    public List<FollowerStatus> followers() {
+        long end = journal.end();
+        List<FollowerStatus> result = new ArrayList<>();
+        for (Session session : sessions) {
+            long acked = session.acked;
+            result.add(new FollowerStatus(session.address, session.sent, acked,
+                    acked == NO_POSITION ? end : Math.max(0, end - acked), session.snapshots));
+        }
+        return result;
+    }
+
+    /**
+     * @return offset the next journal record will get
+     */
+    public long journalEnd() {
+        return journal.end();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Closing anyway.
+        }
+        for (Session session : sessions) {
+            session.close();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            Session session = new Session(socket);
+            sessions.add(session);
+            Thread.ofVirtual().name("replication-" + session.address).start(session);
+        }
+    }
+
+    /**
+     * One connected follower.
+     */
+    private final class Session implements Runnable {
+        private final Socket socket;
+        private final String address;
+        private volatile long sent = NO_POSITION;
+        private volatile long acked = NO_POSITION;
+        private volatile int snapshots;
+
+        private Session(Socket socket) {
+            this.socket = socket;
+            this.address = String.valueOf(socket.getRemoteSocketAddress());
+        }
+
+        @Override
+        public void run() {
+            try {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    rejected.incrementAndGet();
+                    return;
+                }
+                long position = in.readLong();
+                if (!authenticate(in, out)) {
+                    rejected.incrementAndGet();
+                    return;
+                }
+                socket.setSoTimeout(0);
+                Thread.ofVirtual().name("replication-ack-" + address).start(() -> readAcks(in));
+                ship(out, position);
+            } catch (IOException e) {
+                // Follower went away; it reconnects with its position.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+                sessions.remove(this);
+            }
+        }
+
+        /**
+         * Challenges the follower and tells it whether its proof holds.
+         */
+        private boolean authenticate(DataInputStream in, DataOutputStream out) throws IOException {
+            byte[] nonce = ReplicationProtocol.nonce();
+            out.writeByte(CHALLENGE);
+            out.write(nonce);
+            out.flush();
+            byte[] proof = new byte[PROOF_BYTES];
+            in.readFully(proof);
+            boolean accepted = ReplicationProtocol.verify(key, nonce, proof);
+            out.writeByte(accepted ? ACCEPTED : REJECTED);
+            out.flush();
+            return accepted;
+        }
+
+        private void ship(DataOutputStream out, long position) throws IOException, InterruptedException {
+            while (!closed && !socket.isClosed()) {
+                List<ChangeJournal.Entry> batch = position == NO_POSITION ? null : journal.read(position, BATCH);
+                if (batch == null) {
+                    position = sendSnapshot(out);
+                    heartbeat(out);
+                    continue;
+                }
+                if (batch.isEmpty()) {
+                    if (!journal.await(position, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        heartbeat(out);
+                    }
+                    continue;
+                }
+                for (ChangeJournal.Entry entry : batch) {
+                    out.writeByte(RECORD);
+                    out.writeLong(entry.offset());
+                    out.writeLong(entry.timestamp());
+                    out.writeInt(entry.payload().length);
+                    out.write(entry.payload());
+                }
+                position = batch.get(batch.size() - 1).offset() + 1;
+                sent = position;
+                heartbeat(out);
+            }
+        }
+
+        /**
+         * Sends the full state and returns the position to ship from afterwards.
+         */
+        private long sendSnapshot(DataOutputStream out) throws IOException {
+            long position = journal.end();
+            out.writeByte(SNAPSHOT);
+            out.writeLong(position);
+            try (Stream<User> users = context.getUserRepository().streamAll()) {
+                for (Iterator<User> it = users.iterator(); it.hasNext(); ) {
+                    data(out, ChangeCodec.encode(it.next()));
+                }
+            }
+            try (Stream<Book> books = context.getBookRepository().streamAll()) {
+                for (Iterator<Book> it = books.iterator(); it.hasNext(); ) {
+                    data(out, ChangeCodec.encode(it.next()));
+                }
+            }
+            try (Stream<Loan> loans = context.getLoanRepository().streamAll()) {
+                for (Iterator<Loan> it = loans.iterator(); it.hasNext(); ) {
+                    data(out, ChangeCodec.encode(it.next()));
+                }
+            }
+            out.writeByte(COMPLETE);
+            snapshots++;
+            sent = position;
+            return position;
+        }
+
+        private void data(DataOutputStream out, byte[] payload) throws IOException {
+            out.writeByte(DATA);
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+
+        private void heartbeat(DataOutputStream out) throws IOException {
+            out.writeByte(HEARTBEAT);
+            out.writeLong(journal.end());
+            out.writeLong(System.currentTimeMillis());
+            out.flush();
+        }
+
+        private void readAcks(DataInputStream in) {
+            try {
+                while (true) {
+                    acked = in.readLong();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway.
+            }
+        }
+    }
+
+    /**
+     * Replication state of one follower as seen by the primary.
+     *
+     * @param address   follower's address
+     * @param sent      position shipped up to, or {@code -1} before the first shipment
+     * @param acked     position the follower reported as applied, or {@code -1} before its first report
+     * @param lag       journal records the follower has not acknowledged
+     * @param snapshots number of full snapshots sent on this connection
+     */
+    public static record FollowerStatus(String address, long sent, long acked, long lag, int snapshots) {
+    }
+}
@@ -1,10 +1,18 @@
 package library.repo;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 import library.domain.book.Book;
+import library.util.EditDistance;
 
 /**
  * Repository for accessing books.
@@ -12,6 +20,21 @@ import library.domain.book.Book;
 public interface BookRepository {
     Optional<Book> findByIsbn(String isbn);
 
+    /**
+     * Resolves several books at once. ISBNs that do not exist are absent from the result.
+     * Implementations backed by a remote store should override this to fetch in one round-trip.
+     *
+     * @param isbns ISBNs to resolve
+     * @return books keyed by ISBN
+     */
+    default Map<String, Book> findAllByIsbns(Collection<String> isbns) {
+        Map<String, Book> result = new HashMap<>();
+        for (String isbn : isbns) {
+            findByIsbn(isbn).ifPresent(book -> result.put(isbn, book));
+        }
+        return result;
+    }
+
     /**
      * Finds books whose title exactly matches (ignoring case) the given title.
      */
@@ -22,7 +45,136 @@ public interface BookRepository {
      */
     List<Book> searchByTitle(String keyword);
 
+    /**
+     * Searches titles like {@link #searchByTitle(String)}, counts the matches per category and keeps only
+     * the matches in {@code category}. This default groups the plain search results; implementations
+     * should override it with per-category indexes.
+     *
+     * @param keyword  keyword to look for in titles (case-insensitive)
+     * @param category category to narrow the books to, or {@code null} for all
+     * @return matching books and per-category counts
+     */
+    default FacetedSearch facetedSearch(String keyword, String category) {
+        List<Book> matches = searchByTitle(keyword);
+        Map<String, Integer> counts = new HashMap<>();
+        List<Book> books = new ArrayList<>();
+        for (Book book : matches) {
+            counts.merge(book.getCategory(), 1, Integer::sum);
+            if (category == null || category.equals(book.getCategory())) {
+                books.add(book);
+            }
+        }
+        return new FacetedSearch(books, CategoryCount.ranked(counts));
+    }
+
+    /**
+     * Finds books whose title is within {@code maxDistance} edits of the given title, comparing
+     * normalized titles (see {@link #normalizeTitle(String)}). This default compares against every
+     * book; implementations should override it with an index.
+     *
+     * @param title       title as typed, possibly misspelled
+     * @param maxDistance largest accepted edit distance
+     * @param limit       maximum number of matches
+     * @return closest matches first
+     */
+    default List<TitleMatch> suggestByTitle(String title, int maxDistance, int limit) {
+        String query = normalizeTitle(title);
+        EditDistance editDistance = new EditDistance();
+        try (Stream<Book> books = streamAll()) {
+            return books
+                    .map(book -> new TitleMatch(book, editDistance.distance(query, normalizeTitle(book.getTitle()), maxDistance)))
+                    .filter(match -> match.distance() <= maxDistance)
+                    .sorted(TitleMatch.RANKING)
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
     void save(Book book);
 
     Collection<Book> findAll();
+
+    /**
+     * Streams every book ordered by ISBN without copying the store. The stream is
+     * weakly consistent with respect to concurrent saves.
+     */
+    Stream<Book> streamAll();
+
+    /**
+     * Reads one page of books ordered by ISBN.
+     *
+     * @param pageToken token from the previous page, or {@code null} for the first page
+     * @param limit     maximum number of records to return
+     * @return page of records
+     */
+    Page<Book> findPage(String pageToken, int limit);
+
+    /**
+     * Reads one page of books ordered by an attribute, then by ISBN; see {@link SortField}. This default
+     * sorts a full scan on every call; implementations should override it with a sorted index.
+     *
+     * @param field     attribute to order by
+     * @param from      attribute value to start at, ignoring case, or {@code null} for the beginning;
+     *                  ignored when a page token is given
+     * @param pageToken token from the previous page, or {@code null} for the first page
+     * @param limit     maximum number of records to return
+     * @return page of records
+     */
+    default Page<Book> browse(SortField field, String from, String pageToken, int limit) {
+        String bound = SortField.lowerBound(from, pageToken);
+        NavigableMap<String, Book> sorted = new TreeMap<>();
+        try (Stream<Book> books = streamAll()) {
+            books.forEach(book -> sorted.put(field.keyOf(book), book));
+        }
+        return Pages.slice(sorted, bound, limit);
+    }
+
+    /**
+     * Completes a prefix typed into a search box with the titles and authors starting with it, compared
+     * like {@link #normalizeTitle(String)}, ranked by {@link Completion#RANKING}. This default scans every
+     * book; implementations should override it with a prefix index.
+     *
+     * @param prefix text typed so far
+     * @param limit  maximum number of completions
+     * @return completions, most copies held first
+     */
+    default List<Completion> complete(String prefix, int limit) {
+        String normalized = normalizeTitle(prefix);
+        List<Completion> matches = new ArrayList<>();
+        try (Stream<Book> books = streamAll()) {
+            books.forEach(book -> {
+                for (SortField field : Completion.FIELDS) {
+                    String text = field.attributeOf(book);
+                    if (normalizeTitle(text).startsWith(normalized)) {
+                        matches.add(new Completion(text, field, book.getTotal()));
+                    }
+                }
+            });
+        }
+        return Completion.combine(matches, limit);
+    }
+
+    /**
+     * Normalizes a title for approximate matching: trimmed, lower-cased, inner whitespace collapsed.
+     */
+    static String normalizeTitle(String title) {
+        if (title == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(title.length());
+        boolean space = false;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
 }
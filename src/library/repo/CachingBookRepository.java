@@ -0,0 +1,256 @@
+package library.repo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import library.domain.book.Book;
+
+/**
+ * {@link BookRepository} decorator that caches title search results as ISBN lists.
+ * <p>
+ * Entries hold ISBNs, not books, and are resolved against the delegate on every hit, so stock changes
+ * are visible immediately and never invalidate anything. A save that adds a book or changes a title
+ * invalidates only the entries whose keyword occurs in the old or the new title. Faceted searches are
+ * cached per keyword and category with their category counts; since a stored instance never changes
+ * category, a save that replaces a book with one in another category invalidates the faceted entries
+ * whose keyword occurs in its title. The cache is a bounded LRU map guarded by its own monitor; a miss
+ * that raced a title change is answered but not cached, so a stale list can never be stored.
+ */
+public class CachingBookRepository implements BookRepository {
+    private final BookRepository delegate;
+    private final int capacity;
+    private final Map<Key, Result> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final TransactionRunner transactions;
+    private long generation;
+
+    /**
+     * @param delegate     repository answering misses and all other calls
+     * @param capacity     maximum number of cached keywords
+     * @param transactions runner that serializes writes; each save reads the title it replaces and
+     *                     writes the book inside one transaction
+     */
+    public CachingBookRepository(BookRepository delegate, int capacity, TransactionRunner transactions) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.capacity = capacity;
+        this.transactions = Objects.requireNonNull(transactions, "transactions");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+                if (size() > CachingBookRepository.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public Map<String, Book> findAllByIsbns(Collection<String> isbns) {
+        return delegate.findAllByIsbns(isbns);
+    }
+
+    @Override
+    public List<Book> findByTitleIgnoreCase(String title) {
+        return cachedBooks(new Key(Kind.EXACT, lower(title), null), () -> delegate.findByTitleIgnoreCase(title));
+    }
+
+    @Override
+    public List<Book> searchByTitle(String keyword) {
+        return cachedBooks(new Key(Kind.CONTAINS, lower(keyword), null), () -> delegate.searchByTitle(keyword));
+    }
+
+    @Override
+    public FacetedSearch facetedSearch(String keyword, String category) {
+        return cached(new Key(Kind.FACETED, lower(keyword), category),
+                () -> delegate.facetedSearch(keyword, category));
+    }
+
+    @Override
+    public List<TitleMatch> suggestByTitle(String title, int maxDistance, int limit) {
+        return delegate.suggestByTitle(title, maxDistance, limit);
+    }
+
+    @Override
+    public List<Completion> complete(String prefix, int limit) {
+        return delegate.complete(prefix, limit);
+    }
+
+    @Override
+    public void save(Book book) {
+        Book previous = transactions.inTransaction(() -> {
+            Book stored = delegate.findByIsbn(book.getIsbn()).orElse(null);
+            delegate.save(book);
+            return stored;
+        });
+        if (previous == book) {
+            return;
+        }
+        boolean titleChanged = previous == null || !book.getTitle().equals(previous.getTitle());
+        boolean categoryChanged = previous == null || !book.getCategory().equals(previous.getCategory());
+        if (!titleChanged && !categoryChanged) {
+            return;
+        }
+        String oldTitle = previous == null ? null : lower(previous.getTitle());
+        String newTitle = lower(book.getTitle());
+        synchronized (entries) {
+            generation++;
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                Key key = keys.next();
+                if (!titleChanged && key.kind != Kind.FACETED) {
+                    continue;
+                }
+                if (key.matches(oldTitle) || key.matches(newTitle)) {
+                    keys.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<Book> findPage(String pageToken, int limit) {
+        return delegate.findPage(pageToken, limit);
+    }
+
+    @Override
+    public Page<Book> browse(SortField field, String from, String pageToken, int limit) {
+        return delegate.browse(field, from, pageToken, limit);
+    }
+
+    /**
+     * @return current cache counters
+     */
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size, capacity);
+    }
+
+    private List<Book> cachedBooks(Key key, Supplier<List<Book>> loader) {
+        return new ArrayList<>(cached(key, () -> new FacetedSearch(loader.get(), List.of())).books());
+    }
+
+    private FacetedSearch cached(Key key, Supplier<FacetedSearch> loader) {
+        Result result;
+        long observed;
+        synchronized (entries) {
+            result = entries.get(key);
+            observed = generation;
+        }
+        if (result != null) {
+            hits.increment();
+            return new FacetedSearch(resolve(result.isbns()), result.categories());
+        }
+        misses.increment();
+        FacetedSearch search = loader.get();
+        List<String> loaded = new ArrayList<>(search.books().size());
+        for (Book book : search.books()) {
+            loaded.add(book.getIsbn());
+        }
+        synchronized (entries) {
+            if (generation == observed) {
+                entries.put(key, new Result(List.copyOf(loaded), search.categories()));
+            }
+        }
+        return search;
+    }
+
+    private List<Book> resolve(List<String> isbns) {
+        if (isbns.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, Book> books = delegate.findAllByIsbns(isbns);
+        List<Book> result = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Book book = books.get(isbn);
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private enum Kind {
+        EXACT,
+        CONTAINS,
+        FACETED
+    }
+
+    /**
+     * @param category category a faceted search narrows to, or {@code null}
+     */
+    private record Key(Kind kind, String text, String category) {
+        boolean matches(String lowerTitle) {
+            if (lowerTitle == null) {
+                return false;
+            }
+            return kind == Kind.EXACT ? lowerTitle.equals(text) : lowerTitle.contains(text);
+        }
+    }
+
+    /**
+     * Cached search: matching ISBNs in order, and category counts for faceted searches.
+     */
+    private record Result(List<String> isbns, List<CategoryCount> categories) {
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     *
+     * @param hits          lookups answered from the cache
+     * @param misses        lookups passed to the delegate
+     * @param evictions     entries dropped to respect the capacity
+     * @param invalidations entries dropped because a title change affected them
+     * @param size          entries currently cached
+     * @param capacity      maximum number of entries
+     */
+    public record Stats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+        /**
+         * @return fraction of lookups answered from the cache, or {@code 0} before the first lookup
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
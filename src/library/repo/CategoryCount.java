@@ -0,0 +1,39 @@
+package library.repo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Number of search matches in one category.
+ *
+ * @param category book category
+ * @param count    number of matching books in it
+ */
+public record CategoryCount(String category, int count) {
+    /**
+     * Orders counts from largest to smallest, then by category.
+     */
+    public static final Comparator<CategoryCount> RANKING = Comparator.comparingInt(CategoryCount::count)
+            .reversed()
+            .thenComparing(CategoryCount::category);
+
+    public CategoryCount {
+        Objects.requireNonNull(category, "category");
+    }
+
+    /**
+     * @param counts matches keyed by category
+     * @return counts ordered by {@link #RANKING}
+     */
+    public static List<CategoryCount> ranked(Map<String, Integer> counts) {
+        List<CategoryCount> result = new ArrayList<>(counts.size());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            result.add(new CategoryCount(entry.getKey(), entry.getValue()));
+        }
+        result.sort(RANKING);
+        return result;
+    }
+}
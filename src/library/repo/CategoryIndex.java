@@ -0,0 +1,104 @@
+package library.repo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import library.domain.book.Book;
+import library.util.RoaringBitmap;
+import library.util.primitive.ObjectIntMap;
+
+/**
+ * Per-category bitmaps over dense book ordinals, backing {@link BookRepository#facetedSearch} for
+ * {@link InMemoryBookRepository}.
+ * <p>
+ * Every ISBN gets the next ordinal the first time it is saved and keeps it. The index holds the stored
+ * book and its lower-cased title per ordinal, so a keyword search is one pass over a string array that
+ * collects matching ordinals into a {@link RoaringBitmap}; per-category counts are then intersection
+ * cardinalities and narrowing to a category is one intersection, with no book touched or list built for
+ * matches outside it. Ordinals are handed out in save order, so a bulk-loaded catalog's bitmaps are
+ * appended to and stay compact.
+ * <p>
+ * Not thread-safe; the repository guards it.
+ */
+final class CategoryIndex {
+    private static final Comparator<Book> BY_ISBN = Comparator.comparing(Book::getIsbn);
+
+    private final ObjectIntMap<String> ordinals = new ObjectIntMap<>();
+    private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+    private Book[] books = new Book[1024];
+    private String[] titles = new String[1024];
+    private int size;
+
+    /**
+     * Indexes a saved book, replacing what was indexed for its ISBN.
+     */
+    void put(Book book) {
+        int ordinal = ordinals.getOrDefault(book.getIsbn(), -1);
+        if (ordinal < 0) {
+            ordinal = size++;
+            if (ordinal == books.length) {
+                books = Arrays.copyOf(books, ordinal * 2);
+                titles = Arrays.copyOf(titles, ordinal * 2);
+            }
+            ordinals.put(book.getIsbn(), ordinal);
+        } else {
+            String previousCategory = books[ordinal].getCategory();
+            if (!previousCategory.equals(book.getCategory())) {
+                RoaringBitmap previous = byCategory.get(previousCategory);
+                previous.remove(ordinal);
+                if (previous.isEmpty()) {
+                    byCategory.remove(previousCategory);
+                }
+            }
+        }
+        books[ordinal] = book;
+        titles[ordinal] = book.getTitle().toLowerCase(Locale.ROOT);
+        byCategory.computeIfAbsent(book.getCategory(), category -> new RoaringBitmap()).add(ordinal);
+    }
+
+    /**
+     * @return number of indexed books
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param lowerKeyword lower-cased keyword
+     * @param category     category to narrow to, or {@code null}
+     * @return matches ordered by ISBN, like {@link InMemoryBookRepository#searchByTitle}, and counts
+     */
+    FacetedSearch search(String lowerKeyword, String category) {
+        RoaringBitmap matches = new RoaringBitmap();
+        for (int i = 0; i < size; i++) {
+            if (titles[i].contains(lowerKeyword)) {
+                matches.add(i);
+            }
+        }
+        List<CategoryCount> counts = new ArrayList<>();
+        for (Map.Entry<String, RoaringBitmap> entry : byCategory.entrySet()) {
+            int count = matches.andCardinality(entry.getValue());
+            if (count > 0) {
+                counts.add(new CategoryCount(entry.getKey(), count));
+            }
+        }
+        counts.sort(CategoryCount.RANKING);
+
+        RoaringBitmap selected;
+        if (category == null) {
+            selected = matches;
+        } else {
+            RoaringBitmap inCategory = byCategory.get(category);
+            selected = inCategory == null ? new RoaringBitmap() : matches.and(inCategory);
+        }
+        List<Book> result = new ArrayList<>(selected.cardinality());
+        selected.forEach(ordinal -> result.add(books[ordinal]));
+        result.sort(BY_ISBN);
+        return new FacetedSearch(result, counts);
+    }
+}
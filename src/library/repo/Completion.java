@@ -0,0 +1,62 @@
+package library.repo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Title or author completing a prefix typed into a search box.
+ *
+ * @param text   title or author as stored on a book
+ * @param field  {@link SortField#TITLE} or {@link SortField#AUTHOR}
+ * @param copies copies held of all books with this title or by this author
+ */
+public record Completion(String text, SortField field, int copies) {
+    /**
+     * Attributes completions are drawn from.
+     */
+    public static final List<SortField> FIELDS = List.of(SortField.TITLE, SortField.AUTHOR);
+
+    /**
+     * Orders completions by copies held, the catalog's measure of demand, most first, then by text and
+     * field.
+     */
+    public static final Comparator<Completion> RANKING = Comparator.comparingInt(Completion::copies)
+            .reversed()
+            .thenComparing(Completion::text)
+            .thenComparing(Completion::field);
+
+    public Completion {
+        Objects.requireNonNull(text, "text");
+        Objects.requireNonNull(field, "field");
+    }
+
+    /**
+     * Adds up completions of the same field whose texts normalize alike, as found per book or per shard,
+     * keeping the first text seen.
+     *
+     * @param completions completions to combine
+     * @param limit       maximum number of completions
+     * @return best combined completions ordered by {@link #RANKING}
+     */
+    public static List<Completion> combine(Collection<Completion> completions, int limit) {
+        Map<SortField, Map<String, Completion>> byText = new EnumMap<>(SortField.class);
+        for (Completion completion : completions) {
+            byText.computeIfAbsent(completion.field(), field -> new HashMap<>())
+                    .merge(BookRepository.normalizeTitle(completion.text()), completion,
+                            (first, second) -> new Completion(first.text(), first.field(),
+                                    first.copies() + second.copies()));
+        }
+        List<Completion> result = new ArrayList<>();
+        for (Map<String, Completion> texts : byText.values()) {
+            result.addAll(texts.values());
+        }
+        result.sort(RANKING);
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+}
@@ -0,0 +1,176 @@
+package library.repo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import library.domain.book.Book;
+import library.util.CompletionTrie;
+
+/**
+ * Normalized titles and authors in {@link CompletionTrie}s, backing {@link BookRepository#complete} for
+ * {@link InMemoryBookRepository}.
+ * <p>
+ * A title or author weighs the copies held of all books carrying it. The index remembers the copies each
+ * ISBN contributed and takes its previous title and author from the instance it replaces, so saving a
+ * book again only moves that book's copies and leaves the tries alone when nothing changed.
+ * <p>
+ * Not thread-safe; the repository guards it. {@link #isCurrent} is the exception: it reads a concurrent
+ * map, so the repository's save fast path can check for stock changes without a lock.
+ */
+final class CompletionIndex {
+    /**
+     * Largest number of completions a query returns.
+     */
+    static final int CAPACITY = 10;
+
+    private final Texts titles = new Texts(SortField.TITLE);
+    private final Texts authors = new Texts(SortField.AUTHOR);
+    private final Map<String, Integer> copiesByIsbn = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the stored books of an empty index, adding up each text's copies before touching the tries
+     * so that an author with many books is inserted once rather than re-ranked per book.
+     */
+    void putAll(Iterable<Book> books) {
+        Map<String, Total> titleTotals = new HashMap<>();
+        Map<String, Total> authorTotals = new HashMap<>();
+        for (Book book : books) {
+            copiesByIsbn.put(book.getIsbn(), book.getTotal());
+            count(titleTotals, book.getTitle(), book.getTotal());
+            count(authorTotals, book.getAuthor(), book.getTotal());
+        }
+        titles.putAll(titleTotals);
+        authors.putAll(authorTotals);
+    }
+
+    /**
+     * Indexes a saved book, replacing what was indexed for its ISBN.
+     *
+     * @param previous instance indexed for the ISBN before, which may be {@code book} itself, or
+     *                 {@code null}
+     * @param book     saved instance
+     */
+    void put(Book previous, Book book) {
+        int copies = book.getTotal();
+        Integer previousCopies = copiesByIsbn.put(book.getIsbn(), copies);
+        if (previous == null || previousCopies == null) {
+            titles.add(book.getTitle(), 1, copies);
+            authors.add(book.getAuthor(), 1, copies);
+            return;
+        }
+        titles.move(previous.getTitle(), previousCopies, book.getTitle(), copies);
+        authors.move(previous.getAuthor(), previousCopies, book.getAuthor(), copies);
+    }
+
+    /**
+     * @return whether the book's copies are the ones indexed; safe to call without the repository's lock
+     */
+    boolean isCurrent(Book book) {
+        Integer copies = copiesByIsbn.get(book.getIsbn());
+        return copies != null && copies == book.getTotal();
+    }
+
+    /**
+     * @param prefix normalized prefix
+     * @param limit  maximum number of completions, at most {@link #CAPACITY}
+     * @return titles and authors starting with {@code prefix} ordered by {@link Completion#RANKING}
+     */
+    List<Completion> complete(String prefix, int limit) {
+        List<Completion> result = new ArrayList<>(2 * Math.min(limit, CAPACITY));
+        titles.complete(prefix, limit, result);
+        authors.complete(prefix, limit, result);
+        result.sort(Completion.RANKING);
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    private static void count(Map<String, Total> totals, String text, int copies) {
+        Total total = totals.computeIfAbsent(key(text), key -> new Total(text));
+        total.books++;
+        total.copies += copies;
+    }
+
+    /**
+     * Normalizes a text, reusing the text itself when it is already normalized, as most Korean titles are,
+     * so the trie keeps no second copy of it.
+     */
+    private static String key(String text) {
+        String key = BookRepository.normalizeTitle(text);
+        return key.equals(text) ? text : key;
+    }
+
+    /**
+     * Trie of one attribute's normalized texts, each carrying its totals.
+     */
+    private static final class Texts {
+        private final SortField field;
+        private final CompletionTrie<Total> trie = new CompletionTrie<>(CAPACITY);
+
+        private Texts(SortField field) {
+            this.field = field;
+        }
+
+        /**
+         * Inserts counted texts in key order, so consecutive inserts walk the same trie paths.
+         */
+        private void putAll(Map<String, Total> totals) {
+            String[] keys = totals.keySet().toArray(new String[0]);
+            Arrays.sort(keys);
+            for (String key : keys) {
+                Total total = totals.get(key);
+                trie.put(key, total.copies, total);
+            }
+        }
+
+        /**
+         * Moves one book's copies from its previous text to its current one.
+         */
+        private void move(String previousText, int previousCopies, String text, int copies) {
+            if (previousText.equals(text)) {
+                if (copies != previousCopies) {
+                    add(text, 0, copies - previousCopies);
+                }
+                return;
+            }
+            add(previousText, -1, -previousCopies);
+            add(text, 1, copies);
+        }
+
+        private void add(String text, int books, int copies) {
+            String key = key(text);
+            Total total = trie.get(key);
+            if (total == null) {
+                total = new Total(text);
+            }
+            total.books += books;
+            total.copies += copies;
+            if (total.books == 0) {
+                trie.remove(key);
+            } else {
+                trie.put(key, total.copies, total);
+            }
+        }
+
+        private void complete(String prefix, int limit, List<Completion> result) {
+            for (CompletionTrie.Entry<Total> entry : trie.complete(prefix, limit)) {
+                result.add(new Completion(entry.value().text, field, (int) entry.weight()));
+            }
+        }
+    }
+
+    /**
+     * Books sharing one normalized text, shown with the first one's spelling.
+     */
+    private static final class Total {
+        private final String text;
+        private int books;
+        private long copies;
+
+        private Total(String text) {
+            this.text = text;
+        }
+    }
+}
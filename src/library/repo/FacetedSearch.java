@@ -0,0 +1,18 @@
+package library.repo;
+
+import java.util.List;
+
+import library.domain.book.Book;
+
+/**
+ * Title search narrowed to a category, with match counts for every category.
+ *
+ * @param books      matching books in the requested category, or all matching books if none was requested
+ * @param categories matches per category over all matching books, ordered by {@link CategoryCount#RANKING}
+ */
+public record FacetedSearch(List<Book> books, List<CategoryCount> categories) {
+    public FacetedSearch {
+        books = List.copyOf(books);
+        categories = List.copyOf(categories);
+    }
+}
@@ -2,56 +2,302 @@ package library.repo;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 import library.domain.book.Book;
+import library.monitoring.RepositoryLookupEvent;
+import library.util.QGramIndex;
 
 /**
  * In-memory implementation of {@link BookRepository}.
+ * <p>
+ * Besides the primary map by ISBN, the repository keeps one concurrent skip list per {@link SortField}
+ * keyed by the field's sort key. An index is built in one sorted pass the first time its field is
+ * browsed, so loading a catalog does not pay for random-order inserts, and is maintained from then on.
+ * Saving a new instance updates the built indexes under a lock; saving the stored instance again after
+ * an in-place stock change, the common case, touches neither the map nor the indexes.
+ * <p>
+ * A {@link CategoryIndex} keeps per-category bitmaps for {@link #facetedSearch}. It is updated together
+ * with the primary map, so its bitmaps always describe the stored instances.
+ * <p>
+ * A {@link CompletionIndex} answers {@link #complete} for type-ahead. Like the sort indexes it is built on
+ * first use and maintained from then on; it is also refreshed when a stock change saved in place alters
+ * the copies that weight completions.
+ * <p>
+ * Queries that scan or resolve several keys are recorded as {@link RepositoryLookupEvent}s with the number
+ * of books examined.
  */
 public class InMemoryBookRepository implements BookRepository {
-    private final Map<String, Book> booksByIsbn = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Book> booksByIsbn = new ConcurrentSkipListMap<>();
+    private final QGramIndex titleIndex = new QGramIndex();
+    private final ReadWriteLock titleIndexLock = new ReentrantReadWriteLock();
+    private final Map<SortField, NavigableMap<String, Book>> sortIndexes = new ConcurrentHashMap<>();
+    private final Object sortIndexLock = new Object();
+    private final CategoryIndex categoryIndex = new CategoryIndex();
+    private final ReadWriteLock categoryIndexLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock completionIndexLock = new ReentrantReadWriteLock();
+    private volatile CompletionIndex completionIndex;
 
     @Override
     public Optional<Book> findByIsbn(String isbn) {
         return Optional.ofNullable(booksByIsbn.get(isbn));
     }
 
+    @Override
+    public Map<String, Book> findAllByIsbns(Collection<String> isbns) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
+        Map<String, Book> result = new HashMap<>(Math.max(16, isbns.size() * 2));
+        for (String isbn : isbns) {
+            Book book = booksByIsbn.get(isbn);
+            if (book != null) {
+                result.put(isbn, book);
+            }
+        }
+        event.record("BookRepository.findAllByIsbns", null, result.size(), isbns.size());
+        return result;
+    }
+
     @Override
     public List<Book> findByTitleIgnoreCase(String title) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
         String normalized = title == null ? "" : title.toLowerCase(Locale.ROOT);
         List<Book> result = new ArrayList<>();
+        int scanned = 0;
         for (Book book : booksByIsbn.values()) {
+            scanned++;
             if (book.getTitle().toLowerCase(Locale.ROOT).equals(normalized)) {
                 result.add(book);
             }
         }
+        event.record("BookRepository.findByTitleIgnoreCase", title, result.size(), scanned);
         return result;
     }
 
     @Override
     public List<Book> searchByTitle(String keyword) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
         String lower = keyword == null ? "" : keyword.toLowerCase(Locale.ROOT);
         List<Book> result = new ArrayList<>();
+        int scanned = 0;
         for (Book book : booksByIsbn.values()) {
+            scanned++;
             if (book.getTitle().toLowerCase(Locale.ROOT).contains(lower)) {
                 result.add(book);
             }
         }
+        event.record("BookRepository.searchByTitle", keyword, result.size(), scanned);
+        return result;
+    }
+
+    @Override
+    public FacetedSearch facetedSearch(String keyword, String category) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
+        String lower = keyword == null ? "" : keyword.toLowerCase(Locale.ROOT);
+        FacetedSearch result;
+        int scanned;
+        categoryIndexLock.readLock().lock();
+        try {
+            result = categoryIndex.search(lower, category);
+            scanned = categoryIndex.size();
+        } finally {
+            categoryIndexLock.readLock().unlock();
+        }
+        event.record("BookRepository.facetedSearch", keyword, result.books().size(), scanned);
+        return result;
+    }
+
+    /**
+     * Looks titles up in a q-gram index over normalized titles. The index is only touched when a book
+     * is added or its title changes, so stock updates stay lock-free. Matches are re-checked against the
+     * stored book, which discards entries left behind by racing title changes.
+     */
+    @Override
+    public List<TitleMatch> suggestByTitle(String title, int maxDistance, int limit) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
+        String query = BookRepository.normalizeTitle(title);
+        List<QGramIndex.Match> matches;
+        titleIndexLock.readLock().lock();
+        try {
+            matches = titleIndex.search(query, maxDistance);
+        } finally {
+            titleIndexLock.readLock().unlock();
+        }
+        List<TitleMatch> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (QGramIndex.Match match : matches) {
+            if (result.size() >= limit) {
+                break;
+            }
+            Book book = booksByIsbn.get(match.key());
+            if (book != null && BookRepository.normalizeTitle(book.getTitle()).equals(match.text())) {
+                result.add(new TitleMatch(book, match.distance()));
+            }
+        }
+        event.record("BookRepository.suggestByTitle", title, result.size(), matches.size());
         return result;
     }
 
+    /**
+     * Returns at most {@value CompletionIndex#CAPACITY} completions, read from the completion index in time
+     * proportional to the prefix length.
+     */
+    @Override
+    public List<Completion> complete(String prefix, int limit) {
+        CompletionIndex index = completionIndex();
+        completionIndexLock.readLock().lock();
+        try {
+            return index.complete(BookRepository.normalizeTitle(prefix), limit);
+        } finally {
+            completionIndexLock.readLock().unlock();
+        }
+    }
+
     @Override
     public void save(Book book) {
-        booksByIsbn.put(book.getIsbn(), book);
+        if (booksByIsbn.get(book.getIsbn()) == book) {
+            // Updated in place; title, author and category never change on an instance, but the copies
+            // held, which weight completions, may have.
+            CompletionIndex completions = completionIndex;
+            if (completions != null && !completions.isCurrent(book)) {
+                synchronized (sortIndexLock) {
+                    if (booksByIsbn.get(book.getIsbn()) == book) {
+                        updateCompletionIndex(completions, book, book);
+                    }
+                }
+            }
+            return;
+        }
+        Book previous;
+        synchronized (sortIndexLock) {
+            previous = booksByIsbn.put(book.getIsbn(), book);
+            updateSortIndexes(previous, book);
+            categoryIndexLock.writeLock().lock();
+            try {
+                categoryIndex.put(book);
+            } finally {
+                categoryIndexLock.writeLock().unlock();
+            }
+            CompletionIndex completions = completionIndex;
+            if (completions != null) {
+                updateCompletionIndex(completions, previous, book);
+            }
+        }
+        if (previous == null || !previous.getTitle().equals(book.getTitle())) {
+            titleIndexLock.writeLock().lock();
+            try {
+                titleIndex.put(book.getIsbn(), BookRepository.normalizeTitle(book.getTitle()));
+            } finally {
+                titleIndexLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Moves the book from the sort keys of the instance it replaces to its own in every built index.
+     * Callers hold {@link #sortIndexLock} around the primary put, so the indexes always point at the
+     * stored instance.
+     */
+    private void updateSortIndexes(Book previous, Book book) {
+        for (Map.Entry<SortField, NavigableMap<String, Book>> entry : sortIndexes.entrySet()) {
+            SortField field = entry.getKey();
+            NavigableMap<String, Book> index = entry.getValue();
+            String key = field.keyOf(book);
+            index.put(key, book);
+            if (previous != null) {
+                String previousKey = field.keyOf(previous);
+                if (!previousKey.equals(key)) {
+                    index.remove(previousKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Callers hold {@link #sortIndexLock}, which also orders updates against the index being built.
+     */
+    private void updateCompletionIndex(CompletionIndex completions, Book previous, Book book) {
+        completionIndexLock.writeLock().lock();
+        try {
+            completions.put(previous, book);
+        } finally {
+            completionIndexLock.writeLock().unlock();
+        }
+    }
+
+    private CompletionIndex completionIndex() {
+        CompletionIndex index = completionIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (sortIndexLock) {
+            if (completionIndex == null) {
+                CompletionIndex built = new CompletionIndex();
+                built.putAll(booksByIsbn.values());
+                completionIndex = built;
+            }
+            return completionIndex;
+        }
     }
 
     @Override
     public Collection<Book> findAll() {
         return List.copyOf(booksByIsbn.values());
     }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return booksByIsbn.values().stream();
+    }
+
+    @Override
+    public Page<Book> findPage(String pageToken, int limit) {
+        return Pages.slice(booksByIsbn, pageToken, limit);
+    }
+
+    /**
+     * Seeks the field's index to the page in O(log n) and reads only the page. Like {@link #streamAll()},
+     * a page is weakly consistent with concurrent saves.
+     */
+    @Override
+    public Page<Book> browse(SortField field, String from, String pageToken, int limit) {
+        return Pages.slice(sortIndex(field), SortField.lowerBound(from, pageToken), limit);
+    }
+
+    private NavigableMap<String, Book> sortIndex(SortField field) {
+        NavigableMap<String, Book> index = sortIndexes.get(field);
+        if (index != null) {
+            return index;
+        }
+        synchronized (sortIndexLock) {
+            return sortIndexes.computeIfAbsent(field, this::buildSortIndex);
+        }
+    }
+
+    /**
+     * Sorts the current books into a {@link TreeMap} and copies it with the skip list's sorted-map
+     * constructor, which links the levels in one linear pass instead of searching from the head for every
+     * insert. Runs under {@link #sortIndexLock}.
+     */
+    private NavigableMap<String, Book> buildSortIndex(SortField field) {
+        TreeMap<String, Book> sorted = new TreeMap<>();
+        for (Book book : booksByIsbn.values()) {
+            sorted.put(field.keyOf(book), book);
+        }
+        return new ConcurrentSkipListMap<>(sorted);
+    }
 }
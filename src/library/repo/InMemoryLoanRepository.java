@@ -1,57 +1,287 @@
 package library.repo;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 import library.domain.loan.Loan;
+import library.monitoring.RepositoryLookupEvent;
+import library.util.IntervalTree;
+import library.util.primitive.LongLongMap;
+import library.util.primitive.ObjectIntMap;
 
 /**
  * In-memory implementation of {@link LoanRepository}.
+ * <p>
+ * Active-loan counts per user and per ISBN are kept in primitive maps updated on every save, so quota
+ * checks are a single probe instead of a scan. Loans are mutable and saved as the same instance, so the
+ * repository remembers which loan ids it has counted as active rather than comparing with the previous
+ * value.
+ * <p>
+ * Loan periods are also indexed per ISBN and per user in {@link IntervalTree}s, so point-in-time queries
+ * ({@link #findByIsbnOn}, {@link #findByUserOn}) only touch the book's or user's own loans and, among
+ * those, only the ones that could overlap the date. These queries are rare, so the index is built on the
+ * first one and only then maintained, re-indexing each saved loan since its return date may have changed;
+ * until then saves and bulk loads pay nothing for it.
+ * <p>
+ * Queries that scan loans or resolve several keys are recorded as {@link RepositoryLookupEvent}s with the
+ * number of loans examined.
  */
 public class InMemoryLoanRepository implements LoanRepository {
-    private final Map<String, Loan> loansById = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Loan> loansById = new ConcurrentSkipListMap<>();
+    private final ObjectIntMap<String> counted = new ObjectIntMap<>();
+    private final ObjectIntMap<String> activeByUser = new ObjectIntMap<>();
+    private final ObjectIntMap<String> activeByIsbn = new ObjectIntMap<>();
+    private final LongLongMap activeByPair = new LongLongMap();
+    private final Map<String, IntervalTree<String, Loan>> periodsByIsbn = new HashMap<>();
+    private final Map<String, IntervalTree<String, Loan>> periodsByUser = new HashMap<>();
+    private final ReadWriteLock countersLock = new ReentrantReadWriteLock();
+    private boolean periodsIndexed;
 
     @Override
     public void save(Loan loan) {
-        loansById.put(loan.getLoanId(), loan);
+        countersLock.writeLock().lock();
+        try {
+            loansById.put(loan.getLoanId(), loan);
+            count(loan);
+            if (periodsIndexed) {
+                index(loan);
+            }
+        } finally {
+            countersLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Loan> loans) {
+        countersLock.writeLock().lock();
+        try {
+            for (Loan loan : loans) {
+                loansById.put(loan.getLoanId(), loan);
+                count(loan);
+                if (periodsIndexed) {
+                    index(loan);
+                }
+            }
+        } finally {
+            countersLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int countActiveByUser(String userId) {
+        countersLock.readLock().lock();
+        try {
+            return activeByUser.get(userId);
+        } finally {
+            countersLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countActiveByIsbn(String isbn) {
+        countersLock.readLock().lock();
+        try {
+            return activeByIsbn.get(isbn);
+        } finally {
+            countersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Answers from a counter keyed by the two hash codes; only a hash collision, or a loan actually being
+     * out, falls through to a scan.
+     */
+    @Override
+    public boolean hasActiveLoan(String userId, String isbn) {
+        countersLock.readLock().lock();
+        try {
+            if (activeByPair.get(pairKey(userId, isbn)) == 0) {
+                return false;
+            }
+        } finally {
+            countersLock.readLock().unlock();
+        }
+        return findActiveByUserAndIsbn(userId, isbn).isPresent();
     }
 
     @Override
     public Optional<Loan> findActiveByUserAndIsbn(String userId, String isbn) {
-        return loansById.values().stream()
-                .filter(loan -> loan.getUserId().equals(userId))
-                .filter(loan -> loan.getIsbn().equals(isbn))
-                .filter(loan -> loan.getReturnedAt() == null)
-                .findFirst();
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
+        Loan found = null;
+        int scanned = 0;
+        for (Loan loan : loansById.values()) {
+            scanned++;
+            if (loan.getUserId().equals(userId) && loan.getIsbn().equals(isbn) && loan.getReturnedAt() == null) {
+                found = loan;
+                break;
+            }
+        }
+        event.record("LoanRepository.findActiveByUserAndIsbn", userId, isbn, found == null ? 0 : 1, scanned);
+        return Optional.ofNullable(found);
     }
 
     @Override
     public List<Loan> findActiveByUser(String userId) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
         List<Loan> result = new ArrayList<>();
+        int scanned = 0;
         for (Loan loan : loansById.values()) {
+            scanned++;
             if (loan.getUserId().equals(userId) && loan.getReturnedAt() == null) {
                 result.add(loan);
             }
         }
+        event.record("LoanRepository.findActiveByUser", userId, result.size(), scanned);
         return result;
     }
 
     @Override
     public List<Loan> findActive() {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
         List<Loan> result = new ArrayList<>();
+        int scanned = 0;
         for (Loan loan : loansById.values()) {
+            scanned++;
             if (loan.getReturnedAt() == null) {
                 result.add(loan);
             }
         }
+        event.record("LoanRepository.findActive", null, result.size(), scanned);
         return result;
     }
 
+    @Override
+    public List<Loan> findByIsbnOn(String isbn, LocalDate date) {
+        return stab("LoanRepository.findByIsbnOn", periodsByIsbn, isbn, date);
+    }
+
+    @Override
+    public List<Loan> findByUserOn(String userId, LocalDate date) {
+        return stab("LoanRepository.findByUserOn", periodsByUser, userId, date);
+    }
+
     @Override
     public List<Loan> findAll() {
         return new ArrayList<>(loansById.values());
     }
+
+    @Override
+    public Stream<Loan> streamAll() {
+        return loansById.values().stream();
+    }
+
+    @Override
+    public Page<Loan> findPage(String pageToken, int limit) {
+        return Pages.slice(loansById, pageToken, limit);
+    }
+
+    private void count(Loan loan) {
+        boolean active = loan.getReturnedAt() == null;
+        if (active == counted.containsKey(loan.getLoanId())) {
+            return;
+        }
+        int delta;
+        if (active) {
+            counted.put(loan.getLoanId(), 1);
+            delta = 1;
+        } else {
+            counted.remove(loan.getLoanId());
+            delta = -1;
+        }
+        adjust(activeByUser, loan.getUserId(), delta);
+        adjust(activeByIsbn, loan.getIsbn(), delta);
+        long pair = pairKey(loan.getUserId(), loan.getIsbn());
+        if (activeByPair.addTo(pair, delta) == 0) {
+            activeByPair.remove(pair);
+        }
+    }
+
+    private void indexPeriods() {
+        countersLock.readLock().lock();
+        try {
+            if (periodsIndexed) {
+                return;
+            }
+        } finally {
+            countersLock.readLock().unlock();
+        }
+        countersLock.writeLock().lock();
+        try {
+            if (!periodsIndexed) {
+                for (Loan loan : loansById.values()) {
+                    index(loan);
+                }
+                periodsIndexed = true;
+            }
+        } finally {
+            countersLock.writeLock().unlock();
+        }
+    }
+
+    private void index(Loan loan) {
+        long start = periodStart(loan);
+        long end = periodEnd(loan);
+        periodsByIsbn.computeIfAbsent(loan.getIsbn(), isbn -> new IntervalTree<>())
+                .put(start, end, loan.getLoanId(), loan);
+        periodsByUser.computeIfAbsent(loan.getUserId(), userId -> new IntervalTree<>())
+                .put(start, end, loan.getLoanId(), loan);
+    }
+
+    private static long periodStart(Loan loan) {
+        return loan.getLoanDate().toEpochDay();
+    }
+
+    private static long periodEnd(Loan loan) {
+        return loan.getReturnedAt() == null
+                ? Long.MAX_VALUE
+                : Math.max(periodStart(loan), loan.getReturnedAt().toEpochDay());
+    }
+
+    /**
+     * Answers a point-in-time query from one key's tree. The lookup event counts every loan of that key as
+     * scanned, the set the index narrows the query to.
+     */
+    private List<Loan> stab(String operation, Map<String, IntervalTree<String, Loan>> periods, String key,
+            LocalDate date) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
+        indexPeriods();
+        List<Loan> result = new ArrayList<>();
+        int scanned = 0;
+        countersLock.readLock().lock();
+        try {
+            IntervalTree<String, Loan> tree = periods.get(key);
+            if (tree != null) {
+                tree.stab(date.toEpochDay(), result::add);
+                scanned = tree.size();
+            }
+        } finally {
+            countersLock.readLock().unlock();
+        }
+        event.record(operation, key, result.size(), scanned);
+        return result;
+    }
+
+    private static void adjust(ObjectIntMap<String> counts, String key, int delta) {
+        if (counts.addTo(key, delta) == 0) {
+            counts.remove(key);
+        }
+    }
+
+    private static long pairKey(String userId, String isbn) {
+        return ((long) userId.hashCode() << 32) | (isbn.hashCode() & 0xffffffffL);
+    }
 }
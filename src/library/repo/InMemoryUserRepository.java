@@ -1,23 +1,42 @@
 package library.repo;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
 
 import library.domain.user.User;
+import library.monitoring.RepositoryLookupEvent;
 
 /**
  * In-memory implementation of {@link UserRepository}.
  */
 public class InMemoryUserRepository implements UserRepository {
-    private final Map<String, User> usersById = new ConcurrentHashMap<>();
+    private final NavigableMap<String, User> usersById = new ConcurrentSkipListMap<>();
 
     @Override
     public Optional<User> findById(String id) {
         return Optional.ofNullable(usersById.get(id));
     }
 
+    @Override
+    public Map<String, User> findAllByIds(Collection<String> ids) {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.begin();
+        Map<String, User> result = new HashMap<>(Math.max(16, ids.size() * 2));
+        for (String id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+                result.put(id, user);
+            }
+        }
+        event.record("UserRepository.findAllByIds", null, result.size(), ids.size());
+        return result;
+    }
+
     @Override
     public void save(User user) {
         usersById.put(user.getId(), user);
@@ -27,4 +46,14 @@ public class InMemoryUserRepository implements UserRepository {
     public Collection<User> findAll() {
         return usersById.values();
     }
+
+    @Override
+    public Stream<User> streamAll() {
+        return usersById.values().stream();
+    }
+
+    @Override
+    public Page<User> findPage(String pageToken, int limit) {
+        return Pages.slice(usersById, pageToken, limit);
+    }
 }
@@ -1,7 +1,11 @@
 package library.repo;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import library.domain.loan.Loan;
 
@@ -11,11 +15,93 @@ import library.domain.loan.Loan;
 public interface LoanRepository {
     void save(Loan loan);
 
+    /**
+     * Saves several loans as one batch. Stores with per-call overhead should override this.
+     *
+     * @param loans loans to save
+     */
+    default void saveAll(Collection<Loan> loans) {
+        for (Loan loan : loans) {
+            save(loan);
+        }
+    }
+
     Optional<Loan> findActiveByUserAndIsbn(String userId, String isbn);
 
     List<Loan> findActiveByUser(String userId);
 
+    /**
+     * @param userId user id
+     * @return number of loans the user has not returned
+     */
+    default int countActiveByUser(String userId) {
+        return findActiveByUser(userId).size();
+    }
+
+    /**
+     * @param isbn ISBN
+     * @return number of copies of the book currently on loan
+     */
+    default int countActiveByIsbn(String isbn) {
+        return (int) streamAll()
+                .filter(loan -> loan.getReturnedAt() == null && loan.getIsbn().equals(isbn))
+                .count();
+    }
+
+    /**
+     * @param userId user id
+     * @param isbn   ISBN
+     * @return whether the user currently has the book on loan
+     */
+    default boolean hasActiveLoan(String userId, String isbn) {
+        return findActiveByUserAndIsbn(userId, isbn).isPresent();
+    }
+
     List<Loan> findActive();
 
+    /**
+     * Finds who had a book on a date, for example to settle a lost-item dispute. See
+     * {@link Loan#isOutOn(LocalDate)}; both the loan and the return day count.
+     *
+     * @param isbn ISBN
+     * @param date date to look up
+     * @return loans of the book out on that date, ordered by loan date and then loan id
+     */
+    default List<Loan> findByIsbnOn(String isbn, LocalDate date) {
+        return streamAll()
+                .filter(loan -> loan.getIsbn().equals(isbn) && loan.isOutOn(date))
+                .sorted(Comparator.comparing(Loan::getLoanDate).thenComparing(Loan::getLoanId))
+                .toList();
+    }
+
+    /**
+     * Finds what a user had on a date. See {@link Loan#isOutOn(LocalDate)}.
+     *
+     * @param userId user id
+     * @param date   date to look up
+     * @return the user's loans out on that date, ordered by loan date and then loan id
+     */
+    default List<Loan> findByUserOn(String userId, LocalDate date) {
+        return streamAll()
+                .filter(loan -> loan.getUserId().equals(userId) && loan.isOutOn(date))
+                .sorted(Comparator.comparing(Loan::getLoanDate).thenComparing(Loan::getLoanId))
+                .toList();
+    }
+
     List<Loan> findAll();
+
+    /**
+     * Streams every loan ordered by loan id without copying the store. The stream is
+     * weakly consistent with respect to concurrent saves.
+     */
+    Stream<Loan> streamAll();
+
+    /**
+     * Reads one page of loans ordered by loan id.
+     *
+     * @param pageToken token from the previous page, or {@code null} for the first page
+     * @param limit     maximum number of records to return
+     * @return page of records
+     */
+    Page<Loan> findPage(String pageToken, int limit);
 }
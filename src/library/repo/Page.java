@@ -0,0 +1,25 @@
+package library.repo;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of a keyed, ordered scan over a repository.
+ *
+ * @param items     records on this page, in key order
+ * @param nextToken opaque token to pass back for the following page, or {@code null} on the last page
+ * @param <T>       record type
+ */
+public record Page<T>(List<T> items, String nextToken) {
+
+    public Page {
+        items = List.copyOf(Objects.requireNonNull(items, "items"));
+    }
+
+    /**
+     * @return {@code true} if another page may follow
+     */
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,35 @@
+package library.repo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Helpers for cursor-based paging over key-ordered in-memory stores.
+ */
+final class Pages {
+    private Pages() {
+    }
+
+    /**
+     * Reads the entries following {@code pageToken} in key order. The token is the last key of the
+     * previous page, so a page is resumed in O(log n) regardless of how far into the store it is.
+     */
+    static <T> Page<T> slice(NavigableMap<String, T> store, String pageToken, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        NavigableMap<String, T> tail = pageToken == null ? store : store.tailMap(pageToken, false);
+        List<T> items = new ArrayList<>(Math.min(limit, 64));
+        String lastKey = null;
+        for (Map.Entry<String, T> entry : tail.entrySet()) {
+            if (items.size() == limit) {
+                return new Page<>(items, lastKey);
+            }
+            items.add(entry.getValue());
+            lastKey = entry.getKey();
+        }
+        return new Page<>(items, null);
+    }
+}
@@ -0,0 +1,18 @@
+package library.repo;
+
+/**
+ * Read-only, point-in-time view over the book and loan repositories used by reports.
+ * Writes through the returned repositories are rejected.
+ */
+public interface RepositorySnapshot extends AutoCloseable {
+
+    BookRepository books();
+
+    LoanRepository loans();
+
+    /**
+     * Releases the snapshot so that the versions it pins can be reclaimed.
+     */
+    @Override
+    void close();
+}
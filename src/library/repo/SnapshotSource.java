@@ -0,0 +1,39 @@
+package library.repo;
+
+import java.util.Objects;
+
+/**
+ * Opens {@link RepositorySnapshot}s for long-running reads.
+ */
+public interface SnapshotSource {
+
+    RepositorySnapshot openSnapshot();
+
+    /**
+     * Returns a source whose "snapshots" read the live repositories directly. Suitable for stores that
+     * do not keep versions; reports then see concurrent writes as they happen.
+     *
+     * @param bookRepository live book repository
+     * @param loanRepository live loan repository
+     * @return pass-through snapshot source
+     */
+    static SnapshotSource live(BookRepository bookRepository, LoanRepository loanRepository) {
+        Objects.requireNonNull(bookRepository, "bookRepository");
+        Objects.requireNonNull(loanRepository, "loanRepository");
+        return () -> new RepositorySnapshot() {
+            @Override
+            public BookRepository books() {
+                return bookRepository;
+            }
+
+            @Override
+            public LoanRepository loans() {
+                return loanRepository;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
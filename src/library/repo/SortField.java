@@ -0,0 +1,72 @@
+package library.repo;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+import library.domain.book.Book;
+import library.exception.ValidationException;
+
+/**
+ * Book attribute the catalog can be browsed by.
+ * <p>
+ * Books are ordered by a sort key made of the attribute, normalized like titles (see
+ * {@link BookRepository#normalizeTitle(String)}), followed by the ISBN. The ISBN makes every key unique,
+ * so books sharing a title keep a stable order and a page token, which is the last key of a page, resumes
+ * exactly after it.
+ */
+public enum SortField {
+    TITLE(Book::getTitle),
+    AUTHOR(Book::getAuthor),
+    CATEGORY(Book::getCategory);
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final Function<Book, String> attribute;
+
+    SortField(Function<Book, String> attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return the book's value of this attribute, as stored
+     */
+    public String attributeOf(Book book) {
+        return attribute.apply(book);
+    }
+
+    /**
+     * @return sort key of the book for this field
+     */
+    public String keyOf(Book book) {
+        return BookRepository.normalizeTitle(attribute.apply(book)) + SEPARATOR + book.getIsbn();
+    }
+
+    /**
+     * Turns a browse position into the exclusive lower bound of the first page: the page token if one is
+     * given, otherwise a bound just before every book whose attribute is at least {@code from}.
+     *
+     * @param from      attribute value to start at, ignoring case, or {@code null} for the beginning
+     * @param pageToken token from the previous page, or {@code null}
+     * @return exclusive lower bound, or {@code null} for the beginning
+     */
+    static String lowerBound(String from, String pageToken) {
+        if (pageToken != null) {
+            return pageToken;
+        }
+        return from == null ? null : BookRepository.normalizeTitle(from);
+    }
+
+    /**
+     * Parses a field name as typed on the console.
+     *
+     * @param value field name, case-insensitive
+     * @return field
+     */
+    public static SortField parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("정렬 기준은 title, author, category 중 하나입니다");
+        }
+    }
+}
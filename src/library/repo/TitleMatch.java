@@ -0,0 +1,25 @@
+package library.repo;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+import library.domain.book.Book;
+
+/**
+ * Book whose title approximately matches a query.
+ *
+ * @param book     matching book
+ * @param distance edit distance between the normalized query and the book's normalized title
+ */
+public record TitleMatch(Book book, int distance) {
+    /**
+     * Orders matches by distance, then title and ISBN.
+     */
+    public static final Comparator<TitleMatch> RANKING = Comparator.comparingInt(TitleMatch::distance)
+            .thenComparing(match -> match.book().getTitle())
+            .thenComparing(match -> match.book().getIsbn());
+
+    public TitleMatch {
+        Objects.requireNonNull(book, "book");
+    }
+}
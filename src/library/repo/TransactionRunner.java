@@ -0,0 +1,40 @@
+package library.repo;
+
+import java.util.function.Supplier;
+
+/**
+ * Groups several repository writes so that they become visible to readers as one unit.
+ */
+public interface TransactionRunner {
+
+    /**
+     * Runs the work as a single transaction. Nested calls join the outer transaction.
+     *
+     * @param work unit of work
+     * @param <T>  result type
+     * @return value produced by the work
+     */
+    <T> T inTransaction(Supplier<T> work);
+
+    /**
+     * @return runner that simply executes the work, for stores without transactional visibility
+     */
+    static TransactionRunner direct() {
+        return Direct.INSTANCE;
+    }
+
+    /**
+     * Pass-through runner.
+     */
+    final class Direct implements TransactionRunner {
+        private static final Direct INSTANCE = new Direct();
+
+        private Direct() {
+        }
+
+        @Override
+        public <T> T inTransaction(Supplier<T> work) {
+            return work.get();
+        }
+    }
+}
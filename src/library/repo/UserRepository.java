@@ -1,7 +1,10 @@
 package library.repo;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import library.domain.user.User;
 
@@ -11,7 +14,37 @@ import library.domain.user.User;
 public interface UserRepository {
     Optional<User> findById(String id);
 
+    /**
+     * Resolves several users at once. Ids that do not exist are absent from the result.
+     * Implementations backed by a remote store should override this to fetch in one round-trip.
+     *
+     * @param ids user ids to resolve
+     * @return users keyed by id
+     */
+    default Map<String, User> findAllByIds(Collection<String> ids) {
+        Map<String, User> result = new HashMap<>();
+        for (String id : ids) {
+            findById(id).ifPresent(user -> result.put(id, user));
+        }
+        return result;
+    }
+
     void save(User user);
 
     Collection<User> findAll();
+
+    /**
+     * Streams every user ordered by user id without copying the store. The stream is
+     * weakly consistent with respect to concurrent saves.
+     */
+    Stream<User> streamAll();
+
+    /**
+     * Reads one page of users ordered by user id.
+     *
+     * @param pageToken token from the previous page, or {@code null} for the first page
+     * @param limit     maximum number of records to return
+     * @return page of records
+     */
+    Page<User> findPage(String pageToken, int limit);
 }
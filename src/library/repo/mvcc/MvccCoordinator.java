@@ -0,0 +1,116 @@
+package library.repo.mvcc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import library.repo.TransactionRunner;
+
+/**
+ * Global commit counter and snapshot registry shared by the versioned repositories.
+ * <p>
+ * Writers are serialized by a single lock and each transaction publishes one commit number once all of
+ * its versions are installed. Readers never take the lock: a snapshot records the last published
+ * commit and filters versions by it. Superseded versions are pruned as soon as no open snapshot can
+ * see them, either right after the writing commit or when the pinning snapshot is closed.
+ */
+public final class MvccCoordinator implements TransactionRunner {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final TreeMap<Long, Integer> openSnapshots = new TreeMap<>();
+    private final Queue<VersionChain<?>> retained = new ConcurrentLinkedQueue<>();
+    private final List<VersionChain<?>> touched = new ArrayList<>();
+    private volatile long stable;
+    private long pending;
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) {
+        writeLock.lock();
+        try {
+            if (writeLock.getHoldCount() > 1) {
+                return work.get();
+            }
+            pending = stable + 1;
+            try {
+                return work.get();
+            } finally {
+                stable = pending;
+                pending = 0;
+                long horizon = horizon();
+                for (VersionChain<?> chain : touched) {
+                    pruneOrRetain(chain, horizon);
+                }
+                touched.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Opens a snapshot at the last published commit. The caller must close it.
+     *
+     * @return snapshot handle
+     */
+    public MvccSnapshot openSnapshot() {
+        synchronized (openSnapshots) {
+            long version = stable;
+            openSnapshots.merge(version, 1, Integer::sum);
+            return new MvccSnapshot(this, version);
+        }
+    }
+
+    /**
+     * @return last published commit number
+     */
+    public long lastCommitted() {
+        return stable;
+    }
+
+    /**
+     * Installs a new version of a record as part of the current transaction.
+     */
+    <T> void install(VersionChain<T> chain, T value) {
+        if (!writeLock.isHeldByCurrentThread()) {
+            inTransaction(() -> {
+                install(chain, value);
+                return null;
+            });
+            return;
+        }
+        chain.install(pending, value);
+        touched.add(chain);
+    }
+
+    void release(long version) {
+        synchronized (openSnapshots) {
+            openSnapshots.computeIfPresent(version, (v, count) -> count == 1 ? null : count - 1);
+        }
+        long horizon = horizon();
+        for (int i = retained.size(); i > 0; i--) {
+            VersionChain<?> chain = retained.poll();
+            if (chain == null) {
+                break;
+            }
+            chain.queuedForReclaim().set(false);
+            pruneOrRetain(chain, horizon);
+        }
+    }
+
+    private void pruneOrRetain(VersionChain<?> chain, long horizon) {
+        if (chain.prune(horizon) && chain.queuedForReclaim().compareAndSet(false, true)) {
+            retained.add(chain);
+        }
+    }
+
+    private long horizon() {
+        synchronized (openSnapshots) {
+            Map.Entry<Long, Integer> oldest = openSnapshots.firstEntry();
+            return oldest == null ? stable : Math.min(oldest.getKey(), stable);
+        }
+    }
+}
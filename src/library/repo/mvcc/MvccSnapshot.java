@@ -0,0 +1,28 @@
+package library.repo.mvcc;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle pinning a commit number; reads through it see exactly the commits up to {@link #version()}.
+ */
+public final class MvccSnapshot implements AutoCloseable {
+    private final MvccCoordinator coordinator;
+    private final long version;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    MvccSnapshot(MvccCoordinator coordinator, long version) {
+        this.coordinator = coordinator;
+        this.version = version;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            coordinator.release(version);
+        }
+    }
+}
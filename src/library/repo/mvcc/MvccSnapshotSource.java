@@ -0,0 +1,49 @@
+package library.repo.mvcc;
+
+import java.util.Objects;
+
+import library.repo.BookRepository;
+import library.repo.LoanRepository;
+import library.repo.RepositorySnapshot;
+import library.repo.SnapshotSource;
+
+/**
+ * Opens consistent point-in-time snapshots over versioned book and loan repositories.
+ */
+public class MvccSnapshotSource implements SnapshotSource {
+    private final MvccCoordinator coordinator;
+    private final VersionedBookRepository bookRepository;
+    private final VersionedLoanRepository loanRepository;
+
+    public MvccSnapshotSource(
+            MvccCoordinator coordinator,
+            VersionedBookRepository bookRepository,
+            VersionedLoanRepository loanRepository) {
+        this.coordinator = Objects.requireNonNull(coordinator, "coordinator");
+        this.bookRepository = Objects.requireNonNull(bookRepository, "bookRepository");
+        this.loanRepository = Objects.requireNonNull(loanRepository, "loanRepository");
+    }
+
+    @Override
+    public RepositorySnapshot openSnapshot() {
+        MvccSnapshot snapshot = coordinator.openSnapshot();
+        BookRepository books = bookRepository.at(snapshot);
+        LoanRepository loans = loanRepository.at(snapshot);
+        return new RepositorySnapshot() {
+            @Override
+            public BookRepository books() {
+                return books;
+            }
+
+            @Override
+            public LoanRepository loans() {
+                return loans;
+            }
+
+            @Override
+            public void close() {
+                snapshot.close();
+            }
+        };
+    }
+}
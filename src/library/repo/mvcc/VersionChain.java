@@ -0,0 +1,88 @@
+package library.repo.mvcc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import library.repo.Page;
+
+/**
+ * Newest-first list of immutable versions of one record.
+ *
+ * @param <T> record type
+ */
+final class VersionChain<T> {
+    private volatile Version<T> head;
+    private final AtomicBoolean queuedForReclaim = new AtomicBoolean();
+
+    void install(long commit, T value) {
+        head = new Version<>(commit, value, head);
+    }
+
+    /**
+     * @return newest value committed at or before {@code version}, or {@code null} if none existed yet
+     */
+    T visibleAt(long version) {
+        for (Version<T> v = head; v != null; v = v.prev) {
+            if (v.commit <= version) {
+                return v.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops every version older than the newest one visible at {@code horizon}.
+     *
+     * @return {@code true} if versions newer than the horizon remain and a later pass may reclaim more
+     */
+    boolean prune(long horizon) {
+        Version<T> first = head;
+        for (Version<T> v = first; v != null; v = v.prev) {
+            if (v.commit <= horizon) {
+                v.prev = null;
+                return v != first;
+            }
+        }
+        return first != null && first.prev != null;
+    }
+
+    AtomicBoolean queuedForReclaim() {
+        return queuedForReclaim;
+    }
+
+    static <T> Page<T> page(NavigableMap<String, VersionChain<T>> chains, long version, String pageToken, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        NavigableMap<String, VersionChain<T>> tail = pageToken == null ? chains : chains.tailMap(pageToken, false);
+        List<T> items = new ArrayList<>(Math.min(limit, 64));
+        String lastKey = null;
+        for (Map.Entry<String, VersionChain<T>> entry : tail.entrySet()) {
+            T value = entry.getValue().visibleAt(version);
+            if (value == null) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new Page<>(items, lastKey);
+            }
+            items.add(value);
+            lastKey = entry.getKey();
+        }
+        return new Page<>(items, null);
+    }
+
+    private static final class Version<T> {
+        private final long commit;
+        private final T value;
+        private volatile Version<T> prev;
+
+        private Version(long commit, T value, Version<T> prev) {
+            this.commit = commit;
+            this.value = value;
+            this.prev = prev;
+        }
+    }
+}
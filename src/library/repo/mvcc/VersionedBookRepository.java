@@ -0,0 +1,168 @@
+package library.repo.mvcc;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import library.domain.book.Book;
+import library.repo.BookRepository;
+import library.repo.Completion;
+import library.repo.FacetedSearch;
+import library.repo.Page;
+import library.repo.SortField;
+import library.repo.TitleMatch;
+
+/**
+ * {@link BookRepository} that keeps an immutable copy of every saved book version so that snapshots can
+ * read a consistent point-in-time catalog. Live reads and writes go to the delegate, which must not be
+ * written to directly.
+ */
+public class VersionedBookRepository implements BookRepository {
+    private final BookRepository delegate;
+    private final MvccCoordinator coordinator;
+    private final NavigableMap<String, VersionChain<Book>> chains = new ConcurrentSkipListMap<>();
+
+    public VersionedBookRepository(BookRepository delegate, MvccCoordinator coordinator) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.coordinator = Objects.requireNonNull(coordinator, "coordinator");
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public Map<String, Book> findAllByIsbns(Collection<String> isbns) {
+        return delegate.findAllByIsbns(isbns);
+    }
+
+    @Override
+    public List<Book> findByTitleIgnoreCase(String title) {
+        return delegate.findByTitleIgnoreCase(title);
+    }
+
+    @Override
+    public List<Book> searchByTitle(String keyword) {
+        return delegate.searchByTitle(keyword);
+    }
+
+    @Override
+    public FacetedSearch facetedSearch(String keyword, String category) {
+        return delegate.facetedSearch(keyword, category);
+    }
+
+    @Override
+    public List<TitleMatch> suggestByTitle(String title, int maxDistance, int limit) {
+        return delegate.suggestByTitle(title, maxDistance, limit);
+    }
+
+    @Override
+    public List<Completion> complete(String prefix, int limit) {
+        return delegate.complete(prefix, limit);
+    }
+
+    @Override
+    public void save(Book book) {
+        coordinator.inTransaction(() -> {
+            delegate.save(book);
+            VersionChain<Book> chain = chains.computeIfAbsent(book.getIsbn(), isbn -> new VersionChain<>());
+            coordinator.install(chain, copyOf(book));
+            return null;
+        });
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<Book> findPage(String pageToken, int limit) {
+        return delegate.findPage(pageToken, limit);
+    }
+
+    @Override
+    public Page<Book> browse(SortField field, String from, String pageToken, int limit) {
+        return delegate.browse(field, from, pageToken, limit);
+    }
+
+    /**
+     * Returns a read-only view of the catalog as of the snapshot. Books returned by the view are private
+     * copies and must not be mutated.
+     *
+     * @param snapshot open snapshot
+     * @return point-in-time repository view
+     */
+    public BookRepository at(MvccSnapshot snapshot) {
+        return new SnapshotView(snapshot.version());
+    }
+
+    private static Book copyOf(Book book) {
+        return new Book(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getCategory(),
+                book.getTotal(), book.getAvailable());
+    }
+
+    private final class SnapshotView implements BookRepository {
+        private final long version;
+
+        private SnapshotView(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public Optional<Book> findByIsbn(String isbn) {
+            VersionChain<Book> chain = chains.get(isbn);
+            return chain == null ? Optional.empty() : Optional.ofNullable(chain.visibleAt(version));
+        }
+
+        @Override
+        public List<Book> findByTitleIgnoreCase(String title) {
+            String normalized = title == null ? "" : title.toLowerCase(Locale.ROOT);
+            return streamAll()
+                    .filter(book -> book.getTitle().toLowerCase(Locale.ROOT).equals(normalized))
+                    .toList();
+        }
+
+        @Override
+        public List<Book> searchByTitle(String keyword) {
+            String lower = keyword == null ? "" : keyword.toLowerCase(Locale.ROOT);
+            return streamAll()
+                    .filter(book -> book.getTitle().toLowerCase(Locale.ROOT).contains(lower))
+                    .toList();
+        }
+
+        @Override
+        public void save(Book book) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        @Override
+        public Collection<Book> findAll() {
+            return streamAll().toList();
+        }
+
+        @Override
+        public Stream<Book> streamAll() {
+            return chains.values().stream()
+                    .map(chain -> chain.visibleAt(version))
+                    .filter(Objects::nonNull);
+        }
+
+        @Override
+        public Page<Book> findPage(String pageToken, int limit) {
+            return VersionChain.page(chains, version, pageToken, limit);
+        }
+    }
+}
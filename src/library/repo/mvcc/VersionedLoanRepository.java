@@ -0,0 +1,173 @@
+package library.repo.mvcc;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import library.domain.loan.Loan;
+import library.repo.LoanRepository;
+import library.repo.Page;
+
+/**
+ * {@link LoanRepository} that keeps an immutable copy of every saved loan version so that snapshots can
+ * read a consistent point-in-time loan history. Live reads and writes go to the delegate, which must not
+ * be written to directly.
+ */
+public class VersionedLoanRepository implements LoanRepository {
+    private final LoanRepository delegate;
+    private final MvccCoordinator coordinator;
+    private final NavigableMap<String, VersionChain<Loan>> chains = new ConcurrentSkipListMap<>();
+
+    public VersionedLoanRepository(LoanRepository delegate, MvccCoordinator coordinator) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.coordinator = Objects.requireNonNull(coordinator, "coordinator");
+    }
+
+    @Override
+    public void save(Loan loan) {
+        coordinator.inTransaction(() -> {
+            delegate.save(loan);
+            VersionChain<Loan> chain = chains.computeIfAbsent(loan.getLoanId(), id -> new VersionChain<>());
+            coordinator.install(chain, copyOf(loan));
+            return null;
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<Loan> loans) {
+        coordinator.inTransaction(() -> {
+            delegate.saveAll(loans);
+            for (Loan loan : loans) {
+                VersionChain<Loan> chain = chains.computeIfAbsent(loan.getLoanId(), id -> new VersionChain<>());
+                coordinator.install(chain, copyOf(loan));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Loan> findActiveByUserAndIsbn(String userId, String isbn) {
+        return delegate.findActiveByUserAndIsbn(userId, isbn);
+    }
+
+    @Override
+    public List<Loan> findActiveByUser(String userId) {
+        return delegate.findActiveByUser(userId);
+    }
+
+    @Override
+    public int countActiveByUser(String userId) {
+        return delegate.countActiveByUser(userId);
+    }
+
+    @Override
+    public int countActiveByIsbn(String isbn) {
+        return delegate.countActiveByIsbn(isbn);
+    }
+
+    @Override
+    public boolean hasActiveLoan(String userId, String isbn) {
+        return delegate.hasActiveLoan(userId, isbn);
+    }
+
+    @Override
+    public List<Loan> findActive() {
+        return delegate.findActive();
+    }
+
+    @Override
+    public List<Loan> findByIsbnOn(String isbn, LocalDate date) {
+        return delegate.findByIsbnOn(isbn, date);
+    }
+
+    @Override
+    public List<Loan> findByUserOn(String userId, LocalDate date) {
+        return delegate.findByUserOn(userId, date);
+    }
+
+    @Override
+    public List<Loan> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Loan> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<Loan> findPage(String pageToken, int limit) {
+        return delegate.findPage(pageToken, limit);
+    }
+
+    /**
+     * Returns a read-only view of the loans as of the snapshot. Loans returned by the view are private
+     * copies and must not be mutated.
+     *
+     * @param snapshot open snapshot
+     * @return point-in-time repository view
+     */
+    public LoanRepository at(MvccSnapshot snapshot) {
+        return new SnapshotView(snapshot.version());
+    }
+
+    private static Loan copyOf(Loan loan) {
+        return new Loan(loan.getLoanId(), loan.getUserId(), loan.getIsbn(), loan.getLoanDate(),
+                loan.getDueDate(), loan.getReturnedAt());
+    }
+
+    private final class SnapshotView implements LoanRepository {
+        private final long version;
+
+        private SnapshotView(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public void save(Loan loan) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        @Override
+        public Optional<Loan> findActiveByUserAndIsbn(String userId, String isbn) {
+            return streamAll()
+                    .filter(loan -> !loan.isReturned())
+                    .filter(loan -> loan.getUserId().equals(userId) && loan.getIsbn().equals(isbn))
+                    .findFirst();
+        }
+
+        @Override
+        public List<Loan> findActiveByUser(String userId) {
+            return streamAll()
+                    .filter(loan -> !loan.isReturned() && loan.getUserId().equals(userId))
+                    .toList();
+        }
+
+        @Override
+        public List<Loan> findActive() {
+            return streamAll().filter(loan -> !loan.isReturned()).toList();
+        }
+
+        @Override
+        public List<Loan> findAll() {
+            return streamAll().toList();
+        }
+
+        @Override
+        public Stream<Loan> streamAll() {
+            return chains.values().stream()
+                    .map(chain -> chain.visibleAt(version))
+                    .filter(Objects::nonNull);
+        }
+
+        @Override
+        public Page<Loan> findPage(String pageToken, int limit) {
+            return VersionChain.page(chains, version, pageToken, limit);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package library.repo.shard;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import library.exception.ValidationException;
+
+/**
+ * Decides which branch shard owns the copies of a book. Books assigned to a branch stay there; all others
+ * are spread by ISBN hash. Loans are routed by ISBN as well so that a loan always lives in the same shard
+ * as the copy it refers to.
+ * <p>
+ * Assignments are fixed when the router is created, before any book is saved, so a book can never be
+ * reassigned after its copies were stored in another shard. They are usually read with {@link #load}
+ * from a file with one {@code <isbn> <branch>} pair per line ({@code #} starts a comment), branches
+ * numbered from 0.
+ */
+public class BranchRouter {
+    private final int branchCount;
+    private final Map<String, Integer> assignments;
+
+    public BranchRouter(int branchCount) {
+        this(branchCount, Map.of());
+    }
+
+    /**
+     * Creates a router.
+     *
+     * @param branchCount number of branches
+     * @param assignments branch index in {@code [0, branchCount)} by ISBN
+     */
+    public BranchRouter(int branchCount, Map<String, Integer> assignments) {
+        if (branchCount <= 0) {
+            throw new IllegalArgumentException("branchCount must be positive");
+        }
+        assignments.forEach((isbn, branch) -> {
+            if (branch < 0 || branch >= branchCount) {
+                throw new IllegalArgumentException("branch out of range for " + isbn + ": " + branch);
+            }
+        });
+        this.branchCount = branchCount;
+        this.assignments = Map.copyOf(assignments);
+    }
+
+    /**
+     * Reads branch assignments from a file.
+     *
+     * @param file        assignment file
+     * @param branchCount number of branches
+     * @return router placing the listed books in their branches
+     * @throws ValidationException if the file cannot be read, a line is malformed, a branch is out of range
+     *                             or an ISBN is assigned twice
+     */
+    public static BranchRouter load(Path file, int branchCount) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ValidationException("지점 배정 파일을 읽을 수 없습니다: " + file);
+        }
+        Map<String, Integer> assignments = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int hash = line.indexOf('#');
+            line = (hash >= 0 ? line.substring(0, hash) : line).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int lineNumber = i + 1;
+            String[] f = line.split("\\s+");
+            if (f.length != 2) {
+                throw new ValidationException(lineNumber + "행: 항목 수가 올바르지 않습니다");
+            }
+            int branch;
+            try {
+                branch = Integer.parseInt(f[1]);
+            } catch (NumberFormatException e) {
+                branch = -1;
+            }
+            if (branch < 0 || branch >= branchCount) {
+                throw new ValidationException(lineNumber + "행: 지점 번호는 0부터 " + (branchCount - 1)
+                        + " 사이여야 합니다 '" + f[1] + "'");
+            }
+            if (assignments.putIfAbsent(f[0], branch) != null) {
+                throw new ValidationException(lineNumber + "행: 이미 배정된 ISBN입니다 '" + f[0] + "'");
+            }
+        }
+        return new BranchRouter(branchCount, assignments);
+    }
+
+    public int branchCount() {
+        return branchCount;
+    }
+
+    /**
+     * @param isbn book ISBN
+     * @return branch index owning the book
+     */
+    public int branchOf(String isbn) {
+        Integer assigned = assignments.get(isbn);
+        if (assigned != null) {
+            return assigned;
+        }
+        return Math.floorMod(isbn.hashCode(), branchCount);
+    }
+}
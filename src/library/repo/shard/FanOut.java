@@ -0,0 +1,171 @@
+package library.repo.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import library.repo.Page;
+
+/**
+ * Runs a query against every shard in parallel and merges the results.
+ *
+ * @param <S> shard type
+ */
+final class FanOut<S> {
+    private final List<S> shards;
+    private final Executor executor;
+
+    FanOut(List<S> shards, Executor executor) {
+        this.shards = List.copyOf(shards);
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    S shard(int index) {
+        return shards.get(index);
+    }
+
+    int size() {
+        return shards.size();
+    }
+
+    /**
+     * Applies the query to all shards concurrently and returns the per-shard results in shard order.
+     */
+    <R> List<R> each(Function<S, R> query) {
+        return eachIndexed(index -> query.apply(shards.get(index)));
+    }
+
+    /**
+     * Applies the query to every shard index concurrently and returns the results in shard order, for
+     * queries that need per-shard arguments.
+     */
+    <R> List<R> eachIndexed(IntFunction<R> query) {
+        if (shards.size() == 1) {
+            return List.of(query.apply(0));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            int index = i;
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(index), executor));
+        }
+        List<R> results = new ArrayList<>(shards.size());
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Concatenates list results from all shards.
+     */
+    <T> List<T> concat(Function<S, ? extends List<T>> query) {
+        List<? extends List<T>> parts = each(query);
+        int total = 0;
+        for (List<T> part : parts) {
+            total += part.size();
+        }
+        List<T> merged = new ArrayList<>(total);
+        for (List<T> part : parts) {
+            merged.addAll(part);
+        }
+        return merged;
+    }
+
+    /**
+     * Merges per-shard streams that are each ordered by {@code key} into one ordered stream.
+     */
+    <T> Stream<T> mergeSorted(Function<S, Stream<T>> query, Function<T, String> key) {
+        if (shards.size() == 1) {
+            return query.apply(shards.get(0));
+        }
+        List<Iterator<T>> iterators = new ArrayList<>(shards.size());
+        for (S shard : shards) {
+            iterators.add(query.apply(shard).iterator());
+        }
+        Iterator<T> merged = new MergingIterator<>(iterators, key);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reads the same page from every shard and keeps the first {@code limit} records in key order.
+     */
+    <T> Page<T> mergePages(Function<S, Page<T>> query, Function<T, String> key, int limit) {
+        List<Page<T>> pages = each(query);
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+        List<Iterator<T>> iterators = new ArrayList<>(pages.size());
+        boolean anyMore = false;
+        for (Page<T> page : pages) {
+            iterators.add(page.items().iterator());
+            anyMore |= page.hasNext();
+        }
+        Iterator<T> merged = new MergingIterator<>(iterators, key);
+        List<T> items = new ArrayList<>(limit);
+        while (items.size() < limit && merged.hasNext()) {
+            items.add(merged.next());
+        }
+        boolean more = anyMore || merged.hasNext();
+        String nextToken = more && !items.isEmpty() ? key.apply(items.get(items.size() - 1)) : null;
+        return new Page<>(items, nextToken);
+    }
+
+    private static final class MergingIterator<T> implements Iterator<T> {
+        private final PriorityQueue<Head<T>> heads;
+        private final Function<T, String> key;
+
+        MergingIterator(List<Iterator<T>> sources, Function<T, String> key) {
+            this.key = key;
+            this.heads = new PriorityQueue<>(Math.max(1, sources.size()), Comparator.comparing(Head::key));
+            for (Iterator<T> source : sources) {
+                advance(source);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.source);
+            return head.value;
+        }
+
+        private void advance(Iterator<T> source) {
+            if (source.hasNext()) {
+                T value = source.next();
+                heads.add(new Head<>(key.apply(value), value, source));
+            }
+        }
+    }
+
+    private record Head<T>(String key, T value, Iterator<T> source) {
+    }
+}
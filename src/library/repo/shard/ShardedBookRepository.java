@@ -0,0 +1,160 @@
+package library.repo.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import library.domain.book.Book;
+import library.repo.BookRepository;
+import library.repo.CategoryCount;
+import library.repo.Completion;
+import library.repo.FacetedSearch;
+import library.repo.Page;
+import library.repo.SortField;
+import library.repo.TitleMatch;
+
+/**
+ * {@link BookRepository} partitioned by branch. Each branch shard owns the copies of the books routed to
+ * it; ISBN lookups and saves touch a single shard while title searches and multi-ISBN lookups fan out to
+ * the shards in parallel.
+ * <p>
+ * Sharding spreads data and read work, not commits: as wired by {@code Bootstrap}, writes to every shard
+ * go through one {@code MvccCoordinator} and its single write lock.
+ */
+public class ShardedBookRepository implements BookRepository {
+    private final FanOut<BookRepository> shards;
+    private final BranchRouter router;
+
+    /**
+     * Creates the repository.
+     *
+     * @param branches one repository per branch, indexed like the router's branches
+     * @param router   routing table from ISBN to branch
+     * @param executor executor used for parallel fan-out queries
+     */
+    public ShardedBookRepository(List<? extends BookRepository> branches, BranchRouter router, Executor executor) {
+        this.router = Objects.requireNonNull(router, "router");
+        if (branches.size() != router.branchCount()) {
+            throw new IllegalArgumentException("branch count does not match router");
+        }
+        this.shards = new FanOut<>(List.copyOf(branches), executor);
+    }
+
+    /**
+     * @param branch branch index
+     * @return repository holding that branch's books
+     */
+    public BookRepository branch(int branch) {
+        return shards.shard(branch);
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return shards.shard(router.branchOf(isbn)).findByIsbn(isbn);
+    }
+
+    @Override
+    public Map<String, Book> findAllByIsbns(Collection<String> isbns) {
+        List<List<String>> byBranch = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byBranch.add(new ArrayList<>());
+        }
+        for (String isbn : isbns) {
+            byBranch.get(router.branchOf(isbn)).add(isbn);
+        }
+        int touched = 0;
+        int last = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            if (!byBranch.get(i).isEmpty()) {
+                touched++;
+                last = i;
+            }
+        }
+        if (touched <= 1) {
+            return touched == 0 ? new HashMap<>() : shards.shard(last).findAllByIsbns(byBranch.get(last));
+        }
+        List<Map<String, Book>> parts = shards.eachIndexed(i -> byBranch.get(i).isEmpty()
+                ? Map.of()
+                : shards.shard(i).findAllByIsbns(byBranch.get(i)));
+        Map<String, Book> result = new HashMap<>(Math.max(16, isbns.size() * 2));
+        for (Map<String, Book> part : parts) {
+            result.putAll(part);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Book> findByTitleIgnoreCase(String title) {
+        return shards.concat(shard -> shard.findByTitleIgnoreCase(title));
+    }
+
+    @Override
+    public List<Book> searchByTitle(String keyword) {
+        return shards.concat(shard -> shard.searchByTitle(keyword));
+    }
+
+    /**
+     * Concatenates each shard's books, like {@link #searchByTitle(String)}, and adds up the category
+     * counts.
+     */
+    @Override
+    public FacetedSearch facetedSearch(String keyword, String category) {
+        List<FacetedSearch> parts = shards.each(shard -> shard.facetedSearch(keyword, category));
+        List<Book> books = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (FacetedSearch part : parts) {
+            books.addAll(part.books());
+            for (CategoryCount count : part.categories()) {
+                counts.merge(count.category(), count.count(), Integer::sum);
+            }
+        }
+        return new FacetedSearch(books, CategoryCount.ranked(counts));
+    }
+
+    @Override
+    public List<TitleMatch> suggestByTitle(String title, int maxDistance, int limit) {
+        List<TitleMatch> matches = new ArrayList<>(shards.concat(shard -> shard.suggestByTitle(title, maxDistance, limit)));
+        matches.sort(TitleMatch.RANKING);
+        return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Adds up each shard's best completions. Books are spread by ISBN, so an author's copies can be split
+     * across shards; one that makes no shard's list but would make the combined one is missed.
+     */
+    @Override
+    public List<Completion> complete(String prefix, int limit) {
+        return Completion.combine(shards.concat(shard -> shard.complete(prefix, limit)), limit);
+    }
+
+    @Override
+    public void save(Book book) {
+        shards.shard(router.branchOf(book.getIsbn())).save(book);
+    }
+
+    @Override
+    public Collection<Book> findAll() {
+        return shards.concat(shard -> List.copyOf(shard.findAll()));
+    }
+
+    @Override
+    public Stream<Book> streamAll() {
+        return shards.mergeSorted(BookRepository::streamAll, Book::getIsbn);
+    }
+
+    @Override
+    public Page<Book> findPage(String pageToken, int limit) {
+        return shards.mergePages(shard -> shard.findPage(pageToken, limit), Book::getIsbn, limit);
+    }
+
+    @Override
+    public Page<Book> browse(SortField field, String from, String pageToken, int limit) {
+        return shards.mergePages(shard -> shard.browse(field, from, pageToken, limit), field::keyOf, limit);
+    }
+}
@@ -0,0 +1,130 @@
+package library.repo.shard;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import library.domain.loan.Loan;
+import library.repo.LoanRepository;
+import library.repo.Page;
+
+/**
+ * {@link LoanRepository} partitioned by branch. A loan is stored in the shard of the branch that owns the
+ * borrowed copy, so per-ISBN operations touch one shard; per-user and global queries fan out in parallel.
+ * Writes are still serialized above the shards by the shared MVCC coordinator.
+ */
+public class ShardedLoanRepository implements LoanRepository {
+    private final FanOut<LoanRepository> shards;
+    private final BranchRouter router;
+
+    /**
+     * Creates the repository.
+     *
+     * @param branches one repository per branch, indexed like the router's branches
+     * @param router   routing table from ISBN to branch
+     * @param executor executor used for parallel fan-out queries
+     */
+    public ShardedLoanRepository(List<? extends LoanRepository> branches, BranchRouter router, Executor executor) {
+        this.router = Objects.requireNonNull(router, "router");
+        if (branches.size() != router.branchCount()) {
+            throw new IllegalArgumentException("branch count does not match router");
+        }
+        this.shards = new FanOut<>(List.copyOf(branches), executor);
+    }
+
+    /**
+     * @param branch branch index
+     * @return repository holding that branch's loans
+     */
+    public LoanRepository branch(int branch) {
+        return shards.shard(branch);
+    }
+
+    @Override
+    public void save(Loan loan) {
+        shards.shard(router.branchOf(loan.getIsbn())).save(loan);
+    }
+
+    @Override
+    public void saveAll(Collection<Loan> loans) {
+        List<List<Loan>> byBranch = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byBranch.add(new ArrayList<>());
+        }
+        for (Loan loan : loans) {
+            byBranch.get(router.branchOf(loan.getIsbn())).add(loan);
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            if (!byBranch.get(i).isEmpty()) {
+                shards.shard(i).saveAll(byBranch.get(i));
+            }
+        }
+    }
+
+    @Override
+    public Optional<Loan> findActiveByUserAndIsbn(String userId, String isbn) {
+        return shards.shard(router.branchOf(isbn)).findActiveByUserAndIsbn(userId, isbn);
+    }
+
+    @Override
+    public List<Loan> findActiveByUser(String userId) {
+        return shards.concat(shard -> shard.findActiveByUser(userId));
+    }
+
+    @Override
+    public int countActiveByUser(String userId) {
+        int total = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            total += shards.shard(i).countActiveByUser(userId);
+        }
+        return total;
+    }
+
+    @Override
+    public int countActiveByIsbn(String isbn) {
+        return shards.shard(router.branchOf(isbn)).countActiveByIsbn(isbn);
+    }
+
+    @Override
+    public boolean hasActiveLoan(String userId, String isbn) {
+        return shards.shard(router.branchOf(isbn)).hasActiveLoan(userId, isbn);
+    }
+
+    @Override
+    public List<Loan> findActive() {
+        return shards.concat(LoanRepository::findActive);
+    }
+
+    @Override
+    public List<Loan> findByIsbnOn(String isbn, LocalDate date) {
+        return shards.shard(router.branchOf(isbn)).findByIsbnOn(isbn, date);
+    }
+
+    @Override
+    public List<Loan> findByUserOn(String userId, LocalDate date) {
+        List<Loan> loans = shards.concat(shard -> shard.findByUserOn(userId, date));
+        loans.sort(Comparator.comparing(Loan::getLoanDate).thenComparing(Loan::getLoanId));
+        return loans;
+    }
+
+    @Override
+    public List<Loan> findAll() {
+        return shards.concat(LoanRepository::findAll);
+    }
+
+    @Override
+    public Stream<Loan> streamAll() {
+        return shards.mergeSorted(LoanRepository::streamAll, Loan::getLoanId);
+    }
+
+    @Override
+    public Page<Loan> findPage(String pageToken, int limit) {
+        return shards.mergePages(shard -> shard.findPage(pageToken, limit), Loan::getLoanId, limit);
+    }
+}
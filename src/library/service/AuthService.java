@@ -2,10 +2,13 @@ package library.service;
 
 import java.util.Objects;
 
+import library.audit.AuditAction;
+import library.audit.AuditLog;
 import library.domain.user.Role;
 import library.domain.user.User;
 import library.exception.AuthException;
 import library.exception.ValidationException;
+import library.monitoring.LoginEvent;
 import library.repo.UserRepository;
 import library.util.PasswordEncoder;
 
@@ -14,9 +17,15 @@ import library.util.PasswordEncoder;
  */
 public class AuthService {
     private final UserRepository userRepository;
+    private final AuditLog auditLog;
 
     public AuthService(UserRepository userRepository) {
+        this(userRepository, AuditLog.noop());
+    }
+
+    public AuthService(UserRepository userRepository, AuditLog auditLog) {
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository");
+        this.auditLog = Objects.requireNonNull(auditLog, "auditLog");
     }
 
     /**
@@ -27,11 +36,16 @@ public class AuthService {
      * @return authenticated user
      */
     public User login(String id, String rawPassword) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new AuthException("아이디/비밀번호 불일치"));
-        if (!PasswordEncoder.matches(rawPassword, user.getPasswordHash())) {
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null || !PasswordEncoder.matches(rawPassword, user.getPasswordHash())) {
+            auditLog.record(AuditAction.LOGIN_FAILED, id, null, 0);
+            event.record(id, false);
             throw new AuthException("아이디/비밀번호 불일치");
         }
+        auditLog.record(AuditAction.LOGIN, id, null, 0);
+        event.record(id, true);
         return user;
     }
 
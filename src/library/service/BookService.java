@@ -2,6 +2,8 @@ package library.service;
 
 import java.util.Objects;
 
+import library.audit.AuditAction;
+import library.audit.AuditLog;
 import library.domain.book.Book;
 import library.domain.user.User;
 import library.exception.AuthException;
@@ -9,15 +11,32 @@ import library.exception.BusinessRuleException;
 import library.exception.NotFoundException;
 import library.exception.ValidationException;
 import library.repo.BookRepository;
+import library.repo.TransactionRunner;
 
 /**
  * Service for administrator book management operations.
+ * <p>
+ * Stock changes modify the stored {@link Book} instance, which loans and reconciliation modify too, so
+ * each lookup, change and save runs in one transaction of the runner shared with {@link LoanService}.
  */
 public class BookService {
     private final BookRepository bookRepository;
+    private final AuditLog auditLog;
+    private final TransactionRunner transactions;
 
     public BookService(BookRepository bookRepository) {
+        this(bookRepository, AuditLog.noop(), TransactionRunner.direct());
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param transactions runner that serializes stock changes with loans and returns
+     */
+    public BookService(BookRepository bookRepository, AuditLog auditLog, TransactionRunner transactions) {
         this.bookRepository = Objects.requireNonNull(bookRepository, "bookRepository");
+        this.auditLog = Objects.requireNonNull(auditLog, "auditLog");
+        this.transactions = Objects.requireNonNull(transactions, "transactions");
     }
 
     /**
@@ -28,10 +47,13 @@ public class BookService {
      */
     public void registerBook(User requester, Book newBook) {
         requireAdmin(requester);
-        bookRepository.findByIsbn(newBook.getIsbn()).ifPresent(b -> {
-            throw new BusinessRuleException("이미 존재하는 ISBN 입니다");
+        transactions.inTransaction(() -> {
+            bookRepository.findByIsbn(newBook.getIsbn()).ifPresent(b -> {
+                throw new BusinessRuleException("이미 존재하는 ISBN 입니다");
+            });
+            bookRepository.save(newBook);
+            return null;
         });
-        bookRepository.save(newBook);
     }
 
     /**
@@ -42,10 +64,13 @@ public class BookService {
         if (n <= 0) {
             throw new ValidationException("수량은 0보다 커야 합니다");
         }
-        Book book = bookRepository.findByIsbn(isbn)
-                .orElseThrow(() -> new NotFoundException("도서를 찾을 수 없습니다"));
-        book.addStock(n);
-        bookRepository.save(book);
+        transactions.inTransaction(() -> {
+            Book book = findBook(isbn);
+            book.addStock(n);
+            bookRepository.save(book);
+            return null;
+        });
+        auditLog.record(AuditAction.ADD_STOCK, requester.getId(), isbn, n);
     }
 
     /**
@@ -56,10 +81,18 @@ public class BookService {
         if (n <= 0) {
             throw new ValidationException("수량은 0보다 커야 합니다");
         }
-        Book book = bookRepository.findByIsbn(isbn)
+        transactions.inTransaction(() -> {
+            Book book = findBook(isbn);
+            book.writeOff(n);
+            bookRepository.save(book);
+            return null;
+        });
+        auditLog.record(AuditAction.WRITE_OFF, requester.getId(), isbn, n);
+    }
+
+    private Book findBook(String isbn) {
+        return bookRepository.findByIsbn(isbn)
                 .orElseThrow(() -> new NotFoundException("도서를 찾을 수 없습니다"));
-        book.writeOff(n);
-        bookRepository.save(book);
     }
 
     private void requireAdmin(User requester) {
@@ -0,0 +1,102 @@
+package library.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import library.domain.user.User;
+import library.exception.AuthException;
+import library.exception.BusinessRuleException;
+import library.exception.NotFoundException;
+import library.exception.ValidationException;
+import library.repo.UserRepository;
+
+/**
+ * Imports books collected from the drop box. The file lists one {@code userId isbn} pair per line;
+ * returns are grouped per user and processed through {@link LoanService#returnAll}.
+ */
+public class DropBoxReturnService {
+    private final UserRepository userRepository;
+    private final LoanService loanService;
+
+    public DropBoxReturnService(UserRepository userRepository, LoanService loanService) {
+        this.userRepository = Objects.requireNonNull(userRepository, "userRepository");
+        this.loanService = Objects.requireNonNull(loanService, "loanService");
+    }
+
+    /**
+     * Processes a drop-box file. Each user's returns succeed or fail together; failures are reported
+     * per user and do not stop the remaining users.
+     *
+     * @param requester administrator performing the import
+     * @param file      drop-box file
+     * @param today     return date
+     * @return import summary
+     */
+    public ImportResult importReturns(User requester, Path file, LocalDate today) {
+        requireAdmin(requester);
+        Map<String, Set<String>> isbnsByUser = read(file);
+        Map<String, User> users = userRepository.findAllByIds(isbnsByUser.keySet());
+
+        int returned = 0;
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : isbnsByUser.entrySet()) {
+            User user = users.get(entry.getKey());
+            if (user == null) {
+                failures.add(entry.getKey() + ": 사용자를 찾을 수 없습니다");
+                continue;
+            }
+            try {
+                returned += loanService.returnAll(user, List.copyOf(entry.getValue()), today).size();
+            } catch (NotFoundException | BusinessRuleException | ValidationException e) {
+                failures.add(entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        return new ImportResult(returned, failures);
+    }
+
+    private Map<String, Set<String>> read(Path file) {
+        Map<String, Set<String>> isbnsByUser = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = trimmed.split("[\\s,]+");
+                if (fields.length != 2) {
+                    throw new ValidationException(lineNumber + "행 형식 오류: <userId> <isbn>");
+                }
+                isbnsByUser.computeIfAbsent(fields[0], id -> new LinkedHashSet<>()).add(fields[1]);
+            }
+        } catch (IOException e) {
+            throw new ValidationException("파일을 읽을 수 없습니다: " + file);
+        }
+        return isbnsByUser;
+    }
+
+    private void requireAdmin(User requester) {
+        if (requester == null || !requester.isAdmin()) {
+            throw new AuthException("관리자 권한 필요");
+        }
+    }
+
+    /**
+     * Drop-box import summary.
+     */
+    public static record ImportResult(int returned, List<String> failures) {
+    }
+}
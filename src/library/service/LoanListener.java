@@ -0,0 +1,25 @@
+package library.service;
+
+import library.domain.loan.Loan;
+
+/**
+ * Callback notified by {@link LoanService} after loans are created or returned.
+ */
+public interface LoanListener {
+
+    /**
+     * Invoked after a new loan has been saved.
+     *
+     * @param loan created loan
+     */
+    default void onLoan(Loan loan) {
+    }
+
+    /**
+     * Invoked after a loan has been marked as returned and saved.
+     *
+     * @param loan returned loan
+     */
+    default void onReturn(Loan loan) {
+    }
+}
@@ -1,7 +1,11 @@
 package library.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import library.domain.book.Book;
@@ -11,66 +15,201 @@ import library.domain.user.User;
 import library.exception.AuthException;
 import library.exception.BusinessRuleException;
 import library.exception.NotFoundException;
+import library.exception.ValidationException;
+import library.monitoring.LoanEvent;
+import library.monitoring.ReturnEvent;
+import library.monitoring.TitleResolutionEvent;
 import library.repo.BookRepository;
 import library.repo.LoanRepository;
+import library.repo.TitleMatch;
+import library.repo.TransactionRunner;
 
 /**
  * Service handling loan and return operations.
+ * <p>
+ * Loans, returns and title resolution are recorded as JDK Flight Recorder events ({@link LoanEvent},
+ * {@link ReturnEvent}, {@link TitleResolutionEvent}); with no recording running they cost a couple of
+ * checks per request.
  */
 public class LoanService {
+    private static final int MAX_SUGGESTIONS = 5;
+    private static final int SHORT_TITLE_LENGTH = 10;
+
     private final BookRepository bookRepository;
     private final LoanRepository loanRepository;
     private final LoanPolicy loanPolicy;
+    private final List<LoanListener> listeners;
+    private final TransactionRunner transactions;
 
     public LoanService(BookRepository bookRepository, LoanRepository loanRepository, LoanPolicy loanPolicy) {
+        this(bookRepository, loanRepository, loanPolicy, List.of(), TransactionRunner.direct());
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param listeners    callbacks notified after each loan and return
+     * @param transactions runner that makes the book and loan writes of one operation visible together
+     */
+    public LoanService(
+            BookRepository bookRepository,
+            LoanRepository loanRepository,
+            LoanPolicy loanPolicy,
+            List<LoanListener> listeners,
+            TransactionRunner transactions) {
         this.bookRepository = Objects.requireNonNull(bookRepository, "bookRepository");
         this.loanRepository = Objects.requireNonNull(loanRepository, "loanRepository");
         this.loanPolicy = Objects.requireNonNull(loanPolicy, "loanPolicy");
+        this.listeners = List.copyOf(Objects.requireNonNull(listeners, "listeners"));
+        this.transactions = Objects.requireNonNull(transactions, "transactions");
     }
 
     /**
      * Loans a book to the user.
      */
     public Loan loan(User user, String isbn, LocalDate today) {
-        requireLogin(user);
-        Book book = bookRepository.findByIsbn(isbn)
-                .orElseThrow(() -> new NotFoundException("도서를 찾을 수 없습니다"));
-        if (book.getAvailable() <= 0) {
-            throw new BusinessRuleException("재고 부족");
-        }
-        List<Loan> activeLoans = loanRepository.findActiveByUser(user.getId());
-        int max = loanPolicy.maxConcurrentLoans(user);
-        if (activeLoans.size() >= max) {
-            throw new BusinessRuleException("대출 가능 권수를 초과했습니다");
-        }
-        loanRepository.findActiveByUserAndIsbn(user.getId(), isbn).ifPresent(existing -> {
-            throw new BusinessRuleException("이미 대출 중인 도서입니다");
-        });
-        book.takeOne();
-        bookRepository.save(book);
-        long days = loanPolicy.loanDuration(user, book).toDays();
-        if (days <= 0) {
-            throw new BusinessRuleException("대출 기간이 유효하지 않습니다");
+        return loanAll(user, List.of(isbn), today).get(0);
+    }
+
+    /**
+     * Loans several books to the user as one all-or-nothing operation. The user's active loans are read
+     * once, every book is validated before any stock is taken, and the loans are written as one batch.
+     *
+     * @param user  borrowing user
+     * @param isbns ISBNs to borrow, without duplicates
+     * @param today loan date
+     * @return created loans in request order
+     */
+    public List<Loan> loanAll(User user, List<String> isbns, LocalDate today) {
+        LoanEvent event = new LoanEvent();
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            requireLogin(user);
+            requireIsbns(isbns);
+            List<Loan> loans = transactions.inTransaction(() -> createLoans(user, isbns, today));
+            for (Loan loan : loans) {
+                for (LoanListener listener : listeners) {
+                    listener.onLoan(loan);
+                }
+            }
+            return loans;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.record(user, isbns, failure);
         }
-        LocalDate dueDate = today.plusDays(days);
-        Loan loan = new Loan(user.getId(), isbn, today, dueDate);
-        loanRepository.save(loan);
-        return loan;
     }
 
     /**
      * Returns a book previously loaned by the user.
      */
     public void returnBook(User user, String isbn, LocalDate today) {
-        requireLogin(user);
-        Loan loan = loanRepository.findActiveByUserAndIsbn(user.getId(), isbn)
-                .orElseThrow(() -> new NotFoundException("해당 사용자 미반납 대출 없음"));
-        loan.setReturnedAt(today);
-        loanRepository.save(loan);
-        Book book = bookRepository.findByIsbn(isbn)
-                .orElseThrow(() -> new NotFoundException("도서를 찾을 수 없습니다"));
-        book.returnOne();
-        bookRepository.save(book);
+        returnAll(user, List.of(isbn), today);
+    }
+
+    /**
+     * Returns several books for the user as one all-or-nothing operation.
+     *
+     * @param user  borrowing user
+     * @param isbns ISBNs to return, without duplicates
+     * @param today return date
+     * @return closed loans in request order
+     */
+    public List<Loan> returnAll(User user, List<String> isbns, LocalDate today) {
+        ReturnEvent event = new ReturnEvent();
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            requireLogin(user);
+            requireIsbns(isbns);
+            List<Loan> loans = transactions.inTransaction(() -> closeLoans(user, isbns, today));
+            for (Loan loan : loans) {
+                for (LoanListener listener : listeners) {
+                    listener.onReturn(loan);
+                }
+            }
+            return loans;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.record(user, isbns, failure);
+        }
+    }
+
+    private List<Loan> createLoans(User user, List<String> isbns, LocalDate today) {
+        Map<String, Book> books = bookRepository.findAllByIsbns(isbns);
+        int active = loanRepository.countActiveByUser(user.getId());
+        int max = loanPolicy.maxConcurrentLoans(user);
+        List<Book> reserved = new ArrayList<>(isbns.size());
+        List<Loan> loans = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Book book = books.get(isbn);
+            if (book == null) {
+                throw new NotFoundException("도서를 찾을 수 없습니다");
+            }
+            if (book.getAvailable() <= 0) {
+                throw new BusinessRuleException("재고 부족");
+            }
+            if (active + loans.size() >= max) {
+                throw new BusinessRuleException("대출 가능 권수를 초과했습니다");
+            }
+            if (loanRepository.hasActiveLoan(user.getId(), isbn)) {
+                throw new BusinessRuleException("이미 대출 중인 도서입니다");
+            }
+            long days = loanPolicy.loanDuration(user, book).toDays();
+            if (days <= 0) {
+                throw new BusinessRuleException("대출 기간이 유효하지 않습니다");
+            }
+            reserved.add(book);
+            loans.add(new Loan(user.getId(), isbn, today, today.plusDays(days)));
+        }
+        for (Book book : reserved) {
+            book.takeOne();
+            bookRepository.save(book);
+        }
+        loanRepository.saveAll(loans);
+        return loans;
+    }
+
+    private List<Loan> closeLoans(User user, List<String> isbns, LocalDate today) {
+        Map<String, Loan> activeByIsbn = new HashMap<>();
+        if (isbns.size() == 1) {
+            loanRepository.findActiveByUserAndIsbn(user.getId(), isbns.get(0))
+                    .ifPresent(loan -> activeByIsbn.put(loan.getIsbn(), loan));
+        } else {
+            for (Loan active : loanRepository.findActiveByUser(user.getId())) {
+                activeByIsbn.put(active.getIsbn(), active);
+            }
+        }
+        Map<String, Book> books = bookRepository.findAllByIsbns(isbns);
+        List<Loan> loans = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Loan loan = activeByIsbn.remove(isbn);
+            if (loan == null) {
+                throw new NotFoundException("해당 사용자 미반납 대출 없음");
+            }
+            Book book = books.get(isbn);
+            if (book == null) {
+                throw new NotFoundException("도서를 찾을 수 없습니다");
+            }
+            if (book.getAvailable() >= book.getTotal()) {
+                throw new BusinessRuleException("재고 수량 불일치");
+            }
+            loans.add(loan);
+        }
+        for (Loan loan : loans) {
+            loan.setReturnedAt(today);
+        }
+        loanRepository.saveAll(loans);
+        for (Loan loan : loans) {
+            Book book = books.get(loan.getIsbn());
+            book.returnOne();
+            bookRepository.save(book);
+        }
+        return loans;
     }
 
     /**
@@ -95,15 +234,28 @@ public class LoanService {
         }
     }
 
+    private void requireIsbns(List<String> isbns) {
+        if (isbns == null || isbns.isEmpty()) {
+            throw new ValidationException("ISBN을 하나 이상 입력하세요");
+        }
+        if (new HashSet<>(isbns).size() != isbns.size()) {
+            throw new ValidationException("같은 ISBN이 중복되었습니다");
+        }
+    }
+
     private Book resolveUniqueByTitle(String rawTitle) {
+        TitleResolutionEvent event = new TitleResolutionEvent();
+        event.begin();
         String normalized = normalize(rawTitle);
         List<Book> exactMatches = bookRepository.findByTitleIgnoreCase(normalized);
         List<Book> candidates = exactMatches.isEmpty()
                 ? bookRepository.searchByTitle(normalized)
                 : exactMatches;
+        event.record(rawTitle, exactMatches.size(), candidates.size(),
+                candidates.size() == 1 ? candidates.get(0) : null);
 
         if (candidates.isEmpty()) {
-            throw new NotFoundException("제목 '" + rawTitle + "'으로 검색된 도서가 없습니다.");
+            throw notFoundWithSuggestions(rawTitle, normalized);
         }
         if (candidates.size() > 1) {
             StringBuilder sb = new StringBuilder("같은/유사한 제목이 여러 권입니다. ISBN으로 다시 시도하세요:\n");
@@ -121,6 +273,33 @@ public class LoanService {
         return candidates.get(0);
     }
 
+    /**
+     * Builds the "not found" error, listing books whose titles are a few typos away from the input.
+     * Titles shorter than ten characters tolerate one edit, longer ones two.
+     */
+    private NotFoundException notFoundWithSuggestions(String rawTitle, String normalized) {
+        String message = "제목 '" + rawTitle + "'으로 검색된 도서가 없습니다.";
+        int maxDistance = normalized.length() < SHORT_TITLE_LENGTH ? 1 : 2;
+        List<TitleMatch> suggestions = normalized.isEmpty()
+                ? List.of()
+                : bookRepository.suggestByTitle(normalized, maxDistance, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty()) {
+            return new NotFoundException(message);
+        }
+        StringBuilder sb = new StringBuilder(message).append(" 혹시 다음 도서인가요? ISBN으로 다시 시도하세요:\n");
+        for (TitleMatch suggestion : suggestions) {
+            Book book = suggestion.book();
+            sb.append("- ")
+              .append(book.getTitle())
+              .append(" | ")
+              .append(book.getAuthor())
+              .append(" | ISBN: ")
+              .append(book.getIsbn())
+              .append('\n');
+        }
+        return new NotFoundException(sb.toString());
+    }
+
     private String normalize(String value) {
         return value == null ? "" : value.trim();
     }
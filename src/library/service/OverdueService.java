@@ -3,30 +3,46 @@ package library.service;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import library.domain.book.Book;
 import library.domain.loan.Loan;
 import library.domain.user.User;
 import library.exception.AuthException;
 import library.exception.NotFoundException;
+import library.monitoring.OverdueReportEvent;
 import library.repo.BookRepository;
 import library.repo.LoanRepository;
+import library.repo.RepositorySnapshot;
+import library.repo.SnapshotSource;
 import library.repo.UserRepository;
 
 /**
  * Service for administrator overdue inquiries.
  */
 public class OverdueService {
-    private final LoanRepository loanRepository;
+    private static final int STREAM_CHUNK_SIZE = 1_024;
+
     private final UserRepository userRepository;
-    private final BookRepository bookRepository;
+    private final SnapshotSource snapshots;
 
     public OverdueService(LoanRepository loanRepository, UserRepository userRepository, BookRepository bookRepository) {
-        this.loanRepository = Objects.requireNonNull(loanRepository, "loanRepository");
+        this(userRepository, SnapshotSource.live(bookRepository, loanRepository));
+    }
+
+    /**
+     * Creates the service reading books and loans through snapshots so that a report reflects a single
+     * point in time even while loans and returns continue.
+     */
+    public OverdueService(UserRepository userRepository, SnapshotSource snapshots) {
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository");
-        this.bookRepository = Objects.requireNonNull(bookRepository, "bookRepository");
+        this.snapshots = Objects.requireNonNull(snapshots, "snapshots");
     }
 
     /**
@@ -34,18 +50,85 @@ public class OverdueService {
      */
     public List<OverdueEntry> listOverdues(User requester, LocalDate today) {
         requireAdmin(requester);
-        List<OverdueEntry> result = new ArrayList<>();
-        for (Loan loan : loanRepository.findActive()) {
-            if (loan.isOverdue(today)) {
-                User user = userRepository.findById(loan.getUserId())
-                        .orElseThrow(() -> new NotFoundException("사용자를 찾을 수 없습니다"));
-                Book book = bookRepository.findByIsbn(loan.getIsbn())
-                        .orElseThrow(() -> new NotFoundException("도서를 찾을 수 없습니다"));
-                long overdueDays = ChronoUnit.DAYS.between(loan.getDueDate(), today);
-                result.add(new OverdueEntry(user, book, loan.getDueDate(), (int) overdueDays));
+        OverdueReportEvent event = new OverdueReportEvent();
+        event.begin();
+        try (RepositorySnapshot snapshot = snapshots.openSnapshot()) {
+            List<Loan> active = snapshot.loans().findActive();
+            List<Loan> overdueLoans = new ArrayList<>();
+            for (Loan loan : active) {
+                if (loan.isOverdue(today)) {
+                    overdueLoans.add(loan);
+                }
+            }
+            List<OverdueEntry> result = new ArrayList<>(overdueLoans.size());
+            resolve(overdueLoans, snapshot.books(), today, result::add);
+            event.record(requester.getId(), false, active.size(), result.size());
+            return result;
+        }
+    }
+
+    /**
+     * Streams overdue entries to the consumer without materializing the whole report. Loans are read
+     * from one snapshot and resolved in fixed-size chunks, one batched user and book lookup per chunk.
+     *
+     * @param requester administrator requesting the report
+     * @param today     reference date
+     * @param action    receives each entry in loan id order
+     * @return number of entries produced
+     */
+    public long forEachOverdue(User requester, LocalDate today, Consumer<OverdueEntry> action) {
+        requireAdmin(requester);
+        OverdueReportEvent event = new OverdueReportEvent();
+        event.begin();
+        try (RepositorySnapshot snapshot = snapshots.openSnapshot()) {
+            List<Loan> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            long count = 0;
+            long scanned = 0;
+            Iterator<Loan> loans = snapshot.loans().streamAll().iterator();
+            while (loans.hasNext()) {
+                Loan loan = loans.next();
+                scanned++;
+                if (!loan.isOverdue(today)) {
+                    continue;
+                }
+                chunk.add(loan);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    count += resolve(chunk, snapshot.books(), today, action);
+                    chunk.clear();
+                }
+            }
+            count += resolve(chunk, snapshot.books(), today, action);
+            event.record(requester.getId(), true, scanned, count);
+            return count;
+        }
+    }
+
+    private int resolve(List<Loan> overdueLoans, BookRepository bookRepository, LocalDate today, Consumer<OverdueEntry> action) {
+        if (overdueLoans.isEmpty()) {
+            return 0;
+        }
+        Set<String> userIds = new LinkedHashSet<>();
+        Set<String> isbns = new LinkedHashSet<>();
+        for (Loan loan : overdueLoans) {
+            userIds.add(loan.getUserId());
+            isbns.add(loan.getIsbn());
+        }
+
+        Map<String, User> users = userRepository.findAllByIds(userIds);
+        Map<String, Book> books = bookRepository.findAllByIsbns(isbns);
+        for (Loan loan : overdueLoans) {
+            User user = users.get(loan.getUserId());
+            if (user == null) {
+                throw new NotFoundException("사용자를 찾을 수 없습니다");
+            }
+            Book book = books.get(loan.getIsbn());
+            if (book == null) {
+                throw new NotFoundException("도서를 찾을 수 없습니다");
             }
+            long overdueDays = ChronoUnit.DAYS.between(loan.getDueDate(), today);
+            action.accept(new OverdueEntry(user, book, loan.getDueDate(), (int) overdueDays));
         }
-        return result;
+        return overdueLoans.size();
     }
 
     private void requireAdmin(User requester) {
@@ -0,0 +1,130 @@
+package library.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.repo.BookRepository;
+import library.util.SpaceSavingCounter;
+
+/**
+ * "Patrons who borrowed this also borrowed" recommendations, maintained incrementally from loan events.
+ * <p>
+ * Each user's most recent distinct loans are kept in a short history. A new loan is paired with every
+ * book in that history, and each pair is counted in both books' neighbour counters. A counter is a
+ * {@link SpaceSavingCounter} monitoring a few times more neighbours than are ever shown, so a lookup reads
+ * a fixed number of slots and memory is bounded by the number of users and books, not by the length of the
+ * loan history. Borrowing a book that is still in the history adds no pairs, so re-borrowing does not
+ * inflate counts.
+ * <p>
+ * Only loans made while the service is running are counted. Thread-safe; listeners are invoked after
+ * the loan's transaction, so counting never holds up other loans.
+ */
+public class RecommendationService implements LoanListener {
+    private static final int HISTORY_LENGTH = 16;
+    private static final int SLOTS_PER_NEIGHBOUR = 4;
+
+    private final BookRepository bookRepository;
+    private final int neighbours;
+    private final Map<String, History> historyByUser = new ConcurrentHashMap<>();
+    private final Map<String, SpaceSavingCounter> neighboursByIsbn = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the service.
+     *
+     * @param bookRepository resolves recommended ISBNs to books
+     * @param neighbours     largest number of recommendations kept accurate per book
+     */
+    public RecommendationService(BookRepository bookRepository, int neighbours) {
+        this.bookRepository = Objects.requireNonNull(bookRepository, "bookRepository");
+        if (neighbours <= 0) {
+            throw new IllegalArgumentException("neighbours must be positive");
+        }
+        this.neighbours = neighbours;
+    }
+
+    @Override
+    public void onLoan(Loan loan) {
+        String isbn = loan.getIsbn();
+        History history = historyByUser.computeIfAbsent(loan.getUserId(), id -> new History());
+        String[] partners;
+        synchronized (history) {
+            partners = history.add(isbn);
+        }
+        for (String partner : partners) {
+            count(isbn, partner);
+            count(partner, isbn);
+        }
+    }
+
+    /**
+     * Returns the books most often borrowed by the same patrons as the given book.
+     *
+     * @param isbn  book ISBN
+     * @param limit maximum number of books, at most the configured number of neighbours
+     * @return books by descending co-borrow count; books no longer in the catalog are left out
+     */
+    public List<Book> alsoBorrowed(String isbn, int limit) {
+        SpaceSavingCounter counter = neighboursByIsbn.get(isbn);
+        if (counter == null) {
+            return List.of();
+        }
+        List<SpaceSavingCounter.Count> top;
+        synchronized (counter) {
+            top = counter.top(Math.min(limit, neighbours));
+        }
+        List<String> isbns = new ArrayList<>(top.size());
+        for (SpaceSavingCounter.Count count : top) {
+            isbns.add(count.key());
+        }
+        Map<String, Book> books = bookRepository.findAllByIsbns(isbns);
+        List<Book> result = new ArrayList<>(isbns.size());
+        for (String neighbour : isbns) {
+            Book book = books.get(neighbour);
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    private void count(String isbn, String neighbour) {
+        SpaceSavingCounter counter = neighboursByIsbn.computeIfAbsent(isbn,
+                key -> new SpaceSavingCounter(neighbours * SLOTS_PER_NEIGHBOUR));
+        synchronized (counter) {
+            counter.add(neighbour);
+        }
+    }
+
+    /**
+     * A user's most recent distinct ISBNs, oldest overwritten first.
+     */
+    private static final class History {
+        private final String[] isbns = new String[HISTORY_LENGTH];
+        private int size;
+        private int next;
+
+        /**
+         * Records a loan.
+         *
+         * @return the books to pair it with, or none if the book was borrowed recently
+         */
+        String[] add(String isbn) {
+            for (int i = 0; i < size; i++) {
+                if (isbns[i].equals(isbn)) {
+                    return new String[0];
+                }
+            }
+            String[] partners = new String[size];
+            System.arraycopy(isbns, 0, partners, 0, size);
+            isbns[next] = isbn;
+            next = (next + 1) % HISTORY_LENGTH;
+            size = Math.min(size + 1, HISTORY_LENGTH);
+            return partners;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package library.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import library.audit.AuditAction;
+import library.audit.AuditLog;
+import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.domain.user.User;
+import library.exception.AuthException;
+import library.repo.BookRepository;
+import library.repo.LoanRepository;
+import library.repo.RepositorySnapshot;
+import library.repo.SnapshotSource;
+import library.repo.TransactionRunner;
+import library.util.primitive.ObjectIntMap;
+
+/**
+ * Checks that every book's stock counter agrees with its loan records, {@code total - available ==
+ * active loans}, and optionally repairs the counter.
+ * <p>
+ * A full check reads one snapshot, counts active loans per ISBN with a fork-join split over the loans and
+ * compares the counts against the books with a second fork-join pass. The service also listens to loans
+ * and returns and remembers the ISBNs they touched; an incremental check re-verifies only those, using
+ * the repositories' per-ISBN counters. Stock additions and write-offs change {@code total} and
+ * {@code available} together and cannot break the invariant, so they are not tracked.
+ * <p>
+ * Repairs re-read the book and its active-loan count inside a transaction and only rewrite the counter
+ * if the mismatch is still there, so a loan committed after the snapshot is never undone.
+ */
+public class ReconciliationService implements LoanListener {
+    private static final int SPLIT_THRESHOLD = 16_384;
+    private static final int INCREMENTAL_BATCH = 1_024;
+
+    private final SnapshotSource snapshots;
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final TransactionRunner transactions;
+    private final AuditLog auditLog;
+    private final ForkJoinPool pool;
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the service.
+     *
+     * @param snapshots      source of consistent views for full checks
+     * @param bookRepository live books, for incremental checks and repairs
+     * @param loanRepository live loans, for incremental checks and repairs
+     * @param transactions   runner that serializes repairs with loans and returns
+     * @param auditLog       receives one record per repaired book
+     * @param pool           pool running the fork-join passes
+     */
+    public ReconciliationService(
+            SnapshotSource snapshots,
+            BookRepository bookRepository,
+            LoanRepository loanRepository,
+            TransactionRunner transactions,
+            AuditLog auditLog,
+            ForkJoinPool pool) {
+        this.snapshots = Objects.requireNonNull(snapshots, "snapshots");
+        this.bookRepository = Objects.requireNonNull(bookRepository, "bookRepository");
+        this.loanRepository = Objects.requireNonNull(loanRepository, "loanRepository");
+        this.transactions = Objects.requireNonNull(transactions, "transactions");
+        this.auditLog = Objects.requireNonNull(auditLog, "auditLog");
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    @Override
+    public void onLoan(Loan loan) {
+        touched.add(loan.getIsbn());
+    }
+
+    @Override
+    public void onReturn(Loan loan) {
+        touched.add(loan.getIsbn());
+    }
+
+    /**
+     * Checks every book against the active loans.
+     *
+     * @param requester administrator requesting the check
+     * @param repair    whether to rewrite the counters of mismatched books
+     * @return check result
+     */
+    public Report reconcileAll(User requester, boolean repair) {
+        requireAdmin(requester);
+        long start = System.nanoTime();
+        // Anything touched before this point is visible to the snapshot opened next.
+        touched.clear();
+        List<Mismatch> mismatches;
+        int checked;
+        try (RepositorySnapshot snapshot = snapshots.openSnapshot()) {
+            Loan[] active = snapshot.loans().streamAll().parallel()
+                    .filter(loan -> !loan.isReturned())
+                    .toArray(Loan[]::new);
+            ObjectIntMap<String> onLoan = pool.invoke(new CountTask(active, 0, active.length));
+            Book[] books = snapshot.books().streamAll().toArray(Book[]::new);
+            mismatches = pool.invoke(new CompareTask(books, 0, books.length, onLoan));
+            checked = books.length;
+        }
+        return finish(requester, checked, mismatches, repair, false, start);
+    }
+
+    /**
+     * Checks only the books lent or returned since the previous check. If a batch fails, the books it and
+     * the later batches would have checked stay pending for the next check.
+     *
+     * @param requester administrator requesting the check
+     * @param repair    whether to rewrite the counters of mismatched books
+     * @return check result
+     */
+    public Report reconcileTouched(User requester, boolean repair) {
+        requireAdmin(requester);
+        long start = System.nanoTime();
+        List<String> isbns = new ArrayList<>();
+        Iterator<String> it = touched.iterator();
+        while (it.hasNext()) {
+            isbns.add(it.next());
+            it.remove();
+        }
+        List<Mismatch> mismatches = new ArrayList<>();
+        int from = 0;
+        try {
+            for (; from < isbns.size(); from += INCREMENTAL_BATCH) {
+                List<String> batch = isbns.subList(from, Math.min(isbns.size(), from + INCREMENTAL_BATCH));
+                transactions.inTransaction(() -> {
+                    for (String isbn : batch) {
+                        check(isbn).ifPresent(mismatches::add);
+                    }
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            // The failed batch and those after it were not checked; leave them for the next run.
+            touched.addAll(isbns.subList(from, isbns.size()));
+            throw e;
+        }
+        return finish(requester, isbns.size(), mismatches, repair, true, start);
+    }
+
+    private Report finish(User requester, int checked, List<Mismatch> mismatches, boolean repair,
+            boolean incremental, long start) {
+        mismatches.sort(Comparator.comparing(Mismatch::isbn));
+        int repaired = 0;
+        if (repair) {
+            for (Mismatch mismatch : mismatches) {
+                if (repair(requester, mismatch.isbn())) {
+                    repaired++;
+                }
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new Report(incremental, checked, List.copyOf(mismatches), repaired, elapsedMillis);
+    }
+
+    private Optional<Mismatch> check(String isbn) {
+        Optional<Book> book = bookRepository.findByIsbn(isbn);
+        if (book.isEmpty()) {
+            return Optional.empty();
+        }
+        Mismatch mismatch = Mismatch.of(book.get(), loanRepository.countActiveByIsbn(isbn));
+        return Optional.ofNullable(mismatch);
+    }
+
+    private boolean repair(User requester, String isbn) {
+        return transactions.inTransaction(() -> {
+            Book book = bookRepository.findByIsbn(isbn).orElse(null);
+            if (book == null) {
+                return false;
+            }
+            int onLoan = loanRepository.countActiveByIsbn(isbn);
+            if (Mismatch.of(book, onLoan) == null || onLoan > book.getTotal()) {
+                return false;
+            }
+            int before = book.getAvailable();
+            book.resetAvailable(onLoan);
+            bookRepository.save(book);
+            auditLog.record(AuditAction.RECONCILE, requester.getId(), isbn, book.getAvailable() - before);
+            return true;
+        });
+    }
+
+    private void requireAdmin(User requester) {
+        if (requester == null || !requester.isAdmin()) {
+            throw new AuthException("관리자 권한 필요");
+        }
+    }
+
+    /**
+     * Counts loans per ISBN over a slice of the array, merging the halves' maps on the way up.
+     */
+    private static final class CountTask extends RecursiveTask<ObjectIntMap<String>> {
+        private final Loan[] loans;
+        private final int from;
+        private final int to;
+
+        private CountTask(Loan[] loans, int from, int to) {
+            this.loans = loans;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ObjectIntMap<String> compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                ObjectIntMap<String> counts = new ObjectIntMap<>(to - from);
+                for (int i = from; i < to; i++) {
+                    counts.addTo(loans[i].getIsbn(), 1);
+                }
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(loans, from, mid);
+            left.fork();
+            ObjectIntMap<String> right = new CountTask(loans, mid, to).compute();
+            ObjectIntMap<String> merged = left.join();
+            ObjectIntMap<String> smaller = right;
+            if (merged.size() < right.size()) {
+                smaller = merged;
+                merged = right;
+            }
+            smaller.forEach(merged::addTo);
+            return merged;
+        }
+    }
+
+    /**
+     * Compares a slice of the books against the loan counts, which are only read.
+     */
+    private static final class CompareTask extends RecursiveTask<List<Mismatch>> {
+        private final Book[] books;
+        private final int from;
+        private final int to;
+        private final ObjectIntMap<String> onLoan;
+
+        private CompareTask(Book[] books, int from, int to, ObjectIntMap<String> onLoan) {
+            this.books = books;
+            this.from = from;
+            this.to = to;
+            this.onLoan = onLoan;
+        }
+
+        @Override
+        protected List<Mismatch> compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                List<Mismatch> result = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    Mismatch mismatch = Mismatch.of(books[i], onLoan.get(books[i].getIsbn()));
+                    if (mismatch != null) {
+                        result.add(mismatch);
+                    }
+                }
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            CompareTask left = new CompareTask(books, from, mid, onLoan);
+            left.fork();
+            List<Mismatch> right = new CompareTask(books, mid, to, onLoan).compute();
+            List<Mismatch> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+
+    /**
+     * Book whose stock counter disagrees with its loan records.
+     *
+     * @param isbn      ISBN
+     * @param title     title
+     * @param total     total copies
+     * @param available copies the counter says are on the shelf
+     * @param onLoan    copies out according to the active loans
+     */
+    public static record Mismatch(String isbn, String title, int total, int available, int onLoan) {
+        static Mismatch of(Book book, int onLoan) {
+            if (book.getTotal() - book.getAvailable() == onLoan) {
+                return null;
+            }
+            return new Mismatch(book.getIsbn(), book.getTitle(), book.getTotal(), book.getAvailable(), onLoan);
+        }
+
+        /**
+         * @return whether the counter can be repaired, which requires no more loans than copies
+         */
+        public boolean repairable() {
+            return onLoan <= total;
+        }
+    }
+
+    /**
+     * Outcome of one check.
+     *
+     * @param incremental   whether only touched books were checked
+     * @param checked       number of books checked
+     * @param mismatches    mismatched books as found by the check, ordered by ISBN
+     * @param repaired      number of counters rewritten; mismatches that resolved themselves or have more
+     *                      loans than copies are left alone
+     * @param elapsedMillis wall-clock duration including repairs
+     */
+    public static record Report(boolean incremental, int checked, List<Mismatch> mismatches, int repaired,
+            long elapsedMillis) {
+    }
+}
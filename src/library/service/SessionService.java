@@ -0,0 +1,165 @@
+package library.service;
+
+import java.io.Closeable;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import library.domain.user.User;
+import library.exception.AuthException;
+import library.util.TimingWheel;
+
+/**
+ * Opaque-token session store backed by {@link AuthService}.
+ * <p>
+ * Clients log in once and then present the token; a lookup is a single concurrent map read plus a
+ * volatile write of the access time. Sliding expiry is handled by a {@link TimingWheel}: each session has
+ * one timer, and when it fires the session is either dropped or, if it was used in the meantime,
+ * rescheduled for the remainder of its idle window. No sweep over all sessions ever runs.
+ */
+public class SessionService implements Closeable {
+    private static final long TICK_MILLIS = 1_000L;
+    private static final int WHEEL_SIZE = 256;
+    private static final int LEVELS = 3;
+    private static final int TOKEN_BYTES = 24;
+
+    private final AuthService authService;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final TimingWheel<Session> wheel;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * Creates the store.
+     *
+     * @param authService service used to verify credentials
+     * @param ttl         idle time after which a session expires
+     * @param clock       time source
+     */
+    public SessionService(AuthService authService, Duration ttl, Clock clock) {
+        this.authService = Objects.requireNonNull(authService, "authService");
+        this.ttlMillis = Objects.requireNonNull(ttl, "ttl").toMillis();
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, LEVELS, clock.millis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts expiring idle sessions on a background daemon thread.
+     */
+    public void start() {
+        ticker.scheduleAtFixedRate(this::expireIdle, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Verifies the credentials and opens a session.
+     *
+     * @param id          user identifier
+     * @param rawPassword password provided by the user
+     * @return opaque session token
+     */
+    public String login(String id, String rawPassword) {
+        User user = authService.login(id, rawPassword);
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = clock.millis();
+        Session session = new Session(token, user, now);
+        sessions.put(token, session);
+        session.timeout = wheel.schedule(now + ttlMillis, session);
+        return token;
+    }
+
+    /**
+     * Resolves a token to its user and extends the session's idle window.
+     *
+     * @param token session token
+     * @return authenticated user
+     */
+    public User authenticate(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session == null) {
+            throw new AuthException("로그인 필요");
+        }
+        long now = clock.millis();
+        if (now - session.lastAccess >= ttlMillis) {
+            if (sessions.remove(token, session)) {
+                wheel.cancel(session.timeout);
+            }
+            throw new AuthException("세션이 만료되었습니다. 다시 로그인하세요.");
+        }
+        session.lastAccess = now;
+        return session.user;
+    }
+
+    /**
+     * Ends a session and cancels its expiry timer.
+     *
+     * @param token session token
+     */
+    public void logout(String token) {
+        Session session = token == null ? null : sessions.remove(token);
+        if (session != null) {
+            wheel.cancel(session.timeout);
+        }
+    }
+
+    /**
+     * @return number of live sessions
+     */
+    public int activeSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Fires due session timers, removing sessions that stayed idle for the whole window.
+     */
+    public void expireIdle() {
+        long now = clock.millis();
+        wheel.advanceTo(now, session -> {
+            if (sessions.get(session.token) != session) {
+                return;
+            }
+            long deadline = session.lastAccess + ttlMillis;
+            if (deadline <= now) {
+                sessions.remove(session.token, session);
+            } else {
+                session.timeout = wheel.schedule(deadline, session);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private static final class Session {
+        private final String token;
+        private final User user;
+        private volatile long lastAccess;
+        private volatile TimingWheel.Timeout<Session> timeout;
+
+        private Session(String token, User user, long lastAccess) {
+            this.token = token;
+            this.user = user;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
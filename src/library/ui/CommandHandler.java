@@ -0,0 +1,15 @@
+package library.ui;
+
+/**
+ * Handler for one console command.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Executes the command.
+     *
+     * @param command tokenized input line; token 0 is the command name
+     * @return {@code false} if the processor should terminate
+     */
+    boolean handle(CommandLine command);
+}
@@ -0,0 +1,120 @@
+package library.ui;
+
+import library.exception.ValidationException;
+
+/**
+ * Reusable whitespace tokenizer over a single input line.
+ * <p>
+ * Parsing only records token boundaries in an internal offset array, so tokenizing and command lookup
+ * allocate nothing; a {@link String} is created only when a handler asks for a token's text. An instance
+ * is reset by every {@link #parse(String)} call and must not be shared between threads.
+ */
+public final class CommandLine {
+    private String line = "";
+    private int[] bounds = new int[16];
+    private int count;
+
+    /**
+     * Tokenizes a line, replacing any previous contents. Characters up to and including U+0020 separate
+     * tokens, matching {@link String#trim()}.
+     *
+     * @param input raw input line
+     * @return this instance
+     */
+    public CommandLine parse(String input) {
+        line = input == null ? "" : input;
+        count = 0;
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && line.charAt(i) <= ' ') {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            int start = i;
+            while (i < length && line.charAt(i) > ' ') {
+                i++;
+            }
+            if (count * 2 == bounds.length) {
+                int[] grown = new int[bounds.length * 2];
+                System.arraycopy(bounds, 0, grown, 0, bounds.length);
+                bounds = grown;
+            }
+            bounds[count * 2] = start;
+            bounds[count * 2 + 1] = i;
+            count++;
+        }
+        return this;
+    }
+
+    /**
+     * @return number of tokens, including the command name
+     */
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return the line last passed to {@link #parse(String)}
+     */
+    public String line() {
+        return line;
+    }
+
+    public int start(int index) {
+        checkIndex(index);
+        return bounds[index * 2];
+    }
+
+    public int end(int index) {
+        checkIndex(index);
+        return bounds[index * 2 + 1];
+    }
+
+    /**
+     * @return text of the token at {@code index}
+     */
+    public String token(int index) {
+        return line.substring(start(index), end(index));
+    }
+
+    /**
+     * Returns a required argument.
+     *
+     * @param index token index
+     * @param usage message used when the argument is missing
+     * @return token text
+     */
+    public String require(int index, String usage) {
+        if (index >= count) {
+            throw new ValidationException(usage);
+        }
+        return token(index);
+    }
+
+    /**
+     * Returns everything from the token at {@code index} to the last token, with inner whitespace kept.
+     *
+     * @param index first token index
+     * @param usage message used when there is no such token
+     * @return remaining text
+     */
+    public String requireRest(int index, String usage) {
+        if (index >= count) {
+            throw new ValidationException(usage);
+        }
+        return line.substring(bounds[index * 2], bounds[count * 2 - 1]);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+}
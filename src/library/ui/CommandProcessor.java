@@ -1,42 +1,83 @@
 package library.ui;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.function.Consumer;
 
 import library.app.ApplicationContext;
 import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.domain.loan.RuleTableLoanPolicy;
 import library.domain.user.User;
 import library.exception.AuthException;
 import library.exception.BusinessRuleException;
 import library.exception.NotFoundException;
 import library.exception.ValidationException;
-import library.service.AuthService;
-import library.service.BookService;
-import library.service.LoanService;
-import library.service.OverdueService;
+import library.repo.CachingBookRepository;
+import library.repo.CategoryCount;
+import library.repo.Completion;
+import library.repo.FacetedSearch;
+import library.repo.Page;
+import library.repo.SortField;
+import library.service.DropBoxReturnService.ImportResult;
+import library.service.ExportService;
 import library.service.OverdueService.OverdueEntry;
+import library.service.ReconciliationService;
+import library.service.RecommendationService;
 
 /**
  * Parses console commands and delegates to application services.
+ * <p>
+ * Commands are dispatched through a {@link CommandRegistry}; additional commands can be plugged in with
+ * {@link #register(String, CommandHandler)}. A read-only processor, used on replication followers, refuses
+ * the commands that change books, loans or users. An instance keeps per-console state and is not
+ * thread-safe.
  */
 public class CommandProcessor {
+    private static final int SEARCH_RECOMMENDATIONS = 3;
+    private static final int COMPLETIONS = 10;
+    private static final int BROWSE_PAGE_SIZE = 20;
+    private static final int MAX_BROWSE_PAGE_SIZE = 200;
+    private static final String BROWSE_USAGE =
+            "사용법: browse <title|author|category> [from] [limit] | browse more [limit]";
+    private static final String HELD_ON_USAGE = "사용법: heldon <isbn|user> <id> <yyyy-mm-dd>";
+
     private final ConsoleIO console;
-    private final AuthService authService;
-    private final BookService bookService;
-    private final LoanService loanService;
-    private final OverdueService overdueService;
     private final ApplicationContext context;
+    private final boolean readOnly;
+
+    private final CommandRegistry registry = new CommandRegistry();
+    private final CommandLine commandLine = new CommandLine();
 
-    private User session;
+    private String sessionToken;
+    private SortField browseField;
+    private String browseToken;
 
     public CommandProcessor(ConsoleIO console, ApplicationContext context) {
+        this(console, context, false);
+    }
+
+    /**
+     * @param readOnly whether to refuse commands that change books, loans or users
+     */
+    public CommandProcessor(ConsoleIO console, ApplicationContext context, boolean readOnly) {
         this.console = console;
         this.context = context;
-        this.authService = context.getAuthService();
-        this.bookService = context.getBookService();
-        this.loanService = context.getLoanService();
-        this.overdueService = context.getOverdueService();
+        this.readOnly = readOnly;
+        registerBuiltins();
+    }
+
+    /**
+     * Adds a command. Names are matched ignoring case and may not clash with an existing command.
+     *
+     * @param name    command name
+     * @param handler handler invoked with the tokenized line
+     */
+    public void register(String name, CommandHandler handler) {
+        registry.register(name, handler);
     }
 
     /**
@@ -46,70 +87,18 @@ public class CommandProcessor {
      * @return {@code false} if the processor requested termination
      */
     public boolean handle(String line) {
-        if (line == null) {
+        CommandLine command = commandLine.parse(line);
+        if (command.isEmpty()) {
             return true;
         }
-        String trimmed = line.trim();
-        if (trimmed.isEmpty()) {
+
+        CommandHandler handler = registry.find(command.line(), command.start(0), command.end(0));
+        if (handler == null) {
+            console.println("알 수 없는 명령입니다. help를 입력하세요.");
             return true;
         }
-
-        String[] parts = trimmed.split("\\s+");
-        String commandToken = parts[0];
-        String command = commandToken.toLowerCase(Locale.ROOT);
-
         try {
-            return switch (command) {
-                case "help" -> {
-                    HelpPrinter.print(console);
-                    yield true;
-                }
-                case "exit" -> {
-                    console.println("프로그램을 종료합니다.");
-                    yield false;
-                }
-                case "register" -> {
-                    handleRegister();
-                    yield true;
-                }
-                case "login" -> {
-                    handleLogin();
-                    yield true;
-                }
-                case "logout" -> {
-                    session = null;
-                    console.println("로그아웃되었습니다.");
-                    yield true;
-                }
-                case "search" -> {
-                    handleSearch(parts, "사용법: search <keyword>");
-                    yield true;
-                }
-                case "loan" -> {
-                    handleLoan(trimmed, commandToken);
-                    yield true;
-                }
-                case "return" -> {
-                    handleReturn(trimmed, commandToken);
-                    yield true;
-                }
-                case "addstock" -> {
-                    handleAddStock(parts);
-                    yield true;
-                }
-                case "writeoff" -> {
-                    handleWriteOff(parts);
-                    yield true;
-                }
-                case "overdue" -> {
-                    handleOverdue();
-                    yield true;
-                }
-                default -> {
-                    console.println("알 수 없는 명령입니다. help를 입력하세요.");
-                    yield true;
-                }
-            };
+            return handler.handle(command);
         } catch (AuthException | NotFoundException | BusinessRuleException | ValidationException e) {
             console.println("[오류] " + e.getMessage());
         } catch (Exception e) {
@@ -118,107 +107,334 @@ public class CommandProcessor {
         return true;
     }
 
+    private void registerBuiltins() {
+        registry.register("help", command -> {
+            HelpPrinter.print(console);
+            return true;
+        });
+        registry.register("exit", command -> {
+            console.println("프로그램을 종료합니다.");
+            return false;
+        });
+        registry.register("register", mutating(action(command -> handleRegister())));
+        registry.register("login", action(command -> handleLogin()));
+        registry.register("logout", command -> {
+            context.getSessionService().logout(sessionToken);
+            sessionToken = null;
+            console.println("로그아웃되었습니다.");
+            return true;
+        });
+        registry.register("search", action(this::handleSearch));
+        registry.register("browse", action(this::handleBrowse));
+        registry.register("complete", action(this::handleComplete));
+        registry.register("loan", mutating(action(this::handleLoan)));
+        registry.register("return", mutating(action(this::handleReturn)));
+        registry.register("addstock", mutating(action(this::handleAddStock)));
+        registry.register("writeoff", mutating(action(this::handleWriteOff)));
+        registry.register("overdue", action(command -> handleOverdue()));
+        registry.register("dropbox", mutating(action(this::handleDropBox)));
+        registry.register("export", action(this::handleExport));
+        registry.register("reloadpolicy", action(command -> handleReloadPolicy()));
+        registry.register("cachestats", action(command -> handleCacheStats()));
+        registry.register("heldon", action(this::handleHeldOn));
+        registry.register("reconcile", mutating(action(this::handleReconcile)));
+    }
+
+    private CommandHandler mutating(CommandHandler handler) {
+        if (!readOnly) {
+            return handler;
+        }
+        return command -> {
+            console.println("[오류] 읽기 전용 팔로워에서는 사용할 수 없는 명령입니다.");
+            return true;
+        };
+    }
+
+    private static CommandHandler action(Consumer<CommandLine> action) {
+        return command -> {
+            action.accept(command);
+            return true;
+        };
+    }
+
     private void handleRegister() {
         String id = readRequiredLine("id: ").trim();
         String pw = readRequiredLine("pw: ").trim();
         String name = readRequiredLine("이름: ").trim();
-        User newUser = authService.register(id, pw, name);
+        User newUser = context.getAuthService().register(id, pw, name);
         console.println("회원가입 완료: " + newUser.getName());
     }
 
     private void handleLogin() {
         String id = readRequiredLine("id: ").trim();
         String pw = readRequiredLine("pw: ").trim();
-        session = authService.login(id, pw);
+        context.getSessionService().logout(sessionToken);
+        sessionToken = context.getSessionService().login(id, pw);
+        User session = context.getSessionService().authenticate(sessionToken);
         console.println("로그인: " + session.getName() + " (" + session.getRole() + ")");
     }
 
-    private void handleSearch(String[] parts, String usage) {
-        String keyword = requireArg(parts, 1, usage);
-        List<Book> books = context.getBookRepository().searchByTitle(keyword);
+    /**
+     * Lists title matches, optionally narrowed to one category, after a line of match counts per category.
+     */
+    private void handleSearch(CommandLine command) {
+        String keyword = command.require(1, "사용법: search <keyword> [category]");
+        String category = command.size() > 2 ? command.token(2) : null;
+        FacetedSearch search = context.getBookRepository().facetedSearch(keyword, category);
+        if (!search.categories().isEmpty()) {
+            StringBuilder facets = new StringBuilder("분류: ");
+            for (int i = 0; i < search.categories().size(); i++) {
+                CategoryCount count = search.categories().get(i);
+                facets.append(i == 0 ? "" : " | ").append(String.format("%s (%,d)", count.category(), count.count()));
+            }
+            console.println(facets.toString());
+        }
+        List<Book> books = search.books();
+        RecommendationService recommendations = context.getRecommendationService();
         for (Book book : books) {
             console.println(book.getTitle() + " | " + book.getAuthor() + " | 재고:" + book.getAvailable());
+            List<Book> alsoBorrowed = recommendations.alsoBorrowed(book.getIsbn(), SEARCH_RECOMMENDATIONS);
+            if (!alsoBorrowed.isEmpty()) {
+                StringBuilder line = new StringBuilder("  함께 대출된 도서: ");
+                for (int i = 0; i < alsoBorrowed.size(); i++) {
+                    line.append(i == 0 ? "" : ", ").append(alsoBorrowed.get(i).getTitle());
+                }
+                console.println(line.toString());
+            }
         }
     }
 
-    private void handleLoan(String line, String commandToken) {
-        requireLogin();
-        String token = requireRemaining(line, commandToken, "사용법: loan <isbn|title>");
+    /**
+     * Lists the catalog one page at a time in title, author or category order. {@code browse more}
+     * resumes after the last page shown by this console.
+     */
+    private void handleBrowse(CommandLine command) {
+        String first = command.require(1, BROWSE_USAGE);
+        SortField field;
+        String from = null;
+        String pageToken = null;
+        int limitIndex;
+        if (first.equalsIgnoreCase("more")) {
+            if (browseToken == null) {
+                throw new ValidationException("이어서 볼 목록이 없습니다");
+            }
+            field = browseField;
+            pageToken = browseToken;
+            limitIndex = 2;
+        } else {
+            field = SortField.parse(first);
+            from = command.size() > 2 ? command.token(2) : null;
+            limitIndex = 3;
+        }
+        if (command.size() > limitIndex + 1) {
+            throw new ValidationException(BROWSE_USAGE);
+        }
+        int limit = BROWSE_PAGE_SIZE;
+        if (command.size() > limitIndex) {
+            limit = parseInt(command.token(limitIndex), "개수는 숫자여야 합니다");
+            if (limit <= 0 || limit > MAX_BROWSE_PAGE_SIZE) {
+                throw new ValidationException("개수는 1 이상 " + MAX_BROWSE_PAGE_SIZE + " 이하여야 합니다");
+            }
+        }
+
+        Page<Book> page = context.getBookRepository().browse(field, from, pageToken, limit);
+        for (Book book : page.items()) {
+            console.println(book.getIsbn() + " | " + book.getTitle() + " | " + book.getAuthor() + " | "
+                    + book.getCategory() + " | 재고:" + book.getAvailable());
+        }
+        browseField = field;
+        browseToken = page.nextToken();
+        console.println(page.hasNext() ? "다음 페이지: browse more" : "목록의 끝입니다.");
+    }
+
+    /**
+     * Lists the titles and authors starting with a prefix, as a kiosk would offer them while typing.
+     */
+    private void handleComplete(CommandLine command) {
+        String prefix = command.requireRest(1, "사용법: complete <prefix>");
+        List<Completion> completions = context.getBookRepository().complete(prefix, COMPLETIONS);
+        if (completions.isEmpty()) {
+            console.println("일치하는 제목이나 저자가 없습니다.");
+        }
+        for (Completion completion : completions) {
+            console.println((completion.field() == SortField.TITLE ? "제목: " : "저자: ") + completion.text()
+                    + " (보유 " + completion.copies() + "권)");
+        }
+    }
+
+    private void handleLoan(CommandLine command) {
+        User session = requireLogin();
+        String token = command.requireRest(1, "사용법: loan <isbn...|title>");
         LocalDate today = LocalDate.now();
-        if (looksLikeIsbn(token)) {
-            loanService.loan(session, token, today);
+        List<String> isbns = isbnList(command);
+        if (isbns != null) {
+            context.getLoanService().loanAll(session, isbns, today);
+        } else if (looksLikeIsbn(token)) {
+            context.getLoanService().loan(session, token, today);
         } else {
-            loanService.loanByTitle(session, token, today);
+            context.getLoanService().loanByTitle(session, token, today);
         }
         console.println("대출 완료: " + token);
     }
 
-    private void handleReturn(String line, String commandToken) {
-        requireLogin();
-        String token = requireRemaining(line, commandToken, "사용법: return <isbn|title>");
+    private void handleReturn(CommandLine command) {
+        User session = requireLogin();
+        String token = command.requireRest(1, "사용법: return <isbn...|title>");
         LocalDate today = LocalDate.now();
-        if (looksLikeIsbn(token)) {
-            loanService.returnBook(session, token, today);
+        List<String> isbns = isbnList(command);
+        if (isbns != null) {
+            context.getLoanService().returnAll(session, isbns, today);
+        } else if (looksLikeIsbn(token)) {
+            context.getLoanService().returnBook(session, token, today);
         } else {
-            loanService.returnByTitle(session, token, today);
+            context.getLoanService().returnByTitle(session, token, today);
         }
         console.println("반납 완료: " + token);
     }
 
-    private void handleAddStock(String[] parts) {
-        requireLogin();
-        String isbn = requireArg(parts, 1, "사용법: addstock <isbn> <n>");
-        String countToken = requireArg(parts, 2, "사용법: addstock <isbn> <n>");
+    private void handleAddStock(CommandLine command) {
+        User session = requireLogin();
+        String isbn = command.require(1, "사용법: addstock <isbn> <n>");
+        String countToken = command.require(2, "사용법: addstock <isbn> <n>");
         int quantity = parseInt(countToken, "수량은 숫자여야 합니다");
-        bookService.addStock(session, isbn, quantity);
+        context.getBookService().addStock(session, isbn, quantity);
         console.println("입고 완료");
     }
 
-    private void handleWriteOff(String[] parts) {
-        requireLogin();
-        String isbn = requireArg(parts, 1, "사용법: writeoff <isbn> <n>");
-        String countToken = requireArg(parts, 2, "사용법: writeoff <isbn> <n>");
+    private void handleWriteOff(CommandLine command) {
+        User session = requireLogin();
+        String isbn = command.require(1, "사용법: writeoff <isbn> <n>");
+        String countToken = command.require(2, "사용법: writeoff <isbn> <n>");
         int quantity = parseInt(countToken, "수량은 숫자여야 합니다");
-        bookService.writeOff(session, isbn, quantity);
+        context.getBookService().writeOff(session, isbn, quantity);
         console.println("폐기/손실 처리 완료");
     }
 
     private void handleOverdue() {
-        requireLogin();
-        List<OverdueEntry> overdues = overdueService.listOverdues(session, LocalDate.now());
+        User session = requireLogin();
+        List<OverdueEntry> overdues = context.getOverdueService().listOverdues(session, LocalDate.now());
         for (OverdueEntry entry : overdues) {
             console.println(entry.user().getName() + " | " + entry.book().getTitle()
                     + " | DUE:" + entry.dueDate() + " | +" + entry.overdueDays() + "일");
         }
     }
 
-    private String readRequiredLine(String prompt) {
-        String line = console.readLine(prompt);
-        if (line == null) {
-            throw new ValidationException("입력이 취소되었습니다.");
+    private void handleDropBox(CommandLine command) {
+        User session = requireLogin();
+        String file = command.require(1, "사용법: dropbox <file>");
+        ImportResult result = context.getDropBoxReturnService().importReturns(session, Path.of(file), LocalDate.now());
+        console.println("반납 처리: " + result.returned() + "권");
+        for (String failure : result.failures()) {
+            console.println("[실패] " + failure);
+        }
+    }
+
+    private void handleExport(CommandLine command) {
+        User session = requireLogin();
+        String report = command.require(1, "사용법: export <inventory|loans|overdue> <file>");
+        String file = command.require(2, "사용법: export <inventory|loans|overdue> <file>");
+        long rows = context.getExportService()
+                .export(session, ExportService.Report.parse(report), Path.of(file), LocalDate.now());
+        console.println("내보내기 완료: " + rows + "건");
+    }
+
+    private void handleReloadPolicy() {
+        User session = requireLogin();
+        if (!session.isAdmin()) {
+            throw new AuthException("관리자 권한 필요");
+        }
+        if (!(context.getLoanPolicy() instanceof RuleTableLoanPolicy policy)) {
+            throw new BusinessRuleException("규칙 파일 기반 대출 정책이 아닙니다");
+        }
+        policy.reload();
+        console.println("대출 정책을 다시 불러왔습니다.");
+    }
+
+    /**
+     * Answers who had a book, or what a user had, on a given date from the loan history.
+     */
+    private void handleHeldOn(CommandLine command) {
+        User session = requireLogin();
+        if (!session.isAdmin()) {
+            throw new AuthException("관리자 권한 필요");
+        }
+        String kind = command.require(1, HELD_ON_USAGE);
+        String id = command.require(2, HELD_ON_USAGE);
+        LocalDate date;
+        try {
+            date = LocalDate.parse(command.require(3, HELD_ON_USAGE));
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("날짜는 yyyy-mm-dd 형식으로 입력하세요");
+        }
+        List<Loan> loans;
+        if (kind.equalsIgnoreCase("isbn")) {
+            loans = context.getLoanRepository().findByIsbnOn(id, date);
+        } else if (kind.equalsIgnoreCase("user")) {
+            loans = context.getLoanRepository().findByUserOn(id, date);
+        } else {
+            throw new ValidationException(HELD_ON_USAGE);
+        }
+        if (loans.isEmpty()) {
+            console.println(date + "에 대출 중이던 기록이 없습니다.");
+        }
+        for (Loan loan : loans) {
+            console.println(loan.getUserId() + " | " + loan.getIsbn() + " | 대출:" + loan.getLoanDate()
+                    + " | 반납:" + (loan.getReturnedAt() == null ? "미반납" : loan.getReturnedAt()));
         }
-        return line;
     }
 
-    private void requireLogin() {
-        if (session == null) {
-            throw new AuthException("로그인 필요");
+    private void handleCacheStats() {
+        User session = requireLogin();
+        if (!session.isAdmin()) {
+            throw new AuthException("관리자 권한 필요");
+        }
+        if (!(context.getBookRepository() instanceof CachingBookRepository cache)) {
+            throw new BusinessRuleException("검색 캐시가 설정되어 있지 않습니다");
         }
+        CachingBookRepository.Stats stats = cache.stats();
+        console.println(String.format("검색 캐시: %d/%d건 | 적중 %d | 미적중 %d | 적중률 %.1f%% | 축출 %d | 무효화 %d",
+                stats.size(), stats.capacity(), stats.hits(), stats.misses(), stats.hitRate() * 100,
+                stats.evictions(), stats.invalidations()));
     }
 
-    private String requireArg(String[] parts, int index, String usage) {
-        if (parts.length <= index) {
-            throw new ValidationException(usage);
+    private void handleReconcile(CommandLine command) {
+        User session = requireLogin();
+        boolean incremental = false;
+        boolean repair = false;
+        for (int i = 1; i < command.size(); i++) {
+            String option = command.token(i);
+            if (option.equalsIgnoreCase("incremental")) {
+                incremental = true;
+            } else if (option.equalsIgnoreCase("repair")) {
+                repair = true;
+            } else {
+                throw new ValidationException("사용법: reconcile [incremental] [repair]");
+            }
+        }
+        ReconciliationService reconciler = context.getReconciliationService();
+        ReconciliationService.Report report = incremental
+                ? reconciler.reconcileTouched(session, repair)
+                : reconciler.reconcileAll(session, repair);
+        for (ReconciliationService.Mismatch mismatch : report.mismatches()) {
+            console.println(mismatch.isbn() + " | " + mismatch.title() + " | 총:" + mismatch.total()
+                    + " 재고:" + mismatch.available() + " 대출 중:" + mismatch.onLoan()
+                    + (mismatch.repairable() ? "" : " | 수동 확인 필요"));
         }
-        return parts[index];
+        console.println(String.format("재고 대사%s: %d권 검사 | 불일치 %d건 | 수정 %d건 | %d ms",
+                report.incremental() ? "(변경분)" : "", report.checked(), report.mismatches().size(),
+                report.repaired(), report.elapsedMillis()));
     }
 
-    private String requireRemaining(String line, String commandToken, String usage) {
-        String remaining = line.substring(commandToken.length()).trim();
-        if (remaining.isEmpty()) {
-            throw new ValidationException(usage);
+    private String readRequiredLine(String prompt) {
+        String line = console.readLine(prompt);
+        if (line == null) {
+            throw new ValidationException("입력이 취소되었습니다.");
         }
-        return remaining;
+        return line;
+    }
+
+    private User requireLogin() {
+        return context.getSessionService().authenticate(sessionToken);
     }
 
     private int parseInt(String value, String message) {
@@ -229,11 +445,35 @@ public class CommandProcessor {
         }
     }
 
+    /**
+     * @return the ISBNs if the arguments are two or more ISBNs, otherwise {@code null}
+     */
+    private List<String> isbnList(CommandLine command) {
+        if (command.size() < 3) {
+            return null;
+        }
+        String line = command.line();
+        for (int i = 1; i < command.size(); i++) {
+            if (!looksLikeIsbn(line, command.start(i), command.end(i))) {
+                return null;
+            }
+        }
+        List<String> isbns = new ArrayList<>(command.size() - 1);
+        for (int i = 1; i < command.size(); i++) {
+            isbns.add(command.token(i));
+        }
+        return isbns;
+    }
+
     private boolean looksLikeIsbn(String value) {
-        if (value == null || value.isEmpty()) {
+        return value != null && looksLikeIsbn(value, 0, value.length());
+    }
+
+    private boolean looksLikeIsbn(String value, int start, int end) {
+        if (start >= end) {
             return false;
         }
-        for (int i = 0; i < value.length(); i++) {
+        for (int i = start; i < end; i++) {
             char c = value.charAt(i);
             if (!(Character.isDigit(c) || c == '-' || c == 'X' || c == 'x')) {
                 return false;
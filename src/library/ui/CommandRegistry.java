@@ -0,0 +1,113 @@
+package library.ui;
+
+import java.util.Objects;
+
+/**
+ * Case-insensitive table of command handlers.
+ * <p>
+ * Lookups hash and compare the command name directly inside the input line, so dispatching a command
+ * neither lower-cases nor copies it. The table uses open addressing with linear probing and is kept at
+ * most half full. Registration is expected to happen during setup, before lookups start.
+ */
+public final class CommandRegistry {
+    private String[] names = new String[32];
+    private CommandHandler[] handlers = new CommandHandler[32];
+    private int size;
+
+    /**
+     * Registers a handler.
+     *
+     * @param name    command name, matched ignoring case
+     * @param handler command handler
+     */
+    public void register(String name, CommandHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("command name is empty");
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) <= ' ') {
+                throw new IllegalArgumentException("command name contains whitespace: " + name);
+            }
+        }
+        if (find(name, 0, name.length()) != null) {
+            throw new IllegalArgumentException("command already registered: " + name);
+        }
+        if ((size + 1) * 2 > names.length) {
+            grow();
+        }
+        insert(name, handler);
+        size++;
+    }
+
+    /**
+     * Looks up the handler for the command name stored in {@code text[start, end)}.
+     *
+     * @return handler, or {@code null} if the name is not registered
+     */
+    public CommandHandler find(CharSequence text, int start, int end) {
+        int mask = names.length - 1;
+        for (int slot = hash(text, start, end) & mask; names[slot] != null; slot = (slot + 1) & mask) {
+            if (matches(names[slot], text, start, end)) {
+                return handlers[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return number of registered commands
+     */
+    public int size() {
+        return size;
+    }
+
+    private void insert(String name, CommandHandler handler) {
+        int mask = names.length - 1;
+        int slot = hash(name, 0, name.length()) & mask;
+        while (names[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+        handlers[slot] = handler;
+    }
+
+    private void grow() {
+        String[] oldNames = names;
+        CommandHandler[] oldHandlers = handlers;
+        names = new String[oldNames.length * 2];
+        handlers = new CommandHandler[oldNames.length * 2];
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                insert(oldNames[i], oldHandlers[i]);
+            }
+        }
+    }
+
+    private static boolean matches(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (fold(name.charAt(i)) != fold(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + fold(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -1,20 +1,26 @@
 package library.ui;
 
+import java.io.BufferedReader;
 import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.util.Objects;
-import java.util.Scanner;
 
 /**
- * Lightweight wrapper around {@link Scanner} for console interaction.
+ * Lightweight line reader and printer for console interaction. Reads with a {@link BufferedReader}
+ * rather than a {@code Scanner}, whose locale and pattern set-up costs tens of milliseconds at start-up.
  */
 public class ConsoleIO implements Closeable {
-    private final Scanner scanner;
+    private final BufferedReader reader;
     private final PrintStream out;
 
     public ConsoleIO(InputStream in, PrintStream out) {
-        this.scanner = new Scanner(Objects.requireNonNull(in, "in"));
+        this.reader = new BufferedReader(
+                new InputStreamReader(Objects.requireNonNull(in, "in"), Charset.defaultCharset()));
         this.out = Objects.requireNonNull(out, "out");
     }
 
@@ -22,10 +28,11 @@ public class ConsoleIO implements Closeable {
         if (prompt != null) {
             out.print(prompt);
         }
-        if (!scanner.hasNextLine()) {
-            return null;
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return scanner.nextLine();
     }
 
     public void println(String message) {
@@ -38,6 +45,10 @@ public class ConsoleIO implements Closeable {
 
     @Override
     public void close() {
-        scanner.close();
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -11,12 +11,21 @@ public final class HelpPrinter {
         console.println("명령어:");
         console.println("  register");
         console.println("  login / logout");
-        console.println("  search <keyword>");
-        console.println("  loan <isbn|title>");
-        console.println("  return <isbn|title>");
+        console.println("  search <keyword> [category]");
+        console.println("  browse <title|author|category> [from] [limit] / browse more [limit]");
+        console.println("  complete <prefix>");
+        console.println("  loan <isbn...|title>");
+        console.println("  return <isbn...|title>");
         console.println("  (관리자) addstock <isbn> <n>");
         console.println("  (관리자) writeoff <isbn> <n>");
         console.println("  (관리자) overdue");
+        console.println("  (관리자) dropbox <file>");
+        console.println("  (관리자) export <inventory|loans|overdue> <file>");
+        console.println("  (관리자) reloadpolicy");
+        console.println("  (관리자) cachestats");
+        console.println("  (관리자) heldon <isbn|user> <id> <yyyy-mm-dd>");
+        console.println("  (관리자) reconcile [incremental] [repair]");
+        console.println("  replication (--replicate 또는 --follow로 실행한 경우)");
         console.println("  exit");
     }
 }
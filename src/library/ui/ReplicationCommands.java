@@ -0,0 +1,58 @@
+package library.ui;
+
+import library.replication.ReplicationClient;
+import library.replication.ReplicationServer;
+import library.replication.ReplicationServer.FollowerStatus;
+
+/**
+ * {@code replication} command handlers for a primary and for a follower, plugged in with
+ * {@link CommandProcessor#register(String, CommandHandler)}.
+ */
+public final class ReplicationCommands {
+    private ReplicationCommands() {
+    }
+
+    /**
+     * @return handler printing the journal end and every connected follower's lag
+     */
+    public static CommandHandler primary(ConsoleIO console, ReplicationServer server) {
+        return command -> {
+            console.println("복제 주 서버: " + server.address() + ", 저널 끝 " + server.journalEnd()
+                    + ", 인증 거부 " + server.rejected() + "건");
+            if (server.followers().isEmpty()) {
+                console.println("연결된 팔로워가 없습니다.");
+            }
+            for (FollowerStatus follower : server.followers()) {
+                console.println("  " + follower.address() + " | 전송:" + follower.sent()
+                        + " | 확인:" + follower.acked() + " | 지연:" + follower.lag() + "건"
+                        + " | 스냅샷:" + follower.snapshots());
+            }
+            return true;
+        };
+    }
+
+    /**
+     * @return handler printing the follower's position and lag behind its primary
+     */
+    public static CommandHandler follower(ConsoleIO console, ReplicationClient client) {
+        return command -> {
+            ReplicationClient.Status status = client.status();
+            console.println("복제 팔로워: 주 서버 " + status.primary()
+                    + (status.connected() ? " (연결됨)" : " (연결 끊김)")
+                    + (status.snapshotting() ? " - 스냅샷 수신 중" : ""));
+            console.println("  적용 위치:" + status.position() + " | 주 서버 저널 끝:" + status.primaryEnd()
+                    + " | 지연:" + describe(status.lagRecords(), "건") + ", " + describe(status.lagMillis(), "ms"));
+            console.println("  적용 건수:" + status.applied() + " | 스냅샷:" + status.snapshots()
+                    + " | 재연결:" + status.reconnects()
+                    + " | 마지막 응답:" + describe(status.sinceContact(), "ms 전"));
+            if (status.lastError() != null) {
+                console.println("  마지막 오류: " + status.lastError());
+            }
+            return true;
+        };
+    }
+
+    private static String describe(long value, String unit) {
+        return value < 0 ? "알 수 없음" : value + unit;
+    }
+}
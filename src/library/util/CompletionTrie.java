@@ -0,0 +1,432 @@
+package library.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Weighted keys answering "the heaviest keys starting with this prefix", for type-ahead.
+ * <p>
+ * Keys live in a radix trie: every edge carries a string and every node without a key of its own has at
+ * least two children, so there are fewer inner nodes than keys. Edge labels are not copied out of the
+ * keys; a node records a key from its subtree and the range of it that forms its label. Each inner node
+ * caches its subtree's heaviest keys, up to the capacity given at construction, ranked by weight and then
+ * by key; a leaf's cache is the leaf itself and costs nothing. A query walks the prefix down the edges and
+ * copies the cache of the node it ends at, so it costs the length of the prefix plus the number of
+ * results, however many keys start with it.
+ * <p>
+ * An update fixes the caches on the key's path bottom-up. A new or heavier key is slotted into each cache
+ * in O(capacity). A lighter or removed key that drops out of a full cache makes the node re-rank its
+ * children's caches, which is only expensive for nodes with many children near the root and is rare next
+ * to queries.
+ * <p>
+ * Queries may run concurrently with each other; {@link #put} and {@link #remove} need exclusive access.
+ *
+ * @param <V> value stored with each key
+ */
+public final class CompletionTrie<V> {
+    private static final Node[] NO_CHILDREN = {};
+
+    private final int capacity;
+    private final Node root = new Node("", 0, 0);
+    private int size;
+
+    /**
+     * @param capacity largest number of completions a query can return
+     */
+    public CompletionTrie(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a key or replaces its weight and value.
+     *
+     * @param key    key, compared char by char
+     * @param weight weight, not negative
+     * @param value  value returned with the key
+     */
+    public void put(String key, long weight, V value) {
+        Objects.requireNonNull(key, "key");
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative");
+        }
+        List<Node> path = new ArrayList<>();
+        Node node = insert(key, path);
+        boolean lighter = node.terminal && weight < node.weight;
+        if (!node.terminal) {
+            size++;
+        }
+        node.terminal = true;
+        node.source = key;
+        node.weight = weight;
+        node.value = value;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            reposition(path.get(i), node, lighter);
+        }
+    }
+
+    /**
+     * @return value stored with the key, or {@code null} if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        Node node = find(key, null);
+        return node == null || !node.terminal ? null : (V) node.value;
+    }
+
+    /**
+     * @return whether the key was present
+     */
+    public boolean remove(String key) {
+        Objects.requireNonNull(key, "key");
+        List<Node> path = new ArrayList<>();
+        Node node = find(key, path);
+        if (node == null || !node.terminal) {
+            return false;
+        }
+        node.terminal = false;
+        node.value = null;
+        size--;
+
+        int last = path.size() - 1;
+        if (node != root && node.children.length <= 1) {
+            Node parent = path.get(last - 1);
+            if (node.children.length == 0) {
+                parent.removeChild(node);
+                path.remove(last--);
+                if (parent != root && !parent.terminal && parent.children.length == 1) {
+                    path.get(last - 1).replaceChild(absorb(parent));
+                    path.remove(last--);
+                }
+            } else {
+                parent.replaceChild(absorb(node));
+                path.remove(last--);
+            }
+        }
+        for (int i = last; i >= 0; i--) {
+            Node ancestor = path.get(i);
+            if (ancestor.children.length == 0) {
+                ancestor.top = null;
+                continue;
+            }
+            int index = ancestor.indexOf(node);
+            if (index < 0) {
+                // A key missing from a cache is missing from every cache above it.
+                break;
+            }
+            if (ancestor.top.length == capacity) {
+                rerank(ancestor);
+            } else {
+                ancestor.top = without(ancestor.top, index);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param prefix prefix the keys must start with
+     * @param limit  maximum number of completions, at most the capacity
+     * @return heaviest keys starting with {@code prefix}, heaviest first and then by key
+     */
+    @SuppressWarnings("unchecked")
+    public List<Entry<V>> complete(String prefix, int limit) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int index = node.find(prefix.charAt(pos));
+            if (index < 0) {
+                return List.of();
+            }
+            Node child = node.children[index];
+            int common = child.commonPrefix(prefix, pos);
+            if (pos + common == prefix.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.length()) {
+                return List.of();
+            }
+            node = child;
+            pos += common;
+        }
+        int count = Math.min(Math.min(limit, capacity), topCount(node));
+        List<Entry<V>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Node match = topAt(node, i);
+            result.add(new Entry<>(match.source, match.weight, (V) match.value));
+        }
+        return result;
+    }
+
+    /**
+     * @return number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param path receives the nodes from the root down to the result, or {@code null}
+     * @return node whose path spells {@code key}, or {@code null}
+     */
+    private Node find(String key, List<Node> path) {
+        Node node = root;
+        if (path != null) {
+            path.add(node);
+        }
+        int pos = 0;
+        while (pos < key.length()) {
+            int index = node.find(key.charAt(pos));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int length = child.length();
+            if (child.commonPrefix(key, pos) < length) {
+                return null;
+            }
+            node = child;
+            if (path != null) {
+                path.add(node);
+            }
+            pos += length;
+        }
+        return node;
+    }
+
+    /**
+     * Finds or creates the node for {@code key}, splitting an edge where the key leaves it, and records
+     * the nodes from the root down to it. Nodes that gain children here get their cache on the way back up
+     * in {@link #reposition}.
+     */
+    private Node insert(String key, List<Node> path) {
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            int index = node.find(key.charAt(pos));
+            if (index < 0) {
+                Node leaf = new Node(key, pos, key.length());
+                node.addChild(-index - 1, leaf);
+                path.add(leaf);
+                return leaf;
+            }
+            Node child = node.children[index];
+            int common = child.commonPrefix(key, pos);
+            if (common < child.length()) {
+                Node middle = new Node(child.source, child.start, child.start + common);
+                child.start += common;
+                middle.children = new Node[] {child};
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            pos += common;
+        }
+        return node;
+    }
+
+    /**
+     * Moves {@code changed} to its rank in the node's cache after its weight changed or it was added.
+     */
+    private void reposition(Node node, Node changed, boolean lighter) {
+        if (node.children.length == 0) {
+            return;
+        }
+        if (node.top == null) {
+            rerank(node);
+            return;
+        }
+        int index = node.indexOf(changed);
+        if (index >= 0) {
+            if (lighter && node.top.length == capacity) {
+                rerank(node);
+                return;
+            }
+            node.top = without(node.top, index);
+        } else if (node.top.length == capacity && !ranksBefore(changed, node.top[capacity - 1])) {
+            return;
+        }
+        node.top = offer(node.top, node.top.length, changed);
+    }
+
+    /**
+     * Rebuilds the node's cache from its own key and its children's caches, which are already correct.
+     */
+    private void rerank(Node node) {
+        Node[] top = new Node[capacity];
+        int size = 0;
+        if (node.terminal) {
+            top[size++] = node;
+        }
+        for (Node child : node.children) {
+            int count = topCount(child);
+            for (int j = 0; j < count; j++) {
+                Node candidate = topAt(child, j);
+                if (size == capacity && !ranksBefore(candidate, top[capacity - 1])) {
+                    break;
+                }
+                top = offer(top, size, candidate);
+                size = Math.min(size + 1, capacity);
+            }
+        }
+        node.top = size == capacity ? top : Arrays.copyOf(top, size);
+    }
+
+    /**
+     * Inserts a key node at its rank among the first {@code size} entries of {@code top}, dropping the last
+     * one if the cache is full.
+     *
+     * @return the cache, grown by one if it was neither full nor had room
+     */
+    private Node[] offer(Node[] top, int size, Node candidate) {
+        int index = size;
+        while (index > 0 && ranksBefore(candidate, top[index - 1])) {
+            index--;
+        }
+        if (index == capacity) {
+            return top;
+        }
+        if (size == top.length && size < capacity) {
+            top = Arrays.copyOf(top, size + 1);
+        }
+        int moved = Math.min(size, capacity - 1) - index;
+        System.arraycopy(top, index, top, index + 1, moved);
+        top[index] = candidate;
+        return top;
+    }
+
+    private static Node[] without(Node[] nodes, int index) {
+        Node[] result = new Node[nodes.length - 1];
+        System.arraycopy(nodes, 0, result, 0, index);
+        System.arraycopy(nodes, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    /**
+     * Merges a node that no longer needs to exist into its only child, which takes its place. The child's
+     * source key runs through the node's label too, so only the start of its range moves.
+     */
+    private static Node absorb(Node node) {
+        Node child = node.children[0];
+        child.start = node.start;
+        return child;
+    }
+
+    private static int topCount(Node node) {
+        if (node.children.length == 0) {
+            return node.terminal ? 1 : 0;
+        }
+        return node.top.length;
+    }
+
+    private static Node topAt(Node node, int index) {
+        return node.children.length == 0 ? node : node.top[index];
+    }
+
+    private static boolean ranksBefore(Node a, Node b) {
+        return a.weight != b.weight ? a.weight > b.weight : a.source.compareTo(b.source) < 0;
+    }
+
+    /**
+     * Completion.
+     *
+     * @param key    key starting with the prefix
+     * @param weight its weight
+     * @param value  value stored with it
+     */
+    public record Entry<V>(String key, long weight, V value) {
+    }
+
+    /**
+     * Trie node. Its label is {@code source[start, end)}, where {@code source} is its own key if it has one
+     * and otherwise a key below it. Children are ordered by the first char of their labels; {@code top} is
+     * the cache, exactly as long as it is full, and {@code null} on leaves.
+     */
+    private static final class Node {
+        private String source;
+        private int start;
+        private final int end;
+        private Node[] children = NO_CHILDREN;
+        private boolean terminal;
+        private long weight;
+        private Object value;
+        private Node[] top;
+
+        private Node(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        private int length() {
+            return end - start;
+        }
+
+        /**
+         * @return how many chars of the label match {@code text} from {@code offset}
+         */
+        private int commonPrefix(String text, int offset) {
+            int max = Math.min(end - start, text.length() - offset);
+            int i = 0;
+            while (i < max && source.charAt(start + i) == text.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+
+        /**
+         * @return index of the child whose label starts with {@code c}, or {@code -(insertion point) - 1}
+         */
+        private int find(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                Node child = children[mid];
+                char first = child.source.charAt(child.start);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void addChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        private void removeChild(Node child) {
+            children = without(children, find(child.source.charAt(child.start)));
+        }
+
+        /**
+         * Puts {@code replacement} in place of the child whose label starts with the same char.
+         */
+        private void replaceChild(Node replacement) {
+            children[find(replacement.source.charAt(replacement.start))] = replacement;
+        }
+
+        private int indexOf(Node node) {
+            for (int i = 0; i < top.length; i++) {
+                if (top[i] == node) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
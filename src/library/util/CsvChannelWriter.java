@@ -0,0 +1,170 @@
+package library.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes RFC 4180 CSV rows to a file channel in UTF-8. Characters are staged in a reusable char buffer
+ * and encoded into a reusable direct byte buffer, so memory use is constant regardless of file size.
+ * Not thread-safe.
+ */
+public final class CsvChannelWriter implements Closeable {
+    private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+    private boolean rowStart = true;
+    private long rows;
+
+    /**
+     * Opens the file for writing, replacing any existing content.
+     *
+     * @param file target file
+     */
+    public CsvChannelWriter(Path file) {
+        try {
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends a text field, quoting it when it contains a delimiter, quote or line break.
+     */
+    public CsvChannelWriter field(String value) {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (needsQuoting(value)) {
+            put('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put('"');
+                }
+                put(c);
+            }
+            put('"');
+        } else {
+            for (int i = 0; i < value.length(); i++) {
+                put(value.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends a numeric field without boxing or string conversion.
+     */
+    public CsvChannelWriter field(long value) {
+        separator();
+        if (value < 0) {
+            put('-');
+        } else {
+            value = -value;
+        }
+        long divisor = -1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor != 0) {
+            put((char) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+        return this;
+    }
+
+    /**
+     * Terminates the current row.
+     */
+    public void endRow() {
+        put('\r');
+        put('\n');
+        rowStart = true;
+        rows++;
+    }
+
+    /**
+     * @return number of rows written so far
+     */
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            encode(true);
+            encoder.flush(bytes);
+            drainBytes();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void separator() {
+        if (!rowStart) {
+            put(',');
+        }
+        rowStart = false;
+    }
+
+    private void put(char c) {
+        if (!chars.hasRemaining()) {
+            try {
+                encode(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        chars.put(c);
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drainBytes();
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        chars.compact();
+    }
+
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
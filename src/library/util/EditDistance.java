@@ -0,0 +1,75 @@
+package library.util;
+
+/**
+ * Levenshtein distance with an early cut-off.
+ * <p>
+ * Only the diagonal band of width {@code 2 * bound + 1} is evaluated and the computation stops as soon
+ * as every cell in a row exceeds the bound, so the cost is {@code O(bound * length)} rather than
+ * {@code O(length^2)}. Instances keep their row buffers between calls and are not thread-safe.
+ */
+public final class EditDistance {
+    private int[] previous = new int[64];
+    private int[] current = new int[64];
+
+    /**
+     * Computes the edit distance between two strings.
+     *
+     * @param a     first string
+     * @param b     second string
+     * @param bound largest distance of interest
+     * @return the distance, or {@code bound + 1} if it exceeds {@code bound}
+     */
+    public int distance(CharSequence a, CharSequence b, int bound) {
+        if (bound < 0) {
+            throw new IllegalArgumentException("bound must not be negative");
+        }
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > bound) {
+            return bound + 1;
+        }
+        if (m + 1 > previous.length) {
+            previous = new int[Math.max(m + 1, previous.length * 2)];
+            current = new int[previous.length];
+        }
+        int limit = bound + 1;
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, limit);
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - bound);
+            int to = Math.min(m, i + bound);
+            current[from - 1] = from == 1 ? Math.min(i, limit) : limit;
+            char ca = a.charAt(i - 1);
+            int rowMin = current[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                if (value > limit) {
+                    value = limit;
+                }
+                current[j] = value;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if (to < m) {
+                current[to + 1] = limit;
+            }
+            if (rowMin > bound) {
+                return limit;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    /**
+     * Computes the exact edit distance between two strings.
+     */
+    public int distance(CharSequence a, CharSequence b) {
+        return distance(a, b, Math.max(a.length(), b.length()));
+    }
+}
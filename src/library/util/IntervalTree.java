@@ -0,0 +1,201 @@
+package library.util;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Set of closed intervals {@code [start, end]} answering "which intervals contain point p".
+ * <p>
+ * Intervals are kept in a treap ordered by start and then by a caller-supplied id, and every node records
+ * the largest end in its subtree. A stabbing query skips any subtree whose largest end is before the point
+ * and stops at the first start after it, so it costs O(log n) plus at most O(log n) per match, and close to
+ * O(1) per match when matches sit next to each other in start order. Random priorities keep the expected
+ * depth logarithmic whatever order intervals arrive in. Insert, replace and remove are O(log n) expected.
+ * <p>
+ * Not thread-safe; callers guard it.
+ *
+ * @param <K> id type, unique among intervals with the same start
+ * @param <V> value type
+ */
+public final class IntervalTree<K extends Comparable<? super K>, V> {
+    private Node<K, V> root;
+    private int size;
+    private boolean replaced;
+
+    /**
+     * Adds an interval, replacing the one with the same start and id.
+     *
+     * @param start first point covered
+     * @param end   last point covered, not before {@code start}
+     * @param id    id distinguishing intervals with the same start
+     * @param value value reported by queries
+     */
+    public void put(long start, long end, K id, V value) {
+        if (end < start) {
+            throw new IllegalArgumentException("end must not be before start");
+        }
+        Objects.requireNonNull(id, "id");
+        replaced = false;
+        root = insert(root, start, end, id, value);
+        if (!replaced) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes the interval with the given start and id.
+     *
+     * @return whether it was present
+     */
+    public boolean remove(long start, K id) {
+        int before = size;
+        root = delete(root, start, id);
+        return size != before;
+    }
+
+    /**
+     * Reports every interval containing {@code point}, ordered by start and then id.
+     *
+     * @param point  point to look up
+     * @param action receives the value of each interval
+     */
+    public void stab(long point, Consumer<? super V> action) {
+        stab(root, point, action);
+    }
+
+    /**
+     * @return number of intervals
+     */
+    public int size() {
+        return size;
+    }
+
+    private static <K extends Comparable<? super K>, V> void stab(Node<K, V> node, long point,
+            Consumer<? super V> action) {
+        while (node != null && node.maxEnd >= point) {
+            stab(node.left, point, action);
+            if (node.start > point) {
+                return;
+            }
+            if (node.end >= point) {
+                action.accept(node.value);
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * Inserts below {@code node}, or updates the existing interval in place so that re-saving an interval,
+     * the common case, costs one descent and no allocation.
+     */
+    private Node<K, V> insert(Node<K, V> node, long start, long end, K id, V value) {
+        if (node == null) {
+            return new Node<>(start, end, id, value, ThreadLocalRandom.current().nextInt());
+        }
+        int cmp = compare(start, id, node);
+        if (cmp == 0) {
+            node.end = end;
+            node.value = value;
+            replaced = true;
+        } else if (cmp < 0) {
+            node.left = insert(node.left, start, end, id, value);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, start, end, id, value);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<K, V> delete(Node<K, V> node, long start, K id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> merge(Node<K, V> left, Node<K, V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        return left;
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        return right;
+    }
+
+    private static <K extends Comparable<? super K>> int compare(long start, K id, Node<K, ?> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : id.compareTo(node.id);
+    }
+
+    private static final class Node<K, V> {
+        private final long start;
+        private final K id;
+        private final int priority;
+        private long end;
+        private V value;
+        private long maxEnd;
+        private Node<K, V> left;
+        private Node<K, V> right;
+
+        private Node(long start, long end, K id, V value, int priority) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        private void update() {
+            long max = end;
+            if (left != null && left.maxEnd > max) {
+                max = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > max) {
+                max = right.maxEnd;
+            }
+            maxEnd = max;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package library.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Streaming JSON writer. Values are written straight to the underlying {@link Writer} as they are
+ * appended, without building a tree or reflecting over objects; the only state kept is one bit per
+ * nesting level recording whether a separator is due. Not thread-safe.
+ */
+public final class JsonWriter implements Closeable, Flushable {
+    private static final int MAX_DEPTH = 63;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+    private final Writer out;
+    private final char[] digits = new char[20];
+    private long separatorDue;
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * @param out destination; closed when this writer is closed
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() {
+        return open('{');
+    }
+
+    public JsonWriter endObject() {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() {
+        return open('[');
+    }
+
+    public JsonWriter endArray() {
+        return close(']');
+    }
+
+    /**
+     * Writes a member name; the next call must write its value.
+     */
+    public JsonWriter name(String name) {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("name outside of an object");
+        }
+        separator();
+        string(name);
+        put(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        separator();
+        string(value);
+        return this;
+    }
+
+    /**
+     * Writes an integer without boxing or string conversion.
+     */
+    public JsonWriter value(long value) {
+        separator();
+        if (value == Long.MIN_VALUE) {
+            write("-9223372036854775808");
+            return this;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        try {
+            out.write(digits, pos, digits.length - pos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separator();
+        write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        separator();
+        write("null");
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter open(char bracket) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("nesting too deep");
+        }
+        separator();
+        put(bracket);
+        depth++;
+        separatorDue &= ~(1L << depth);
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("unbalanced " + bracket);
+        }
+        depth--;
+        put(bracket);
+        return this;
+    }
+
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        long bit = 1L << depth;
+        if ((separatorDue & bit) != 0) {
+            put(',');
+        }
+        separatorDue |= bit;
+    }
+
+    private void string(String value) {
+        put('"');
+        int length = value.length();
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != LINE_SEPARATOR && c != PARAGRAPH_SEPARATOR) {
+                continue;
+            }
+            writeRange(value, run, i);
+            run = i + 1;
+            switch (c) {
+                case '"' -> write("\\\"");
+                case '\\' -> write("\\\\");
+                case '\n' -> write("\\n");
+                case '\r' -> write("\\r");
+                case '\t' -> write("\\t");
+                default -> {
+                    write("\\u");
+                    put(HEX[c >>> 12 & 0xf]);
+                    put(HEX[c >>> 8 & 0xf]);
+                    put(HEX[c >>> 4 & 0xf]);
+                    put(HEX[c & 0xf]);
+                }
+            }
+        }
+        writeRange(value, run, length);
+        put('"');
+    }
+
+    private void writeRange(String value, int start, int end) {
+        if (start < end) {
+            try {
+                out.write(value, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void put(char c) {
+        try {
+            out.write(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package library.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Approximate string index: q-gram postings filter the candidates, Levenshtein distance verifies them.
+ * <p>
+ * Grams are four characters long, packed into a {@code long}. Texts are padded with three sentinel
+ * characters on each side, so a text of length {@code n} has {@code n + 3} grams. One edit changes at most
+ * four of them, so a text within {@code k} edits of a query contains all but {@code 4k} of the query's
+ * distinct grams. A search therefore counts hits only over the postings of the query's rarest grams (the
+ * {@code 4k + 1} that guarantee one hit, plus a few more so that a minimum hit count can be demanded),
+ * drops candidates below that count or whose length differs by more than {@code k}, and runs a banded
+ * {@link EditDistance} on the rest. Queries too short for the filter to say anything fall back to a scan
+ * of all texts. Four-character grams are noticeably more selective than trigrams on large catalogs, which
+ * keeps the postings walked per search small.
+ * Hit counting uses a reusable per-thread array indexed by text id, so a search allocates little beyond
+ * its results.
+ * <p>
+ * Searches may run concurrently with each other; {@link #put} and {@link #remove} need exclusive access.
+ */
+public final class QGramIndex {
+    private static final int GRAM = 4;
+    private static final char PAD = '\u0002';
+    private static final int EXTRA_LISTS = 3;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Postings freeIds = new Postings();
+    private int[] lengths = new int[1024];
+
+    /**
+     * Indexes a text under a key, replacing the key's previous text.
+     *
+     * @param key  identifier returned by searches
+     * @param text normalized text
+     */
+    public void put(String key, String text) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(text, "text");
+        Integer existing = idsByKey.get(key);
+        int id;
+        if (existing != null) {
+            id = existing;
+            if (texts.get(id).equals(text)) {
+                return;
+            }
+            unindex(id, texts.get(id));
+            texts.set(id, text);
+        } else if (freeIds.size > 0) {
+            id = freeIds.ids[--freeIds.size];
+            keys.set(id, key);
+            texts.set(id, text);
+            idsByKey.put(key, id);
+        } else {
+            id = keys.size();
+            keys.add(key);
+            texts.add(text);
+            idsByKey.put(key, id);
+        }
+        if (id >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(id + 1, lengths.length * 2));
+        }
+        lengths[id] = text.length();
+        for (long gram : distinctGrams(text)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Removes a key and its text.
+     *
+     * @return {@code true} if the key was indexed
+     */
+    public boolean remove(String key) {
+        Integer id = idsByKey.remove(key);
+        if (id == null) {
+            return false;
+        }
+        unindex(id, texts.get(id));
+        keys.set(id, null);
+        texts.set(id, null);
+        freeIds.add(id);
+        return true;
+    }
+
+    /**
+     * Finds keys whose text lies within {@code maxDistance} edits of the query.
+     *
+     * @param query       normalized query
+     * @param maxDistance largest accepted edit distance
+     * @return matches ordered by distance, then text
+     */
+    public List<Match> search(String query, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance must not be negative");
+        }
+        EditDistance editDistance = new EditDistance();
+        List<Match> matches = new ArrayList<>();
+        long[] grams = distinctGrams(query);
+        int required = grams.length - GRAM * maxDistance;
+        if (required <= 0) {
+            for (int id = 0; id < texts.size(); id++) {
+                verify(id, query, maxDistance, editDistance, matches);
+            }
+        } else {
+            Postings[] lists = new Postings[grams.length];
+            int found = 0;
+            for (long gram : grams) {
+                Postings list = postings.get(gram);
+                if (list != null) {
+                    lists[found++] = list;
+                }
+            }
+            if (found >= required) {
+                Arrays.sort(lists, 0, found, Comparator.comparingInt(list -> list.size));
+                int scan = Math.min(found, found - required + 1 + EXTRA_LISTS);
+                int minHits = required - (found - scan);
+                Scratch scratch = SCRATCH.get().ensureCapacity(keys.size());
+                byte[] hits = scratch.hits;
+                int touched = 0;
+                for (int i = 0; i < scan; i++) {
+                    Postings list = lists[i];
+                    for (int p = 0; p < list.size; p++) {
+                        int id = list.ids[p];
+                        if (Math.abs(lengths[id] - query.length()) <= maxDistance) {
+                            if (hits[id] == 0) {
+                                scratch.touch(touched++, id);
+                            }
+                            if (hits[id] < Byte.MAX_VALUE) {
+                                hits[id]++;
+                            }
+                        }
+                    }
+                }
+                int[] candidates = scratch.touched;
+                for (int i = 0; i < touched; i++) {
+                    int id = candidates[i];
+                    if (hits[id] >= minHits) {
+                        verify(id, query, maxDistance, editDistance, matches);
+                    }
+                    hits[id] = 0;
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::text));
+        return matches;
+    }
+
+    /**
+     * @return number of indexed keys
+     */
+    public int size() {
+        return idsByKey.size();
+    }
+
+    private void verify(int id, String query, int maxDistance, EditDistance editDistance, List<Match> matches) {
+        String text = texts.get(id);
+        if (text == null || Math.abs(text.length() - query.length()) > maxDistance) {
+            return;
+        }
+        int d = editDistance.distance(query, text, maxDistance);
+        if (d <= maxDistance) {
+            matches.add(new Match(keys.get(id), text, d));
+        }
+    }
+
+    private void unindex(int id, String text) {
+        for (long gram : distinctGrams(text)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static long[] distinctGrams(String text) {
+        int n = text.length() + GRAM - 1;
+        long[] grams = new long[n];
+        for (int i = 0; i < n; i++) {
+            long gram = 0;
+            for (int c = i - GRAM + 1; c <= i; c++) {
+                gram = (gram << Character.SIZE) | charAt(text, c);
+            }
+            grams[i] = gram;
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == n ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    private static char charAt(String text, int index) {
+        return index < 0 || index >= text.length() ? PAD : text.charAt(index);
+    }
+
+    /**
+     * Search result.
+     *
+     * @param key      indexed key
+     * @param text     indexed text
+     * @param distance edit distance from the query
+     */
+    public record Match(String key, String text, int distance) {
+    }
+
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Per-thread hit counters indexed by text id; only touched entries are reset after a search.
+     */
+    private static final class Scratch {
+        private byte[] hits = new byte[0];
+        private int[] touched = new int[1024];
+
+        private Scratch ensureCapacity(int ids) {
+            if (hits.length < ids) {
+                hits = new byte[Math.max(ids, hits.length * 2)];
+            }
+            return this;
+        }
+
+        private void touch(int index, int id) {
+            if (index == touched.length) {
+                touched = Arrays.copyOf(touched, index * 2);
+            }
+            touched[index] = id;
+        }
+    }
+}
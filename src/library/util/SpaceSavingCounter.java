@@ -0,0 +1,115 @@
+package library.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Approximate frequency counter over a stream of keys in fixed space (Metwally et al., "Space-Saving").
+ * <p>
+ * At most {@code capacity} keys are monitored. A key that is not monitored while all slots are taken
+ * evicts the key with the smallest count and inherits that count plus one, recording the inherited part
+ * as its error. Counts therefore never underestimate, overestimate by at most the recorded error, and any
+ * key seen more than {@code n / capacity} times in {@code n} additions is guaranteed to be monitored. Sizing
+ * the capacity a few times larger than the number of top keys wanted keeps those keys stable.
+ * <p>
+ * Slots are plain arrays scanned linearly, which for the small capacities this is meant for is cheaper in
+ * time and far cheaper in memory than a hash map per counter. Arrays grow on demand up to the capacity.
+ * Not thread-safe.
+ */
+public final class SpaceSavingCounter {
+    private static final int INITIAL_SLOTS = 4;
+
+    private final int capacity;
+    private String[] keys;
+    private int[] counts;
+    private int[] errors;
+    private int size;
+
+    /**
+     * @param capacity maximum number of monitored keys
+     */
+    public SpaceSavingCounter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        int slots = Math.min(capacity, INITIAL_SLOTS);
+        this.keys = new String[slots];
+        this.counts = new int[slots];
+        this.errors = new int[slots];
+    }
+
+    /**
+     * Counts one occurrence of the key.
+     *
+     * @param key key to count
+     */
+    public void add(String key) {
+        Objects.requireNonNull(key, "key");
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                counts[i]++;
+                return;
+            }
+        }
+        if (size < capacity) {
+            if (size == keys.length) {
+                int slots = Math.min(capacity, keys.length * 2);
+                keys = Arrays.copyOf(keys, slots);
+                counts = Arrays.copyOf(counts, slots);
+                errors = Arrays.copyOf(errors, slots);
+            }
+            keys[size] = key;
+            counts[size] = 1;
+            errors[size] = 0;
+            size++;
+            return;
+        }
+        int min = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[min]) {
+                min = i;
+            }
+        }
+        keys[min] = key;
+        errors[min] = counts[min];
+        counts[min]++;
+    }
+
+    /**
+     * Returns the most frequent monitored keys.
+     *
+     * @param limit maximum number of keys
+     * @return keys by descending count, ties by key
+     */
+    public List<Count> top(int limit) {
+        List<Count> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            all.add(new Count(keys[i], counts[i], errors[i]));
+        }
+        all.sort(Count.RANKING);
+        return all.size() <= limit ? all : new ArrayList<>(all.subList(0, limit));
+    }
+
+    /**
+     * @return number of monitored keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimated frequency of a monitored key.
+     *
+     * @param key   key
+     * @param count estimated number of occurrences, never below the true number
+     * @param error amount by which {@code count} may exceed the true number
+     */
+    public record Count(String key, int count, int error) {
+        static final Comparator<Count> RANKING = Comparator.comparingInt(Count::count).reversed()
+                .thenComparing(Count::key);
+    }
+}
@@ -0,0 +1,234 @@
+package library.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for scheduling large numbers of timers.
+ * <p>
+ * Each level holds {@code wheelSize} slots; a slot at level {@code n} spans {@code wheelSize^n} ticks.
+ * Timers are kept in intrusive doubly linked lists so that scheduling and cancellation are O(1) and
+ * the wheel only allocates one node per pending timer. Timers further out than the top level are
+ * parked in the top level and re-cascaded until they fall within range.
+ * <p>
+ * All operations are guarded by the wheel's monitor and are safe to call from multiple threads. Expiry
+ * callbacks run after the monitor is released, so a slow callback never holds up scheduling or
+ * cancelling, however many timers share a deadline.
+ *
+ * @param <T> timer payload type
+ */
+public final class TimingWheel<T> {
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Timeout<T>[][] slots;
+    private final Timeout<T> expired;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a timing wheel.
+     *
+     * @param tickMillis duration of one tick in milliseconds
+     * @param wheelSize  slots per level, must be a power of two
+     * @param levels     number of levels
+     * @param startMillis wall-clock time the wheel starts at
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        if (levels < 1 || (long) Integer.numberOfTrailingZeros(wheelSize) * levels >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("levels out of range");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.slots = new Timeout[levels][wheelSize];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots[level][slot] = sentinel();
+            }
+        }
+        this.expired = sentinel();
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a timer. Deadlines in the past fire on the next tick.
+     *
+     * @param deadlineMillis wall-clock deadline in milliseconds
+     * @param payload        value handed to the expiry callback
+     * @return handle usable for {@link #cancel(Timeout)}
+     */
+    public synchronized Timeout<T> schedule(long deadlineMillis, T payload) {
+        Objects.requireNonNull(payload, "payload");
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(this, deadlineTick, payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a pending timer.
+     *
+     * @param timeout handle returned by {@link #schedule(long, Object)}
+     * @return {@code true} if the timer was pending and is now cancelled
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.wheel != this || timeout.prev == null) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time, invoking {@code onExpire} for every timer that became due.
+     * Callbacks run on the calling thread in deadline order once the wheel is unlocked, so they may
+     * schedule or cancel timers.
+     *
+     * @param nowMillis current wall-clock time
+     * @param onExpire  expiry callback
+     * @return number of timers fired
+     */
+    public int advanceTo(long nowMillis, Consumer<? super T> onExpire) {
+        List<T> due = expire(nowMillis);
+        due.forEach(onExpire);
+        return due.size();
+    }
+
+    /**
+     * Advances the wheel to the given time and removes every timer that became due.
+     *
+     * @param nowMillis current wall-clock time
+     * @return payloads of the expired timers in deadline order
+     */
+    public synchronized List<T> expire(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = 1; level < slots.length; level++) {
+                int shift = bits * level;
+                if ((currentTick & ((1L << shift) - 1)) != 0) {
+                    break;
+                }
+                Timeout<T> node = detach(slots[level][(int) ((currentTick >>> shift) & mask)]);
+                while (node != null) {
+                    Timeout<T> next = node.next;
+                    place(node);
+                    node = next;
+                }
+            }
+            Timeout<T> node = detach(slots[0][(int) (currentTick & mask)]);
+            while (node != null) {
+                Timeout<T> next = node.next;
+                if (node.deadlineTick <= currentTick) {
+                    append(expired, node);
+                } else {
+                    place(node);
+                }
+                node = next;
+            }
+            while (expired.next != expired) {
+                Timeout<T> timeout = expired.next;
+                unlink(timeout);
+                size--;
+                due.add(timeout.payload);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * @return number of pending timers
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private Timeout<T> sentinel() {
+        Timeout<T> head = new Timeout<>(this, 0L, null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    private Timeout<T> detach(Timeout<T> head) {
+        if (head.next == head) {
+            return null;
+        }
+        Timeout<T> first = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        for (Timeout<T> node = first; node != null; node = node.next) {
+            node.prev = null;
+        }
+        return first;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = Math.max(timeout.deadlineTick - currentTick, 0L);
+        int top = slots.length - 1;
+        int level = 0;
+        while (level < top && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        long tick = currentTick + delta;
+        if (level == top && delta >= (1L << (bits * (top + 1)))) {
+            tick = currentTick + (1L << (bits * (top + 1))) - 1;
+        }
+        append(slots[level][(int) ((tick >>> (bits * level)) & mask)], timeout);
+    }
+
+    private void append(Timeout<T> head, Timeout<T> timeout) {
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    /**
+     * Handle for a scheduled timer; doubles as the list node inside its slot.
+     *
+     * @param <T> payload type
+     */
+    public static final class Timeout<T> {
+        private final TimingWheel<T> wheel;
+        private final long deadlineTick;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(TimingWheel<T> wheel, long deadlineTick, T payload) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+}
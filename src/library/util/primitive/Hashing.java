@@ -0,0 +1,52 @@
+package library.util.primitive;
+
+/**
+ * Hash mixing and sizing shared by the primitive maps.
+ */
+final class Hashing {
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {
+    }
+
+    /**
+     * Spreads the bits of a hash code so that linear probing over a power-of-two table does not cluster
+     * on keys that differ only in their high bits (murmur3 finalizer).
+     */
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    /**
+     * @return power-of-two table size that holds {@code expected} entries at a load factor of 0.5
+     */
+    static int capacityFor(int expected) {
+        if (expected < 0) {
+            throw new IllegalArgumentException("expected must not be negative");
+        }
+        long needed = Math.max(8L, (long) expected * 2);
+        if (needed > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    static int resizeThreshold(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY - 1;
+        }
+        return capacity / 2;
+    }
+}
@@ -0,0 +1,192 @@
+package library.util.primitive;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Open-addressing hash map from object keys to {@code int} values without boxing.
+ * <p>
+ * Keys and values live in two parallel arrays probed linearly; removal shifts the following cluster back
+ * instead of leaving tombstones, so lookups never slow down after churn. {@code null} keys are not
+ * allowed. Not thread-safe.
+ *
+ * @param <K> key type
+ */
+public final class ObjectIntMap<K> {
+    private Object[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public ObjectIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected number of entries the map should hold without resizing
+     */
+    public ObjectIntMap(int expected) {
+        allocate(Hashing.capacityFor(expected));
+    }
+
+    /**
+     * @return the value for {@code key}, or {@code 0} if absent
+     */
+    public int get(K key) {
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(K key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return the previous value, or {@code 0} if absent
+     */
+    public int put(K key, int value) {
+        int slot = slotFor(key);
+        if (keys[slot] != null) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        insertAt(slot, key, value);
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to the value for {@code key}, treating an absent key as {@code 0}.
+     *
+     * @return the new value
+     */
+    public int addTo(K key, int delta) {
+        int slot = slotFor(key);
+        if (keys[slot] != null) {
+            return values[slot] += delta;
+        }
+        insertAt(slot, key, delta);
+        return delta;
+    }
+
+    /**
+     * @return the removed value, or {@code 0} if absent
+     */
+    public int remove(K key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return 0;
+        }
+        int previous = values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * Calls {@code action} for every entry, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Entries<? super K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(Object key) {
+        Objects.requireNonNull(key, "key");
+        int slot = Hashing.mix(key.hashCode()) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotFor(Object key) {
+        Objects.requireNonNull(key, "key");
+        int slot = Hashing.mix(key.hashCode()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertAt(int slot, Object key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void shiftBack(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != null) {
+            int home = Hashing.mix(keys[next].hashCode()) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = Hashing.mix(oldKeys[i].hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.resizeThreshold(capacity);
+    }
+
+    /**
+     * Entry visitor.
+     *
+     * @param <K> key type
+     */
+    @FunctionalInterface
+    public interface Entries<K> {
+        void accept(K key, int value);
+    }
+}
@@ -0,0 +1,368 @@
+package library.web;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import library.app.ApplicationContext;
+import library.domain.book.Book;
+import library.domain.loan.Loan;
+import library.domain.user.User;
+import library.exception.AuthException;
+import library.exception.BusinessRuleException;
+import library.exception.NotFoundException;
+import library.exception.ValidationException;
+import library.repo.CategoryCount;
+import library.repo.Completion;
+import library.repo.FacetedSearch;
+import library.service.BookService;
+import library.service.LoanService;
+import library.service.OverdueService;
+import library.service.SessionService;
+import library.util.JsonWriter;
+
+/**
+ * HTTP/JSON front end over the application services, for kiosks and the web catalog.
+ * <p>
+ * Runs on the JDK {@link HttpServer} with one virtual thread per request, so a handler blocked on the
+ * MVCC write lock or a slow client parks cheaply instead of pinning a pool thread. Requests carry
+ * parameters in the query string or a form body and authenticate with {@code Authorization: Bearer
+ * <token>} issued by {@code POST /api/sessions}. Responses are written with {@link JsonWriter} into a
+ * {@link ResponseBody}, which sends small bodies with a length and large ones chunked, so connections are
+ * kept alive either way.
+ *
+ * <pre>
+ * POST   /api/sessions           id, password     log in
+ * DELETE /api/sessions                            log out
+ * GET    /api/books              q [, category]   search titles, with match counts per category
+ * GET    /api/books/completions  prefix           up to 10 titles and authors for type-ahead
+ * POST   /api/loans              isbn... | title  borrow
+ * POST   /api/returns            isbn... | title  return
+ * POST   /api/stock/add          isbn, quantity   (admin) add copies
+ * POST   /api/stock/writeoff     isbn, quantity   (admin) write copies off
+ * GET    /api/overdue                             (admin) overdue report, streamed
+ * </pre>
+ */
+public class ApiServer implements Closeable {
+    private static final int BACKLOG = 1024;
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final int COMPLETIONS = 10;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, every keep-alive response
+        // after the first waits for the client's delayed ACK (~40 ms). Must be set before the server
+        // implementation reads its configuration.
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    private final ApplicationContext context;
+    private final SessionService sessionService;
+    private final LoanService loanService;
+    private final BookService bookService;
+    private final OverdueService overdueService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Binds the server; call {@link #start()} to begin accepting requests.
+     *
+     * @param context application services
+     * @param address address to bind, port {@code 0} for an ephemeral port
+     */
+    public ApiServer(ApplicationContext context, InetSocketAddress address) {
+        this.context = Objects.requireNonNull(context, "context");
+        this.sessionService = context.getSessionService();
+        this.loanService = context.getLoanService();
+        this.bookService = context.getBookService();
+        this.overdueService = context.getOverdueService();
+        try {
+            this.server = HttpServer.create(address, BACKLOG);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::dispatch);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return bound port
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting connections, gives in-flight requests a moment to finish and releases the executor.
+     */
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        ResponseBody body = new ResponseBody(exchange);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        JsonWriter json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8)));
+        try {
+            route(exchange, RequestParams.of(exchange), body, json);
+        } catch (RuntimeException e) {
+            if (body.isCommitted()) {
+                exchange.close();
+                return;
+            }
+            json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8)));
+            body.reset();
+            body.status(statusOf(e));
+            json.beginObject().name("error").value(messageOf(e)).endObject();
+        }
+        json.close();
+        exchange.close();
+    }
+
+    private void route(HttpExchange exchange, RequestParams params, ResponseBody body, JsonWriter json) {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        switch (path) {
+            case "/api/sessions" -> {
+                if (method.equals("POST")) {
+                    login(params, body, json);
+                } else if (method.equals("DELETE")) {
+                    sessionService.logout(token(exchange));
+                    body.status(204);
+                } else {
+                    throw ApiError.methodNotAllowed();
+                }
+            }
+            case "/api/books" -> {
+                requireMethod(method, "GET");
+                search(params, json);
+            }
+            case "/api/books/completions" -> {
+                requireMethod(method, "GET");
+                complete(params, json);
+            }
+            case "/api/loans" -> {
+                requireMethod(method, "POST");
+                loan(authenticate(exchange), params, body, json);
+            }
+            case "/api/returns" -> {
+                requireMethod(method, "POST");
+                giveBack(authenticate(exchange), params, json);
+            }
+            case "/api/stock/add", "/api/stock/writeoff" -> {
+                requireMethod(method, "POST");
+                stock(authenticate(exchange), path.endsWith("/add"), params, json);
+            }
+            case "/api/overdue" -> {
+                requireMethod(method, "GET");
+                overdue(authenticate(exchange), json);
+            }
+            default -> throw new ApiError(404, "알 수 없는 경로입니다");
+        }
+    }
+
+    private void login(RequestParams params, ResponseBody body, JsonWriter json) {
+        String token;
+        try {
+            token = sessionService.login(params.require("id"), params.require("password"));
+        } catch (AuthException e) {
+            throw new ApiError(401, e.getMessage());
+        }
+        User user = sessionService.authenticate(token);
+        body.status(201);
+        json.beginObject()
+                .name("token").value(token)
+                .name("id").value(user.getId())
+                .name("name").value(user.getName())
+                .name("role").value(user.getRole().name())
+                .endObject();
+    }
+
+    private void search(RequestParams params, JsonWriter json) {
+        FacetedSearch search = context.getBookRepository().facetedSearch(params.require("q"), params.get("category"));
+        json.beginObject().name("books").beginArray();
+        for (Book book : search.books()) {
+            writeBook(json, book);
+        }
+        json.endArray().name("categories").beginArray();
+        for (CategoryCount count : search.categories()) {
+            json.beginObject().name("category").value(count.category()).name("count").value(count.count()).endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private void complete(RequestParams params, JsonWriter json) {
+        List<Completion> completions = context.getBookRepository().complete(params.require("prefix"), COMPLETIONS);
+        json.beginObject().name("completions").beginArray();
+        for (Completion completion : completions) {
+            json.beginObject()
+                    .name("text").value(completion.text())
+                    .name("field").value(completion.field().name())
+                    .name("copies").value(completion.copies())
+                    .endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private void loan(User user, RequestParams params, ResponseBody body, JsonWriter json) {
+        LocalDate today = LocalDate.now();
+        List<String> isbns = params.all("isbn");
+        List<Loan> loans;
+        if (!isbns.isEmpty()) {
+            loans = isbns.size() == 1
+                    ? List.of(loanService.loan(user, isbns.get(0), today))
+                    : loanService.loanAll(user, isbns, today);
+        } else {
+            loans = List.of(loanService.loanByTitle(user, params.require("title"), today));
+        }
+        body.status(201);
+        json.beginObject().name("loans").beginArray();
+        for (Loan loan : loans) {
+            json.beginObject()
+                    .name("loanId").value(loan.getLoanId())
+                    .name("isbn").value(loan.getIsbn())
+                    .name("loanDate").value(loan.getLoanDate().toString())
+                    .name("dueDate").value(loan.getDueDate().toString())
+                    .endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private void giveBack(User user, RequestParams params, JsonWriter json) {
+        LocalDate today = LocalDate.now();
+        List<String> isbns = params.all("isbn");
+        int returned;
+        if (isbns.size() == 1) {
+            loanService.returnBook(user, isbns.get(0), today);
+            returned = 1;
+        } else if (!isbns.isEmpty()) {
+            returned = loanService.returnAll(user, isbns, today).size();
+        } else {
+            loanService.returnByTitle(user, params.require("title"), today);
+            returned = 1;
+        }
+        json.beginObject().name("returned").value(returned).endObject();
+    }
+
+    private void stock(User user, boolean add, RequestParams params, JsonWriter json) {
+        String isbn = params.require("isbn");
+        int quantity = params.requireInt("quantity");
+        if (add) {
+            bookService.addStock(user, isbn, quantity);
+        } else {
+            bookService.writeOff(user, isbn, quantity);
+        }
+        Book book = context.getBookRepository().findByIsbn(isbn)
+                .orElseThrow(() -> new NotFoundException("도서를 찾을 수 없습니다"));
+        writeBook(json, book);
+    }
+
+    private void overdue(User user, JsonWriter json) {
+        if (!user.isAdmin()) {
+            throw new AuthException("관리자 권한 필요");
+        }
+        json.beginObject().name("overdue").beginArray();
+        overdueService.forEachOverdue(user, LocalDate.now(), entry -> json.beginObject()
+                .name("userId").value(entry.user().getId())
+                .name("name").value(entry.user().getName())
+                .name("isbn").value(entry.book().getIsbn())
+                .name("title").value(entry.book().getTitle())
+                .name("dueDate").value(entry.dueDate().toString())
+                .name("overdueDays").value(entry.overdueDays())
+                .endObject());
+        json.endArray().endObject();
+    }
+
+    private static void writeBook(JsonWriter json, Book book) {
+        json.beginObject()
+                .name("isbn").value(book.getIsbn())
+                .name("title").value(book.getTitle())
+                .name("author").value(book.getAuthor())
+                .name("category").value(book.getCategory())
+                .name("available").value(book.getAvailable())
+                .name("total").value(book.getTotal())
+                .endObject();
+    }
+
+    private User authenticate(HttpExchange exchange) {
+        try {
+            return sessionService.authenticate(token(exchange));
+        } catch (AuthException e) {
+            throw new ApiError(401, e.getMessage());
+        }
+    }
+
+    private static String token(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw ApiError.methodNotAllowed();
+        }
+    }
+
+    private static int statusOf(RuntimeException e) {
+        if (e instanceof ApiError error) {
+            return error.status;
+        }
+        if (e instanceof ValidationException) {
+            return 400;
+        }
+        if (e instanceof AuthException) {
+            return 403;
+        }
+        if (e instanceof NotFoundException) {
+            return 404;
+        }
+        if (e instanceof BusinessRuleException) {
+            return 409;
+        }
+        return 500;
+    }
+
+    private static String messageOf(RuntimeException e) {
+        return statusOf(e) == 500 ? "예상치 못한 오류: " + e.getMessage() : e.getMessage();
+    }
+
+    /**
+     * Failure that maps to a specific HTTP status rather than a domain exception.
+     */
+    private static final class ApiError extends RuntimeException {
+        private final int status;
+
+        private ApiError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        private static ApiError methodNotAllowed() {
+            return new ApiError(405, "허용되지 않는 메서드입니다");
+        }
+    }
+}
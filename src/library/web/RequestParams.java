@@ -0,0 +1,128 @@
+package library.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import library.exception.ValidationException;
+
+/**
+ * Parameters of one request: the query string plus, for form posts, the
+ * {@code application/x-www-form-urlencoded} body. A name may repeat.
+ */
+final class RequestParams {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String FORM_TYPE = "application/x-www-form-urlencoded";
+
+    private final Map<String, List<String>> values = new HashMap<>();
+
+    private RequestParams() {
+    }
+
+    static RequestParams of(HttpExchange exchange) throws IOException {
+        RequestParams params = new RequestParams();
+        params.parse(exchange.getRequestURI().getRawQuery());
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (type != null && type.toLowerCase(Locale.ROOT).startsWith(FORM_TYPE)) {
+            params.parse(readBody(exchange.getRequestBody()));
+        }
+        return params;
+    }
+
+    /**
+     * @return the first value, or {@code null} if absent or blank
+     */
+    String get(String name) {
+        List<String> list = values.get(name);
+        if (list == null) {
+            return null;
+        }
+        String value = list.get(0).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    String require(String name) {
+        String value = get(name);
+        if (value == null) {
+            throw new ValidationException(name + " 값을 입력하세요");
+        }
+        return value;
+    }
+
+    int requireInt(String name) {
+        try {
+            return Integer.parseInt(require(name));
+        } catch (NumberFormatException e) {
+            throw new ValidationException(name + " 값은 숫자여야 합니다");
+        }
+    }
+
+    /**
+     * @return every non-blank value of the name, in request order
+     */
+    List<String> all(String name) {
+        List<String> list = values.get(name);
+        if (list == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(list.size());
+        for (String value : list) {
+            String trimmed = value.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(trimmed);
+            }
+        }
+        return result;
+    }
+
+    private void parse(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        int start = 0;
+        while (start <= encoded.length()) {
+            int end = encoded.indexOf('&', start);
+            if (end < 0) {
+                end = encoded.length();
+            }
+            if (end > start) {
+                int eq = encoded.indexOf('=', start);
+                String name;
+                String value;
+                if (eq < 0 || eq > end) {
+                    name = decode(encoded.substring(start, end));
+                    value = "";
+                } else {
+                    name = decode(encoded.substring(start, eq));
+                    value = decode(encoded.substring(eq + 1, end));
+                }
+                values.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+            }
+            start = end + 1;
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("요청 파라미터 인코딩이 올바르지 않습니다");
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ValidationException("요청 본문이 너무 큽니다");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
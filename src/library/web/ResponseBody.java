@@ -0,0 +1,97 @@
+package library.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Response body that holds back the status line until it has to. Output is staged in a fixed buffer;
+ * if the whole body fits, it is sent with a {@code Content-Length} on close, otherwise the response
+ * switches to chunked encoding when the buffer first fills. Either way the connection stays reusable
+ * for keep-alive, and a handler that fails before anything was sent can still answer with an error.
+ */
+final class ResponseBody extends OutputStream {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final HttpExchange exchange;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    private int status = 200;
+    private OutputStream committed;
+    private boolean closed;
+
+    ResponseBody(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    /**
+     * Sets the status to send; only effective before the response is committed.
+     */
+    void status(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return whether the status line has already been sent
+     */
+    boolean isCommitted() {
+        return committed != null;
+    }
+
+    /**
+     * Drops output that has not been sent yet.
+     */
+    void reset() {
+        if (isCommitted()) {
+            throw new IllegalStateException("response already committed");
+        }
+        count = 0;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (count == buffer.length) {
+                drain();
+            }
+            int n = Math.min(length, buffer.length - count);
+            System.arraycopy(bytes, offset, buffer, count, n);
+            count += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (committed == null) {
+            exchange.sendResponseHeaders(status, count == 0 ? -1 : count);
+            committed = exchange.getResponseBody();
+        }
+        committed.write(buffer, 0, count);
+        count = 0;
+        committed.close();
+    }
+
+    private void drain() throws IOException {
+        if (committed == null) {
+            exchange.sendResponseHeaders(status, 0);
+            committed = exchange.getResponseBody();
+        }
+        committed.write(buffer, 0, count);
+        count = 0;
+    }
+}